@@ -0,0 +1,10 @@
+package com.BRS.BookRecomendation.DTO;
+
+// What an ad-hoc order analytics query groups its rows by
+public enum AnalyticsDimension {
+    BOOK,
+    GENRE,
+    USER,
+    WEEK,
+    STATUS
+}
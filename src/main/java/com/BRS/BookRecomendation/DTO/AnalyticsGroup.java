@@ -0,0 +1,19 @@
+package com.BRS.BookRecomendation.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// One group of an ad-hoc order analytics query
+@Getter
+@AllArgsConstructor
+public class AnalyticsGroup {
+
+    // Book id, genre tag, user id, week start date or status
+    private final String key;
+
+    // Book title or username where the key is an id, otherwise the key again
+    private final String label;
+    private final double revenue;
+    private final long units;
+    private final long orders;
+}
@@ -0,0 +1,25 @@
+package com.BRS.BookRecomendation.DTO;
+
+import java.util.List;
+
+import com.BRS.BookRecomendation.Entities.Book;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class BookPage {
+
+	private List<Book> books;
+
+	// Opaque cursor for the next page, null on the last page
+	private String nextCursor;
+
+}
@@ -0,0 +1,24 @@
+package com.BRS.BookRecomendation.DTO;
+
+import java.util.List;
+
+import com.BRS.BookRecomendation.Entities.Book;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class BookSectionPage {
+
+	private String genre;
+	private List<Book> books;
+	private String nextCursor;
+
+}
@@ -0,0 +1,46 @@
+package com.BRS.BookRecomendation.DTO;
+
+import java.util.Comparator;
+
+import org.springframework.data.domain.Sort;
+
+import com.BRS.BookRecomendation.Entities.Book;
+
+public enum BookSort {
+    RATING("rating", Sort.Direction.DESC),
+    PRICE("price", Sort.Direction.ASC),
+    TITLE("title", Sort.Direction.ASC),
+    ID("id", Sort.Direction.ASC),
+    // Search ranking; listings without a score fall back to id order
+    RELEVANCE("id", Sort.Direction.ASC);
+
+    private final String property;
+    private final Sort.Direction direction;
+
+    BookSort(String property, Sort.Direction direction) {
+        this.property = property;
+        this.direction = direction;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    // Always ends on the id so that the keyset is unique
+    public Sort toSort() {
+        Sort sort = Sort.by(direction, property);
+        return "id".equals(property) ? sort : sort.and(Sort.by(Sort.Direction.ASC, "id"));
+    }
+
+    // The same order as toSort() for lists sorted in memory; titles ignore case as the database collation does
+    public Comparator<Book> comparator() {
+        Comparator<Book> byId = Comparator.comparing(Book::getId);
+        return switch (this) {
+            case RATING -> Comparator.comparingDouble(Book::getRating).reversed().thenComparing(byId);
+            case PRICE -> Comparator.comparingDouble(Book::getPrice).thenComparing(byId);
+            case TITLE -> Comparator.comparing(Book::getTitle, Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER))
+                    .thenComparing(byId);
+            case ID, RELEVANCE -> byId;
+        };
+    }
+}
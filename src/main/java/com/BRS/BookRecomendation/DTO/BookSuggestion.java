@@ -0,0 +1,19 @@
+package com.BRS.BookRecomendation.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class BookSuggestion {
+
+    public enum Type {
+        TITLE,
+        AUTHOR
+    }
+
+    private final String text;
+    private final Type type;
+    private final Long bookId;
+    private final double rating;
+}
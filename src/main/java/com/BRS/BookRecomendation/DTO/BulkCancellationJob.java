@@ -0,0 +1,32 @@
+package com.BRS.BookRecomendation.DTO;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Point-in-time view of a background cancellation of all of a user's orders
+@Getter
+@AllArgsConstructor
+public class BulkCancellationJob {
+
+    public enum State {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private final Long jobId;
+    private final Long userId;
+    private final State state;
+
+    // Cancellable orders counted when the job started
+    private final long totalOrders;
+    private final long cancelledOrders;
+    private final long restockedUnits;
+
+    private final LocalDateTime startedAt;
+    private final LocalDateTime finishedAt;
+    private final String message;
+}
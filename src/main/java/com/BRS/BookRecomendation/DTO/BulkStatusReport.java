@@ -0,0 +1,18 @@
+package com.BRS.BookRecomendation.DTO;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Outcome of moving many orders to one status, with a result per requested order in request order
+@Getter
+@AllArgsConstructor
+public class BulkStatusReport {
+
+    private final Status targetStatus;
+    private final int requested;
+    private final int updated;
+    private final int rejected;
+    private final List<OrderStatusResult> results;
+}
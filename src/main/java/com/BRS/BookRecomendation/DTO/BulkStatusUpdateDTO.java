@@ -0,0 +1,20 @@
+package com.BRS.BookRecomendation.DTO;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatusUpdateDTO {
+    @NotEmpty(message = "At least one order id is required")
+    private List<Long> orderIds;
+
+    @NotBlank(message = "Target status is required")
+    private String status;
+}
@@ -19,4 +19,7 @@ public class CartItemDTO {
     private double price;
     private Integer quantity;
     private LocalDateTime addedDate;
+
+    // Null when the item holds no stock
+    private LocalDateTime holdExpiresAt;
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.BRS.BookRecomendation.DTO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class CatalogSnapshot {
+
+    private final long version;
+    private final LocalDateTime builtAt;
+    private final List<BookSection> sections;
+}
@@ -0,0 +1,33 @@
+package com.BRS.BookRecomendation.DTO;
+
+import java.util.List;
+import java.util.Map;
+
+import com.BRS.BookRecomendation.Entities.Book;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class FacetedBookPage {
+
+	private List<Book> books;
+
+	// Number of books matching every selected filter
+	private int total;
+
+	private int page;
+
+	private int size;
+
+	// facet name -> (value -> count), each counted with the other facets' filters applied
+	private Map<String, Map<String, Integer>> facets;
+
+}
@@ -0,0 +1,30 @@
+package com.BRS.BookRecomendation.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Point-in-time view of a flash-sale checkout attempt
+@Getter
+@AllArgsConstructor
+public class FlashSaleTicket {
+
+    public enum State {
+        QUEUED,
+        CONFIRMED,
+        REJECTED,
+        FAILED
+    }
+
+    private final Long ticketId;
+    private final Long userId;
+    private final Long bookId;
+    private final int quantity;
+    private final State state;
+
+    // Tickets ahead of this one, 0 once it is being processed or done
+    private final long position;
+
+    // Set once the order has been placed
+    private final Long orderId;
+    private final String message;
+}
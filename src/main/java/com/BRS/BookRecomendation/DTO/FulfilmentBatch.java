@@ -0,0 +1,17 @@
+package com.BRS.BookRecomendation.DTO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Orders a fulfilment worker has just claimed; they stay its own while it heartbeats before the lease ends
+@Getter
+@AllArgsConstructor
+public class FulfilmentBatch {
+
+    private final String workerId;
+    private final LocalDateTime leaseExpiresAt;
+    private final List<OrderDTO> orders;
+}
@@ -0,0 +1,20 @@
+package com.BRS.BookRecomendation.DTO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Result of a heartbeat or release: the orders the worker still held, and those it had already lost
+@Getter
+@AllArgsConstructor
+public class FulfilmentLease {
+
+    private final String workerId;
+
+    // Null after a release
+    private final LocalDateTime leaseExpiresAt;
+    private final List<Long> orderIds;
+    private final List<Long> lostOrderIds;
+}
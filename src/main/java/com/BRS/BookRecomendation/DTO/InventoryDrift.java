@@ -0,0 +1,16 @@
+package com.BRS.BookRecomendation.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// A book whose in-memory availability does not match books.stock_quantity plus unapplied deltas.
+// Checkouts in flight while the check runs can show up as transient drift.
+@Getter
+@AllArgsConstructor
+public class InventoryDrift {
+
+    private final Long bookId;
+    private final int ledgerAvailable;
+    private final int databaseStock;
+    private final int pendingDelta;
+}
@@ -3,7 +3,6 @@ package com.BRS.BookRecomendation.DTO;
 import lombok.*;
 import java.time.LocalDateTime;
 import java.util.List;
-import com.BRS.BookRecomendation.Entities.OrderItem;
 
 @Getter
 @Setter
@@ -14,5 +13,10 @@ public class OrderDTO {
     private Double totalPrice;
     private String status;
     private LocalDateTime createdAt;
-    private List<OrderItem> orderItems;
+    private List<OrderItemDTO> orderItems;
+
+    // JPQL constructor projection; items are attached afterwards
+    public OrderDTO(Long id, Double totalPrice, Status status, LocalDateTime createdAt) {
+        this(id, totalPrice, status == null ? null : status.name(), createdAt, null);
+    }
 }
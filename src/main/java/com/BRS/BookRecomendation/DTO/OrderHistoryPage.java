@@ -0,0 +1,23 @@
+package com.BRS.BookRecomendation.DTO;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class OrderHistoryPage {
+
+    // Newest first
+    private List<OrderDTO> orders;
+
+    // Opaque cursor for the next page, null on the last page
+    private String nextCursor;
+}
@@ -0,0 +1,21 @@
+package com.BRS.BookRecomendation.DTO;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderItemDTO {
+    // Only used to group items under their order
+    @JsonIgnore
+    private Long orderId;
+
+    private Long bookId;
+    private String bookTitle;
+    private Integer quantity;
+    private Double price;
+    private String imageUrl;
+}
@@ -0,0 +1,25 @@
+package com.BRS.BookRecomendation.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// What a bulk status change did to one order
+@Getter
+@AllArgsConstructor
+public class OrderStatusResult {
+
+    public enum Outcome {
+        UPDATED,
+        UNCHANGED,
+        NOT_FOUND,
+        INVALID_TRANSITION,
+        FAILED
+    }
+
+    private final Long orderId;
+    private final Outcome outcome;
+
+    // Null when the order was not found
+    private final Status previousStatus;
+    private final String message;
+}
@@ -0,0 +1,16 @@
+package com.BRS.BookRecomendation.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Net revenue, units and orders for one day, genre or book; cancelled orders are taken back out
+@Getter
+@AllArgsConstructor
+public class SalesFigures {
+
+    // The day, genre tag or book id the figures belong to
+    private final String key;
+    private final double revenue;
+    private final long units;
+    private final long orders;
+}
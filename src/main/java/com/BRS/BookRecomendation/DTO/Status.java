@@ -1,5 +1,11 @@
 package com.BRS.BookRecomendation.DTO;
 
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
 public enum Status {
     PENDING,
     PROCESSING,
@@ -11,5 +17,39 @@ public enum Status {
     CANCELLED,
     FAILED,
     REFUNDED,
-    CONFIRMED
+    CONFIRMED;
+
+    // Allowed moves, built once; cancelling is only possible before the order ships and
+    // PROCESSING goes back to CONFIRMED when a fulfilment worker releases its claim
+    private static final Map<Status, Set<Status>> TRANSITIONS = new EnumMap<>(Status.class);
+
+    static {
+        TRANSITIONS.put(PENDING, EnumSet.of(CONFIRMED, PROCESSING, CANCELLED, FAILED));
+        TRANSITIONS.put(CONFIRMED, EnumSet.of(PROCESSING, SHIPPED, CANCELLED, FAILED));
+        TRANSITIONS.put(PROCESSING, EnumSet.of(CONFIRMED, SHIPPED, CANCELLED, FAILED));
+        TRANSITIONS.put(SHIPPED, EnumSet.of(OUT_FOR_DELIVERY, DELIVERED, FAILED));
+        TRANSITIONS.put(OUT_FOR_DELIVERY, EnumSet.of(DELIVERED, FAILED));
+        TRANSITIONS.put(DELIVERED, EnumSet.of(RETURN_REQUESTED));
+        TRANSITIONS.put(RETURN_REQUESTED, EnumSet.of(RETURNED, DELIVERED));
+        TRANSITIONS.put(RETURNED, EnumSet.of(REFUNDED));
+        TRANSITIONS.put(FAILED, EnumSet.of(REFUNDED));
+        TRANSITIONS.put(CANCELLED, EnumSet.of(REFUNDED));
+        TRANSITIONS.put(REFUNDED, EnumSet.noneOf(Status.class));
+    }
+
+    public boolean canTransitionTo(Status target) {
+        return TRANSITIONS.get(this).contains(target);
+    }
+
+    // Accepts any casing, e.g. "Shipped"; returns null for unknown values
+    public static Status parse(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
 }
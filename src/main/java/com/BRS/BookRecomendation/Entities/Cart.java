@@ -4,7 +4,7 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
-@Table(name = "cart_items")
+@Table(name = "cart_items", indexes = @Index(name = "idx_cart_items_hold_expires", columnList = "hold_expires_at"))
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
@@ -29,4 +29,11 @@ public class Cart {
 
     @Column(name = "added_date")
     private java.time.LocalDateTime addedDate;
+
+    // Soft stock hold counted against available-to-promise until it expires
+    @Column(name = "held_quantity")
+    private Integer heldQuantity;
+
+    @Column(name = "hold_expires_at")
+    private java.time.LocalDateTime holdExpiresAt;
 }
\ No newline at end of file
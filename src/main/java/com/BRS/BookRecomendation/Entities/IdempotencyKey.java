@@ -0,0 +1,33 @@
+package com.BRS.BookRecomendation.Entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// Remembers which order a client's Idempotency-Key produced; written in the order's own transaction
+@Entity
+@Table(name = "idempotency_keys",
+        uniqueConstraints = @UniqueConstraint(name = "uk_idempotency_keys_user_key",
+                columnNames = { "user_id", "idempotency_key" }),
+        indexes = @Index(name = "idx_idempotency_keys_created", columnList = "created_at"))
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class IdempotencyKey {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "idempotency_key", nullable = false, length = 128)
+    private String idempotencyKey;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(name = "created_at", nullable = false)
+    private java.time.LocalDateTime createdAt;
+}
@@ -0,0 +1,27 @@
+package com.BRS.BookRecomendation.Entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// Append-only log of stock changes made by the inventory ledger, deleted once applied to books
+@Entity
+@Table(name = "inventory_deltas", indexes = @Index(name = "idx_inventory_deltas_book", columnList = "book_id"))
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class InventoryDelta {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "book_id", nullable = false)
+    private Long bookId;
+
+    @Column(nullable = false)
+    private int delta;
+
+    @Column(name = "created_at", nullable = false)
+    private java.time.LocalDateTime createdAt;
+}
@@ -3,13 +3,16 @@ package com.BRS.BookRecomendation.Entities;
 import com.BRS.BookRecomendation.DTO.Status;
 import jakarta.persistence.*;
 import lombok.*;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_user_created", columnList = "user_id, created_at, id"),
+        @Index(name = "idx_orders_status_lease", columnList = "status, lease_expires_at, id") })
 @Getter
 @Setter
 @NoArgsConstructor
@@ -38,4 +41,13 @@ public class Order {
 
     @Builder.Default
     private LocalDateTime createdAt = LocalDateTime.now();
+
+    // Fulfilment worker holding the order while it is PROCESSING, until the lease runs out
+    @JsonIgnore
+    @Column(name = "claimed_by", length = 64)
+    private String claimedBy;
+
+    @JsonIgnore
+    @Column(name = "lease_expires_at")
+    private LocalDateTime leaseExpiresAt;
 }
@@ -0,0 +1,41 @@
+package com.BRS.BookRecomendation.Entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// Events waiting to leave the process, written in the same transaction as the change they describe
+@Entity
+@Table(name = "outbox", indexes = @Index(name = "idx_outbox_due", columnList = "attempts, next_attempt_at"))
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class OutboxEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "event_type", nullable = false, length = 64)
+    private String eventType;
+
+    @Column(name = "aggregate_id", nullable = false)
+    private Long aggregateId;
+
+    @Lob
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "last_error", length = 512)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private java.time.LocalDateTime createdAt;
+
+    // Not claimed before this time: set by retry backoff, backpressure and while a listener's delivery is pending
+    @Column(name = "next_attempt_at")
+    private java.time.LocalDateTime nextAttemptAt;
+}
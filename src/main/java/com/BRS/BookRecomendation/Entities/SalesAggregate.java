@@ -0,0 +1,39 @@
+package com.BRS.BookRecomendation.Entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// Net sales per day for the whole shop, a genre or a book, kept up to date as orders are placed and cancelled
+@Entity
+@Table(name = "sales_daily", uniqueConstraints = @UniqueConstraint(name = "uk_sales_daily_dimension_day",
+        columnNames = { "dimension", "dimension_key", "sales_date" }))
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class SalesAggregate {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // TOTAL, GENRE or BOOK
+    @Column(nullable = false, length = 16)
+    private String dimension;
+
+    // Empty for TOTAL, the genre tag or the book id
+    @Column(name = "dimension_key", nullable = false, length = 64)
+    private String dimensionKey;
+
+    @Column(name = "sales_date", nullable = false)
+    private java.time.LocalDate salesDate;
+
+    @Column(nullable = false)
+    private double revenue;
+
+    @Column(nullable = false)
+    private long units;
+
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+}
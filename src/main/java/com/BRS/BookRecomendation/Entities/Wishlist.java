@@ -4,7 +4,7 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
-@Table(name = "wishlists")
+@Table(name = "wishlists", indexes = @Index(name = "idx_wishlists_book_user", columnList = "book_id, user_id"))
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
@@ -1,15 +1,27 @@
 package com.BRS.BookRecomendation.controller;
 
+import java.time.LocalDate;
 import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import com.BRS.BookRecomendation.DTO.PasswordUpdateDTO;
+import com.BRS.BookRecomendation.DTO.InventoryDrift;
+import com.BRS.BookRecomendation.DTO.BulkCancellationJob;
+import com.BRS.BookRecomendation.DTO.SalesFigures;
+import com.BRS.BookRecomendation.DTO.AnalyticsDimension;
+import com.BRS.BookRecomendation.DTO.AnalyticsGroup;
+import com.BRS.BookRecomendation.DTO.Status;
+import com.BRS.BookRecomendation.DTO.BulkStatusReport;
+import com.BRS.BookRecomendation.DTO.BulkStatusUpdateDTO;
 import com.BRS.BookRecomendation.Entities.Book;
 import com.BRS.BookRecomendation.Entities.Genre;
 import com.BRS.BookRecomendation.Entities.Order;
@@ -19,6 +31,14 @@ import com.BRS.BookRecomendation.service.UserInfoService;
 import com.BRS.BookRecomendation.service.WishlistService;
 import com.BRS.BookRecomendation.service.CartService;
 import com.BRS.BookRecomendation.service.AddressService;
+import com.BRS.BookRecomendation.service.AlsoBoughtService;
+import com.BRS.BookRecomendation.service.UserRecommendationService;
+import com.BRS.BookRecomendation.service.InventoryLedger;
+import com.BRS.BookRecomendation.service.FlashSaleService;
+import com.BRS.BookRecomendation.service.BulkCancellationService;
+import com.BRS.BookRecomendation.service.SalesStatsService;
+import com.BRS.BookRecomendation.service.OrderAnalyticsService;
+import com.BRS.BookRecomendation.service.BulkStatusService;
 import com.BRS.BookRecomendation.service.BookService;
 import com.BRS.BookRecomendation.service.GenreService;
 
@@ -49,6 +69,33 @@ public class AdminController {
 
     @Autowired
     private AddressService addressService;
+
+    @Autowired
+    private AlsoBoughtService alsoBoughtService;
+
+    @Autowired
+    private UserRecommendationService userRecommendationService;
+
+    @Autowired
+    private InventoryLedger inventoryLedger;
+
+    @Autowired
+    private FlashSaleService flashSaleService;
+
+    @Autowired
+    private BulkCancellationService bulkCancellationService;
+
+    @Autowired
+    private SalesStatsService salesStatsService;
+
+    @Autowired
+    private OrderAnalyticsService orderAnalyticsService;
+
+    @Autowired
+    private BulkStatusService bulkStatusService;
+
+    @Value("${orders.bulk-cancel.async-threshold:1000}")
+    private long bulkCancelAsyncThreshold;
     
     
     @PutMapping("{userId}/updatePassword")
@@ -193,6 +240,142 @@ public class AdminController {
         }
     }
 
+    // Per-order outcomes are in the report; only a malformed request as a whole is a 400
+    @PutMapping("/orders/status")
+    public ResponseEntity<?> updateOrderStatuses(@RequestBody BulkStatusUpdateDTO request) {
+        int count = request.getOrderIds() == null ? 0 : request.getOrderIds().size();
+        logger.info("Admin request to move {} orders to status: {}", count, request.getStatus());
+        try {
+            BulkStatusReport report = bulkStatusService.updateStatuses(request.getOrderIds(), request.getStatus());
+            logger.info("Bulk status update to {}: {} updated, {} rejected", report.getTargetStatus(),
+                    report.getUpdated(), report.getRejected());
+            return ResponseEntity.ok(report);
+        } catch (RuntimeException e) {
+            logger.error("Bulk status update failed: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Recommendation Management
+    @PostMapping("/recommendations/also-bought/rebuild")
+    public ResponseEntity<?> rebuildAlsoBought() {
+        logger.info("Admin request to rebuild also-bought model");
+        if (!alsoBoughtService.requestRebuild()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Rebuild already in progress");
+        }
+        return ResponseEntity.accepted().build();
+    }
+
+    @PostMapping("/recommendations/users/retrain")
+    public ResponseEntity<?> retrainUserRecommendations() {
+        logger.info("Admin request to retrain user recommendations");
+        if (!userRecommendationService.requestTraining()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Training already in progress");
+        }
+        return ResponseEntity.accepted().build();
+    }
+
+    @GetMapping("/inventory/reconcile")
+    public ResponseEntity<?> reconcileInventory() {
+        logger.info("Admin request to reconcile inventory ledger against books");
+        if (!inventoryLedger.isEnabled()) {
+            return ResponseEntity.badRequest().body("Inventory ledger is disabled");
+        }
+        try {
+            List<InventoryDrift> drifts = inventoryLedger.reconcile();
+            logger.info("Inventory reconciliation found {} drifted books", drifts.size());
+            return ResponseEntity.ok(drifts);
+        } catch (Exception e) {
+            logger.error("Error reconciling inventory ledger: {}", e.getMessage());
+            throw e;
+        }
+    }
+
+    // Sales Statistics, served from in-memory daily counters
+    @GetMapping("/stats/daily")
+    public ResponseEntity<List<SalesFigures>> getDailySales(@RequestParam(defaultValue = "30") int days) {
+        logger.info("Admin request for daily sales over {} days", days);
+        return ResponseEntity.ok(salesStatsService.getDaily(days));
+    }
+
+    @GetMapping("/stats/genres")
+    public ResponseEntity<List<SalesFigures>> getGenreSales(@RequestParam(defaultValue = "30") int days) {
+        logger.info("Admin request for sales by genre over {} days", days);
+        return ResponseEntity.ok(salesStatsService.getByGenre(days));
+    }
+
+    @GetMapping("/stats/books/top")
+    public ResponseEntity<List<SalesFigures>> getTopSellingBooks(@RequestParam(defaultValue = "30") int days,
+            @RequestParam(defaultValue = "10") int limit) {
+        logger.info("Admin request for top {} books by revenue over {} days", limit, days);
+        return ResponseEntity.ok(salesStatsService.getTopBooks(days, Math.max(1, Math.min(limit, 100))));
+    }
+
+    @GetMapping("/stats/books/{bookId}")
+    public ResponseEntity<SalesFigures> getBookSales(@PathVariable Long bookId,
+            @RequestParam(defaultValue = "30") int days) {
+        logger.info("Admin request for sales of book ID: {} over {} days", bookId, days);
+        return ResponseEntity.ok(salesStatsService.getBook(bookId, days));
+    }
+
+    @PostMapping("/stats/rebuild")
+    public ResponseEntity<?> rebuildSalesStats() {
+        logger.info("Admin request to rebuild sales statistics from orders");
+        try {
+            int rows = salesStatsService.rebuild();
+            return ResponseEntity.ok(rows);
+        } catch (Exception e) {
+            logger.error("Error rebuilding sales statistics: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        }
+    }
+
+    // Ad-hoc Order Analytics over the in-memory fact columns
+    @GetMapping("/analytics")
+    public ResponseEntity<List<AnalyticsGroup>> queryOrderAnalytics(@RequestParam AnalyticsDimension groupBy,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) List<Status> status,
+            @RequestParam(defaultValue = "50") int limit) {
+        logger.info("Admin analytics query: groupBy={}, from={}, to={}, status={}, limit={}", groupBy, from, to,
+                status, limit);
+        List<AnalyticsGroup> groups = orderAnalyticsService.query(groupBy, from, to, status,
+                Math.max(1, Math.min(limit, 1000)));
+        return ResponseEntity.ok(groups);
+    }
+
+    @PostMapping("/analytics/reload")
+    public ResponseEntity<?> reloadOrderAnalytics() {
+        logger.info("Admin request to reload order analytics");
+        if (!orderAnalyticsService.requestReload()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Reload already in progress");
+        }
+        return ResponseEntity.accepted().build();
+    }
+
+    @PostMapping("/flash-sale/{bookId}")
+    public ResponseEntity<?> enableFlashSale(@PathVariable Long bookId,
+            @RequestParam(required = false) Integer queueCapacity) {
+        logger.info("Admin request to enable flash sale for book ID: {}", bookId);
+        try {
+            int units = flashSaleService.enable(bookId, queueCapacity);
+            return ResponseEntity.ok("Flash sale enabled with " + units + " units");
+        } catch (RuntimeException e) {
+            logger.error("Failed to enable flash sale for book ID: {}: {}", bookId, e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/flash-sale/{bookId}")
+    public ResponseEntity<?> disableFlashSale(@PathVariable Long bookId) {
+        logger.info("Admin request to disable flash sale for book ID: {}", bookId);
+        if (!flashSaleService.disable(bookId)) {
+            logger.warn("No flash sale active for book ID: {}", bookId);
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok().build();
+    }
+
     // User Management
     @GetMapping("/users")
     public ResponseEntity<List<UserInfo>> getAllUsers() {
@@ -222,14 +405,18 @@ public class AdminController {
             logger.debug("Clearing cart for user ID: {}", userId);
             cartService.clearCart(userId);
 
+            // Large accounts are cancelled in the background and deleted once that has finished
+            long cancellable = bulkCancellationService.countCancellable(userId);
+            if (cancellable > bulkCancelAsyncThreshold) {
+                logger.info("User ID: {} has {} open orders, deleting in the background", userId, cancellable);
+                BulkCancellationJob job = bulkCancellationService.submit(userId, () -> deleteAccount(userId));
+                return ResponseEntity.accepted().body(job);
+            }
+
             logger.debug("Cancelling all orders for user ID: {}", userId);
             orderService.cancelAllOrders(userId);
 
-            logger.debug("Deleting address for user ID: {}", userId);
-            addressService.deleteAddress(userId);
-
-            logger.debug("Deleting user account for ID: {}", userId);
-            userInfoService.deleteUser(userId);
+            deleteAccount(userId);
 
             logger.info("User with ID {} deleted successfully", userId);
             return ResponseEntity.ok().build();
@@ -238,4 +425,27 @@ public class AdminController {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    @PostMapping("/users/{userId}/orders/cancel")
+    public ResponseEntity<BulkCancellationJob> cancelUserOrders(@PathVariable Long userId) {
+        logger.info("Admin request to cancel all orders of user ID: {}", userId);
+        return ResponseEntity.accepted().body(bulkCancellationService.submit(userId, null));
+    }
+
+    @GetMapping("/jobs/cancellations/{jobId}")
+    public ResponseEntity<BulkCancellationJob> getCancellationJob(@PathVariable Long jobId) {
+        BulkCancellationJob job = bulkCancellationService.getJob(jobId);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(job);
+    }
+
+    private void deleteAccount(Long userId) {
+        logger.debug("Deleting address for user ID: {}", userId);
+        addressService.deleteAddress(userId);
+
+        logger.debug("Deleting user account for ID: {}", userId);
+        userInfoService.deleteUser(userId);
+    }
+}
@@ -1,7 +1,8 @@
 package com.BRS.BookRecomendation.controller;
 
-import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.slf4j.Logger;
@@ -13,13 +14,26 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.http.ResponseEntity;
 
+import com.BRS.BookRecomendation.DTO.BookPage;
 import com.BRS.BookRecomendation.DTO.BookSection;
-import com.BRS.BookRecomendation.Entities.Genre;
+import com.BRS.BookRecomendation.DTO.BookSectionPage;
+import com.BRS.BookRecomendation.DTO.BookSort;
+import com.BRS.BookRecomendation.DTO.BookSuggestion;
+import com.BRS.BookRecomendation.DTO.CatalogSnapshot;
+import com.BRS.BookRecomendation.DTO.FacetedBookPage;
 import com.BRS.BookRecomendation.Entities.Book;
+import com.BRS.BookRecomendation.service.AlsoBoughtService;
+import com.BRS.BookRecomendation.service.BookFacetIndex;
 import com.BRS.BookRecomendation.service.BookService;
-import com.BRS.BookRecomendation.service.GenreService;
+import com.BRS.BookRecomendation.service.BookSuggestionService;
+import com.BRS.BookRecomendation.service.CartHoldService;
+import com.BRS.BookRecomendation.service.CatalogSnapshotService;
+import com.BRS.BookRecomendation.service.SimilarBooksService;
+import com.BRS.BookRecomendation.service.TrendingService;
+import com.BRS.BookRecomendation.service.UserRecommendationService;
 
 @RestController
 @RequestMapping("/book")
@@ -31,7 +45,28 @@ public class BookController {
 	private BookService bookService;
 
 	@Autowired
-	private GenreService genreService;
+	private CatalogSnapshotService catalogSnapshotService;
+
+	@Autowired
+	private BookSuggestionService bookSuggestionService;
+
+	@Autowired
+	private AlsoBoughtService alsoBoughtService;
+
+	@Autowired
+	private UserRecommendationService userRecommendationService;
+
+	@Autowired
+	private SimilarBooksService similarBooksService;
+
+	@Autowired
+	private TrendingService trendingService;
+
+	@Autowired
+	private BookFacetIndex bookFacetIndex;
+
+	@Autowired
+	private CartHoldService cartHoldService;
 
 	@GetMapping("/hello")
 	@PreAuthorize("hasAuthority('ROLE_USER')")
@@ -57,28 +92,105 @@ public class BookController {
 		}
 	}
 
+	@GetMapping("/{bookId}/also-bought")
+	public ResponseEntity<List<Book>> getAlsoBought(@PathVariable Long bookId,
+			@RequestParam(defaultValue = "10") int limit) {
+		logger.info("Request for books also bought with book ID: {}", bookId);
+		try {
+			int size = Math.max(1, Math.min(limit, AlsoBoughtService.MAX_ALSO_BOUGHT));
+			List<Book> books = bookService.getBooksInOrder(alsoBoughtService.getAlsoBought(bookId, size));
+			logger.info("Returning {} also-bought books for book ID: {}", books.size(), bookId);
+			return ResponseEntity.ok(books);
+		} catch (Exception e) {
+			logger.error("Error retrieving also-bought books for book ID {}: {}", bookId, e.getMessage());
+			throw e;
+		}
+	}
+
+	// Stock not already held by shoppers' carts
+	@GetMapping("/{bookId}/availability")
+	public ResponseEntity<?> getAvailability(@PathVariable Long bookId) {
+		logger.info("Request for available-to-promise stock of book ID: {}", bookId);
+		try {
+			int available = cartHoldService.availableToPromise(bookId);
+			if (available < 0) {
+				logger.warn("Book not found with ID: {}", bookId);
+				return ResponseEntity.notFound().build();
+			}
+			Map<String, Object> response = new LinkedHashMap<>();
+			response.put("bookId", bookId);
+			response.put("availableToPromise", available);
+			response.put("held", cartHoldService.getHeld(bookId));
+			return ResponseEntity.ok(response);
+		} catch (Exception e) {
+			logger.error("Error retrieving availability for book ID {}: {}", bookId, e.getMessage());
+			throw e;
+		}
+	}
+
+	@GetMapping("/{bookId}/similar")
+	public ResponseEntity<List<Book>> getSimilar(@PathVariable Long bookId,
+			@RequestParam(defaultValue = "10") int limit) {
+		logger.info("Request for books similar to book ID: {}", bookId);
+		try {
+			int size = Math.max(1, Math.min(limit, SimilarBooksService.MAX_SIMILAR));
+			List<Book> books = bookService.getBooksInOrder(similarBooksService.getSimilar(bookId, size));
+			logger.info("Returning {} similar books for book ID: {}", books.size(), bookId);
+			return ResponseEntity.ok(books);
+		} catch (Exception e) {
+			logger.error("Error retrieving similar books for book ID {}: {}", bookId, e.getMessage());
+			throw e;
+		}
+	}
+
+	@GetMapping("/trending")
+	public ResponseEntity<List<Book>> getTrending(@RequestParam(defaultValue = "10") int limit) {
+		logger.info("Request for trending books with limit: {}", limit);
+		try {
+			int size = Math.max(1, Math.min(limit, TrendingService.MAX_TRENDING));
+			List<Book> books = bookService.getBooksInOrder(trendingService.getTrending(size));
+			logger.info("Returning {} trending books", books.size());
+			return ResponseEntity.ok(books);
+		} catch (Exception e) {
+			logger.error("Error retrieving trending books: {}", e.getMessage());
+			throw e;
+		}
+	}
+
+	// Built from the user's wishlist, cart and orders, so not public like the rest of /book
+	@GetMapping("/recommended/{userId}")
+	@PreAuthorize("hasAuthority('ROLE_USER')")
+	public ResponseEntity<List<Book>> getRecommended(@PathVariable Long userId,
+			@RequestParam(defaultValue = "10") int limit) {
+		logger.info("Request for recommended books for user ID: {}", userId);
+		try {
+			int size = Math.max(1, Math.min(limit, UserRecommendationService.MAX_RECOMMENDATIONS));
+			List<Book> books = bookService.getBooksInOrder(userRecommendationService.getRecommendations(userId, size));
+			logger.info("Returning {} recommended books for user ID: {}", books.size(), userId);
+			return ResponseEntity.ok(books);
+		} catch (Exception e) {
+			logger.error("Error retrieving recommended books for user ID {}: {}", userId, e.getMessage());
+			throw e;
+		}
+	}
+
 	@GetMapping("/allBooks")
-	public List<BookSection> getAllBooks() {
+	public ResponseEntity<List<BookSection>> getAllBooks(WebRequest request) {
 		logger.info("Request to get all books by genre sections");
 		try {
-			List<Genre> allGenreTags = genreService.getAllGenres();
-			logger.debug("Retrieved {} genres", allGenreTags.size());
-
-			ArrayList<BookSection> allBookSections = new ArrayList<>();
-			BookSection tempBookSection;
-
-			for (Genre genre : allGenreTags) {
-				logger.debug("Processing books for genre: {}", genre.getGenreTag());
-				tempBookSection = new BookSection();
-				tempBookSection.setGenre(genre.getGenreTag());
-				List<Book> books = bookService.getBooksByGenre(genre.getGenreTag());
-				tempBookSection.setBooks(books);
-				logger.debug("Added {} books for genre: {}", books.size(), genre.getGenreTag());
-				allBookSections.add(tempBookSection);
+			CatalogSnapshot snapshot = catalogSnapshotService.getSnapshot();
+			String eTag = "\"catalog-" + snapshot.getVersion() + "\"";
+			if (request.checkNotModified(eTag)) {
+				logger.debug("Catalog snapshot v{} not modified for client", snapshot.getVersion());
+				return null;
 			}
 
-			logger.info("Returning {} book sections", allBookSections.size());
-			return allBookSections;
+			logger.info("Returning {} book sections from catalog snapshot v{}", snapshot.getSections().size(),
+					snapshot.getVersion());
+			return ResponseEntity.ok()
+					.eTag(eTag)
+					.header("X-Catalog-Version", String.valueOf(snapshot.getVersion()))
+					.body(snapshot.getSections());
 		} catch (Exception e) {
 			logger.error("Error retrieving all books: {}", e.getMessage());
 			throw e;
@@ -98,4 +210,87 @@ public class BookController {
 		}
 	}
 
+	@GetMapping("/allBooks/paged")
+	public ResponseEntity<List<BookSectionPage>> getAllBooksPaged(@RequestParam(defaultValue = "RATING") BookSort sort,
+			@RequestParam(defaultValue = "20") int size) {
+		logger.info("Request to get first page of every genre section (sort: {}, size: {})", sort, size);
+		try {
+			List<BookSectionPage> sections = bookService.getFirstPages(sort, size);
+			logger.info("Returning {} paged book sections", sections.size());
+			return ResponseEntity.ok(sections);
+		} catch (Exception e) {
+			logger.error("Error retrieving paged book sections: {}", e.getMessage());
+			throw e;
+		}
+	}
+
+	@GetMapping("/filter")
+	public ResponseEntity<FacetedBookPage> filterBooks(@RequestParam(required = false) List<String> genre,
+			@RequestParam(required = false) List<String> price,
+			@RequestParam(required = false) List<String> rating,
+			@RequestParam(defaultValue = "false") boolean inStock,
+			@RequestParam(defaultValue = "0") int page,
+			@RequestParam(defaultValue = "20") int size) {
+		logger.info("Request to filter books (genre: {}, price: {}, rating: {}, inStock: {}, page: {}, size: {})",
+				genre, price, rating, inStock, page, size);
+		try {
+			int pageSize = Math.max(1, Math.min(size, BookService.MAX_PAGE_SIZE));
+			int pageNumber = Math.max(0, page);
+			BookFacetIndex.Result result = bookFacetIndex.filter(genre, price, rating, inStock, pageNumber, pageSize);
+			List<Book> books = bookService.getBooksInOrder(result.getBookIds());
+			logger.info("Returning {} of {} filtered books", books.size(), result.getTotal());
+			return ResponseEntity.ok(new FacetedBookPage(books, result.getTotal(), pageNumber, pageSize,
+					result.getFacets()));
+		} catch (Exception e) {
+			logger.error("Error filtering books: {}", e.getMessage());
+			throw e;
+		}
+	}
+
+	@GetMapping("/genre/{genreTag}")
+	public ResponseEntity<BookPage> getBooksByGenre(@PathVariable String genreTag,
+			@RequestParam(defaultValue = "RATING") BookSort sort,
+			@RequestParam(required = false) String cursor,
+			@RequestParam(defaultValue = "20") int size) {
+		logger.info("Request to get books for genre: {} (sort: {}, size: {})", genreTag, sort, size);
+		try {
+			BookPage page = bookService.getBooksByGenre(genreTag, sort, cursor, size);
+			logger.info("Returning {} books for genre: {}", page.getBooks().size(), genreTag);
+			return ResponseEntity.ok(page);
+		} catch (Exception e) {
+			logger.error("Error retrieving books for genre {}: {}", genreTag, e.getMessage());
+			throw e;
+		}
+	}
+
+	@GetMapping("/search/paged")
+	public ResponseEntity<BookPage> searchBooksPaged(@RequestParam String query,
+			@RequestParam(defaultValue = "RELEVANCE") BookSort sort,
+			@RequestParam(required = false) String cursor,
+			@RequestParam(defaultValue = "20") int size) {
+		logger.info("Paged search request received with query: '{}' (sort: {}, size: {})", query, sort, size);
+		try {
+			BookPage page = bookService.searchBooks(query, sort, cursor, size);
+			logger.info("Paged search for '{}' returned {} results", query, page.getBooks().size());
+			return ResponseEntity.ok(page);
+		} catch (Exception e) {
+			logger.error("Error searching for books with query '{}': {}", query, e.getMessage());
+			throw e;
+		}
+	}
+
+	@GetMapping("/suggest")
+	public ResponseEntity<List<BookSuggestion>> suggestBooks(@RequestParam String prefix,
+			@RequestParam(defaultValue = "10") int limit) {
+		logger.debug("Suggestion request received for prefix: '{}'", prefix);
+		try {
+			List<BookSuggestion> suggestions = bookSuggestionService.suggest(prefix, limit);
+			logger.debug("Prefix '{}' returned {} suggestions", prefix, suggestions.size());
+			return ResponseEntity.ok(suggestions);
+		} catch (Exception e) {
+			logger.error("Error retrieving suggestions for prefix '{}': {}", prefix, e.getMessage());
+			throw e;
+		}
+	}
+
 }
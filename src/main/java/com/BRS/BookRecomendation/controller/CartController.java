@@ -19,6 +19,7 @@ import com.BRS.BookRecomendation.Entities.UserInfo;
 import com.BRS.BookRecomendation.service.UserInfoService;
 import com.BRS.BookRecomendation.service.CartService;
 import com.BRS.BookRecomendation.service.BookService;
+import com.BRS.BookRecomendation.service.CartHoldService;
 
 @RestController
 @RequestMapping("/cart")
@@ -35,6 +36,9 @@ public class CartController {
     @Autowired
     private BookService bookService;
 
+    @Autowired
+    private CartHoldService cartHoldService;
+
     @GetMapping("/{userId}")
     @PreAuthorize("hasAuthority('ROLE_USER')")
     public ResponseEntity<List<CartItemDTO>> getUserCart(@PathVariable Long userId) {
@@ -52,6 +56,7 @@ public class CartController {
                             .price(item.getBook().getPrice())
                             .quantity(item.getQuantity())
                             .addedDate(item.getAddedDate())
+                            .holdExpiresAt(item.getHoldExpiresAt())
                             .build())
                     .collect(Collectors.toList());
 
@@ -84,16 +89,17 @@ public class CartController {
                 return ResponseEntity.badRequest().body("User not found");
             }
 
-            // Check stock availability
-            if (!bookService.checkStockAvailability(bookId, quantity)) {
+            // Check if item already in cart
+            Cart existingItem = cartService.ifBookExistsInCart(userId, bookId);
+
+            // Check stock availability, net of other carts' holds
+            int requestedTotal = existingItem == null ? quantity : existingItem.getQuantity() + quantity;
+            if (!cartHoldService.isAvailable(bookId, requestedTotal, existingItem)) {
                 logger.warn("Add to cart failed: Insufficient stock for book ID: {}, requested quantity: {}", bookId,
-                        quantity);
+                        requestedTotal);
                 return ResponseEntity.badRequest().body("Insufficient stock");
             }
 
-            // Check if item already in cart
-            Cart existingItem = cartService.ifBookExistsInCart(userId, bookId);
-
             if (existingItem != null) {
                 // Update quantity
                 int newQuantity = existingItem.getQuantity() + quantity;
@@ -143,8 +149,8 @@ public class CartController {
                 return ResponseEntity.badRequest().body("Item not found in cart");
             }
 
-            // Check stock availability
-            if (!bookService.checkStockAvailability(bookId, quantity)) {
+            // Check stock availability, net of other carts' holds
+            if (!cartHoldService.isAvailable(bookId, quantity, cartItem)) {
                 logger.warn("Update cart failed: Insufficient stock for Book ID: {}, requested quantity: {}", bookId,
                         quantity);
                 return ResponseEntity.badRequest().body("Insufficient stock");
@@ -0,0 +1,75 @@
+package com.BRS.BookRecomendation.controller;
+
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.function.BiFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.BRS.BookRecomendation.DTO.ExportFormat;
+import com.BRS.BookRecomendation.service.ExportService;
+
+// Streaming alternatives to the list endpoints, for tables too large to build in memory
+@RestController
+@RequestMapping("/admin/export")
+@PreAuthorize("hasAuthority('ROLE_ADMIN')")
+public class ExportController {
+
+    private final Logger logger = LoggerFactory.getLogger(ExportController.class);
+
+    @Autowired
+    private ExportService exportService;
+
+    @GetMapping("/orders")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+        return stream("orders", format, exportService::exportOrders);
+    }
+
+    @GetMapping("/users")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+        return stream("users", format, exportService::exportUsers);
+    }
+
+    @GetMapping("/books")
+    public ResponseEntity<StreamingResponseBody> exportBooks(
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+        return stream("books", format, exportService::exportBooks);
+    }
+
+    @GetMapping("/genres")
+    public ResponseEntity<StreamingResponseBody> exportGenres(
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+        return stream("genres", format, exportService::exportGenres);
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(String name, ExportFormat format,
+            BiFunction<OutputStream, ExportFormat, Long> export) {
+        logger.info("Admin request to export {} as {}", name, format);
+        String filename = name + "-" + LocalDate.now() + "." + format.getExtension();
+        StreamingResponseBody body = out -> {
+            try {
+                export.apply(out, format);
+            } catch (RuntimeException e) {
+                // Headers are already sent, so the client only sees a truncated file
+                logger.error("Export of {} failed: {}", name, e.getMessage());
+                throw e;
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+}
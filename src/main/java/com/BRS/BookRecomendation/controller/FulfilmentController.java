@@ -0,0 +1,62 @@
+package com.BRS.BookRecomendation.controller;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import com.BRS.BookRecomendation.DTO.FulfilmentBatch;
+import com.BRS.BookRecomendation.DTO.FulfilmentLease;
+import com.BRS.BookRecomendation.service.FulfilmentQueueService;
+
+@RestController
+@RequestMapping("/admin/fulfilment")
+@PreAuthorize("hasAuthority('ROLE_ADMIN')")
+public class FulfilmentController {
+
+    private final Logger logger = LoggerFactory.getLogger(FulfilmentController.class);
+
+    @Autowired
+    private FulfilmentQueueService fulfilmentQueueService;
+
+    @PostMapping("/claim")
+    public ResponseEntity<?> claimOrders(@RequestParam String workerId,
+            @RequestParam(defaultValue = "20") int limit) {
+        logger.info("Fulfilment worker {} claiming up to {} orders", workerId, limit);
+        try {
+            FulfilmentBatch batch = fulfilmentQueueService.claim(workerId, limit);
+            return ResponseEntity.ok(batch);
+        } catch (RuntimeException e) {
+            logger.error("Claim failed for fulfilment worker {}: {}", workerId, e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/heartbeat")
+    public ResponseEntity<?> heartbeat(@RequestParam String workerId, @RequestBody List<Long> orderIds) {
+        logger.debug("Heartbeat from fulfilment worker {} for {} orders", workerId, orderIds.size());
+        try {
+            FulfilmentLease lease = fulfilmentQueueService.heartbeat(workerId, orderIds);
+            return ResponseEntity.ok(lease);
+        } catch (RuntimeException e) {
+            logger.error("Heartbeat failed for fulfilment worker {}: {}", workerId, e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/release")
+    public ResponseEntity<?> releaseOrders(@RequestParam String workerId, @RequestBody List<Long> orderIds) {
+        logger.info("Fulfilment worker {} releasing {} orders", workerId, orderIds.size());
+        try {
+            FulfilmentLease lease = fulfilmentQueueService.release(workerId, orderIds);
+            return ResponseEntity.ok(lease);
+        } catch (RuntimeException e) {
+            logger.error("Release failed for fulfilment worker {}: {}", workerId, e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
@@ -6,13 +6,18 @@ import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import com.BRS.BookRecomendation.DTO.FlashSaleTicket;
 import com.BRS.BookRecomendation.DTO.OrderDTO;
+import com.BRS.BookRecomendation.DTO.OrderHistoryPage;
 import com.BRS.BookRecomendation.Entities.Order;
 import com.BRS.BookRecomendation.Entities.OrderItem;
+import com.BRS.BookRecomendation.exception.DuplicateRequestException;
+import com.BRS.BookRecomendation.service.FlashSaleService;
 import com.BRS.BookRecomendation.service.OrderService;
 
 @RestController
@@ -24,47 +29,73 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private FlashSaleService flashSaleService;
+
     @PostMapping("/{userId}/place")
     @PreAuthorize("hasAuthority('ROLE_USER')")
-    public ResponseEntity<?> placeOrder(@PathVariable Long userId) {
+    public ResponseEntity<?> placeOrder(@PathVariable Long userId,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         logger.info("Request to place order for User ID: {}", userId);
         try {
-            Order order = orderService.placeOrder(userId);
+            Order order = orderService.placeOrder(userId, idempotencyKey);
             logger.info("Order successfully placed for User ID: {}, Order ID: {}", userId, order.getId());
             return ResponseEntity.ok(order);
+        } catch (DuplicateRequestException e) {
+            logger.warn("Duplicate order request for User ID: {} rejected while the first is in flight", userId);
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (RuntimeException e) {
             logger.error("Failed to place order for User ID: {}: {}", userId, e.getMessage());
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
 
-    
+    @PostMapping("/{userId}/flash/{bookId}")
+    @PreAuthorize("hasAuthority('ROLE_USER')")
+    public ResponseEntity<?> flashSaleCheckout(@PathVariable Long userId, @PathVariable Long bookId,
+            @RequestParam(defaultValue = "1") int quantity) {
+        logger.info("Flash sale checkout for User ID: {}, Book ID: {}, quantity: {}", userId, bookId, quantity);
+        try {
+            FlashSaleTicket ticket = flashSaleService.checkout(userId, bookId, quantity);
+            if (ticket.getState() == FlashSaleTicket.State.REJECTED) {
+                logger.info("Flash sale checkout rejected for User ID: {}: {}", userId, ticket.getMessage());
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(ticket);
+            }
+            logger.info("Flash sale ticket {} queued for User ID: {} at position {}", ticket.getTicketId(), userId,
+                    ticket.getPosition());
+            return ResponseEntity.accepted().body(ticket);
+        } catch (RuntimeException e) {
+            logger.error("Flash sale checkout failed for User ID: {}: {}", userId, e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/flash/tickets/{ticketId}")
+    @PreAuthorize("hasAuthority('ROLE_USER')")
+    public ResponseEntity<FlashSaleTicket> getFlashSaleTicket(@PathVariable Long ticketId) {
+        logger.debug("Request for flash sale ticket: {}", ticketId);
+        FlashSaleTicket ticket = flashSaleService.getTicket(ticketId);
+        if (ticket == null) {
+            logger.warn("Flash sale ticket not found: {}", ticketId);
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(ticket);
+    }
+
     @GetMapping("/{userId}/getUserOrders")
     @PreAuthorize("hasAuthority('ROLE_USER')")
-    public ResponseEntity<List<Order>> getUserOrders(@PathVariable Long userId) {
+    public ResponseEntity<?> getUserOrders(@PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
         logger.info("Fetching orders for User ID: {}", userId);
-        List<Order> orders = orderService.getOrdersByUserId(userId);
-        logger.info("Retrieved {} orders for User ID: {}", orders.size(), userId);
-        
-//        List<OrderDTO> orderDTOs = new ArrayList<OrderDTO>();
-//        
-//        OrderDTO temoOrderDTO;
-//        
-//        for(Order tempOrder:orders) {
-//        	
-//        	temoOrderDTO = new OrderDTO();
-//        	
-//        	temoOrderDTO.setId(tempOrder.getId());
-//        	temoOrderDTO.setTotalPrice(tempOrder.getTotalPrice());
-//        	temoOrderDTO.setStatus(tempOrder.getStatus().toString());
-//        	temoOrderDTO.setCreatedAt(tempOrder.getCreatedAt());
-//        	temoOrderDTO.setOrderItems(tempOrder.getOrderItems());
-//        	
-//        	orderDTOs.add(temoOrderDTO);
-//        }
-//        
-//        return ResponseEntity.ok(orderDTOs);
-        return ResponseEntity.ok(orders);
+        try {
+            OrderHistoryPage page = orderService.getOrderHistory(userId, cursor, size);
+            logger.info("Retrieved {} orders for User ID: {}", page.getOrders().size(), userId);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid order history request for User ID: {}: {}", userId, e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @GetMapping("/{userId}/orderDetails/{orderId}")
@@ -73,10 +104,7 @@ public class OrderController {
             @PathVariable Long orderId) {
         logger.info("Request to get order details for User ID: {}, Order ID: {}", userId, orderId);
         try {
-            Order order = orderService.getOrdersByUserId(userId).stream()
-                    .filter(o -> o.getId().equals(orderId))
-                    .findFirst()
-                    .orElse(null);
+            OrderDTO order = orderService.getOrderView(userId, orderId).orElse(null);
 
             if (order == null) {
                 logger.warn("Order details not found for User ID: {}, Order ID: {}", userId, orderId);
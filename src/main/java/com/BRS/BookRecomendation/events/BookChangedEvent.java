@@ -0,0 +1,23 @@
+package com.BRS.BookRecomendation.events;
+
+import com.BRS.BookRecomendation.Entities.Book;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class BookChangedEvent {
+
+    public enum Type {
+        SAVED,
+        DELETED,
+        STOCK
+    }
+
+    private final Type type;
+    private final Long bookId;
+
+    // null when the book was deleted
+    private final Book book;
+}
@@ -0,0 +1,12 @@
+package com.BRS.BookRecomendation.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class GenreChangedEvent {
+
+    private final Long genreId;
+    private final boolean deleted;
+}
@@ -0,0 +1,14 @@
+package com.BRS.BookRecomendation.events;
+
+import com.BRS.BookRecomendation.Entities.Order;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class OrderPlacedEvent {
+
+    // Saved order with its items populated
+    private final Order order;
+}
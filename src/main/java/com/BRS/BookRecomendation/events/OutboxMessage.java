@@ -0,0 +1,26 @@
+package com.BRS.BookRecomendation.events;
+
+import java.util.Map;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// Published by the outbox drainer, at least once per outbox row. Listeners run synchronously inside the
+// drain transaction and should only hand work off; throwing leaves the row to be retried. A listener that
+// hands the message to asynchronous delivery calls defer(), and the row is then kept until it is settled
+// through OutboxService.acknowledge or retryLater, or redelivered if that never happens.
+@Getter
+@RequiredArgsConstructor
+public class OutboxMessage {
+
+    private final Long id;
+    private final String type;
+    private final Long aggregateId;
+    private final Map<String, Object> payload;
+
+    private boolean deferred;
+
+    public void defer() {
+        deferred = true;
+    }
+}
@@ -0,0 +1,9 @@
+package com.BRS.BookRecomendation.exception;
+
+// A request with the same Idempotency-Key is still being processed
+public class DuplicateRequestException extends RuntimeException {
+
+    public DuplicateRequestException(String message) {
+        super(message);
+    }
+}
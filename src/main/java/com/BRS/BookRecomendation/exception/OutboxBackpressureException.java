@@ -0,0 +1,9 @@
+package com.BRS.BookRecomendation.exception;
+
+// An outbox listener has no room for the message right now; the row is retried later without using up an attempt
+public class OutboxBackpressureException extends RuntimeException {
+
+    public OutboxBackpressureException(String message) {
+        super(message);
+    }
+}
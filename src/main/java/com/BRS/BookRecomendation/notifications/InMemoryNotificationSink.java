@@ -0,0 +1,28 @@
+package com.BRS.BookRecomendation.notifications;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+// Keeps everything it is given, for tests and local runs (notifications.sink=memory)
+@Component
+@ConditionalOnProperty(name = "notifications.sink", havingValue = "memory")
+public class InMemoryNotificationSink implements NotificationSink {
+
+    private final List<Notification> delivered = new ArrayList<>();
+
+    @Override
+    public synchronized void deliver(List<Notification> batch) {
+        delivered.addAll(batch);
+    }
+
+    public synchronized List<Notification> getDelivered() {
+        return List.copyOf(delivered);
+    }
+
+    public synchronized void clear() {
+        delivered.clear();
+    }
+}
@@ -0,0 +1,25 @@
+package com.BRS.BookRecomendation.notifications;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+// Stand-in for an email provider
+@Component
+@ConditionalOnProperty(name = "notifications.sink", havingValue = "log", matchIfMissing = true)
+public class LoggingNotificationSink implements NotificationSink {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoggingNotificationSink.class);
+
+    @Override
+    public void deliver(List<Notification> batch) {
+        for (Notification notification : batch) {
+            logger.info("Sending {} email to: {} - {}", notification.getType(), notification.getRecipient(),
+                    notification.getSubject());
+            logger.debug("Email body for {}: {}", notification.getRecipient(), notification.getBody());
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.BRS.BookRecomendation.notifications;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// A fully rendered message; everything a sink needs is resolved before it is queued
+@Getter
+@AllArgsConstructor
+public class Notification {
+
+    public enum Type {
+        ORDER_CONFIRMATION, ORDER_STATUS, BACK_IN_STOCK
+    }
+
+    private final Type type;
+    private final Long userId;
+    private final String recipient;
+    private final String subject;
+    private final String body;
+}
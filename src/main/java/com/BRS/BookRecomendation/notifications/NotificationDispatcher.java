@@ -0,0 +1,233 @@
+package com.BRS.BookRecomendation.notifications;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.BRS.BookRecomendation.service.OutboxService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Bounded hand-off between request threads and the sink. Producers wait briefly when the queue is full
+// and then drop; a small pool of workers drains it in batches and retries failed batches with backoff.
+// Notifications from the outbox are settled there once the sink has accepted or given up on them.
+@Component
+public class NotificationDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    @Autowired
+    private NotificationSink sink;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Value("${notifications.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${notifications.workers:2}")
+    private int workerCount;
+
+    @Value("${notifications.batch-size:50}")
+    private int batchSize;
+
+    @Value("${notifications.enqueue-timeout-ms:50}")
+    private long enqueueTimeoutMs;
+
+    @Value("${notifications.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${notifications.retry-backoff-ms:500}")
+    private long retryBackoffMs;
+
+    private BlockingQueue<Queued> queue;
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running = true;
+
+    private Timer deliveryLatency;
+    private Counter delivered;
+    private Counter failed;
+    private Counter rejected;
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        Gauge.builder("notifications.queue.depth", queue, BlockingQueue::size)
+                .description("Notifications waiting for a worker")
+                .register(meterRegistry);
+        deliveryLatency = Timer.builder("notifications.delivery.latency")
+                .description("Time from enqueue until the sink accepted the notification")
+                .register(meterRegistry);
+        delivered = Counter.builder("notifications.processed").tag("result", "delivered").register(meterRegistry);
+        failed = Counter.builder("notifications.processed").tag("result", "failed").register(meterRegistry);
+        rejected = Counter.builder("notifications.processed").tag("result", "rejected").register(meterRegistry);
+
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::work, "notification-worker-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+        logger.info("Notification dispatcher started with {} workers, queue capacity {}, sink {}", workerCount,
+                queueCapacity, sink.getClass().getSimpleName());
+    }
+
+    // Returns false when the queue stayed full for the whole timeout and the notification was dropped
+    public boolean submit(Notification notification) {
+        return submit(notification, enqueueTimeoutMs);
+    }
+
+    // Background producers can afford to wait longer for room than request threads
+    public boolean submit(Notification notification, long timeoutMs) {
+        return offer(new Queued(notification, null, System.nanoTime()), timeoutMs);
+    }
+
+    // The outbox row stays until the sink accepts the notification, and is retried through the outbox if the
+    // sink gives up. Returns false, leaving the row to the caller, when the queue is full.
+    public boolean submitFromOutbox(Notification notification, Long outboxId) {
+        return offer(new Queued(notification, outboxId, System.nanoTime()), enqueueTimeoutMs);
+    }
+
+    private boolean offer(Queued queued, long timeoutMs) {
+        try {
+            if (queue.offer(queued, timeoutMs, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        rejected.increment();
+        logger.warn("Notification queue full, rejected {} for: {}", queued.notification.getType(),
+                queued.notification.getRecipient());
+        return false;
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        for (Thread worker : workers) {
+            try {
+                worker.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (!queue.isEmpty()) {
+            logger.warn("Notification dispatcher stopped with {} notifications undelivered", queue.size());
+        }
+    }
+
+    private void work() {
+        List<Queued> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            Queued first;
+            try {
+                first = queue.poll(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (first == null) {
+                continue;
+            }
+            batch.add(first);
+            queue.drainTo(batch, batchSize - 1);
+            deliver(batch);
+            batch.clear();
+        }
+    }
+
+    private void deliver(List<Queued> batch) {
+        List<Notification> notifications = new ArrayList<>(batch.size());
+        for (Queued queued : batch) {
+            notifications.add(queued.notification);
+        }
+        for (int attempt = 1;; attempt++) {
+            try {
+                sink.deliver(notifications);
+                long now = System.nanoTime();
+                for (Queued queued : batch) {
+                    deliveryLatency.record(now - queued.enqueuedAt, TimeUnit.NANOSECONDS);
+                }
+                delivered.increment(batch.size());
+                settle(batch, null);
+                return;
+            } catch (Exception e) {
+                if (attempt >= maxAttempts) {
+                    failed.increment(batch.size());
+                    logger.error("Giving up on {} notifications after {} attempts: {}", batch.size(), attempt,
+                            e.getMessage());
+                    settle(batch, String.valueOf(e.getMessage()));
+                    return;
+                }
+                long backoff = retryBackoffMs << (attempt - 1);
+                logger.warn("Notification batch of {} failed (attempt {}/{}), retrying in {} ms: {}", batch.size(),
+                        attempt, maxAttempts, backoff, e.getMessage());
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    failed.increment(batch.size());
+                    return;
+                }
+            }
+        }
+    }
+
+    // Deletes the outbox rows behind a delivered batch, or hands a failed one back to the outbox to retry.
+    // If this fails the rows are simply delivered again once their lease runs out.
+    private void settle(List<Queued> batch, String error) {
+        List<Long> outboxIds = new ArrayList<>();
+        for (Queued queued : batch) {
+            if (queued.outboxId != null) {
+                outboxIds.add(queued.outboxId);
+            }
+        }
+        if (outboxIds.isEmpty()) {
+            return;
+        }
+        try {
+            if (error == null) {
+                outboxService.acknowledge(outboxIds);
+            } else {
+                outboxService.retryLater(outboxIds, error);
+            }
+        } catch (Exception e) {
+            logger.warn("Could not settle {} outbox rows, they will be redelivered: {}", outboxIds.size(),
+                    e.getMessage());
+        }
+    }
+
+    private static final class Queued {
+        private final Notification notification;
+        private final Long outboxId;
+        private final long enqueuedAt;
+
+        private Queued(Notification notification, Long outboxId, long enqueuedAt) {
+            this.notification = notification;
+            this.outboxId = outboxId;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+}
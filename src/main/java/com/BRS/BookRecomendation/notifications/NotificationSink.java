@@ -0,0 +1,10 @@
+package com.BRS.BookRecomendation.notifications;
+
+import java.util.List;
+
+// Delivery channel behind the notification dispatcher. A batch either goes out as a whole or throws,
+// in which case the dispatcher retries the whole batch, so implementations should tolerate repeats.
+public interface NotificationSink {
+
+    void deliver(List<Notification> batch) throws Exception;
+}
@@ -1,15 +1,20 @@
 package com.BRS.BookRecomendation.repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import com.BRS.BookRecomendation.Entities.Book;
 import com.BRS.BookRecomendation.Entities.Order;
 
-public interface BookRepository extends JpaRepository<Book, Long> {
+import jakarta.persistence.QueryHint;
+
+public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book> {
 
     List<Book> findByGenreTag(String genreTag);
 
@@ -18,4 +23,10 @@ public interface BookRepository extends JpaRepository<Book, Long> {
     @Query("SELECT b FROM Book b WHERE b.id = :id")
     Book getBookById(@Param("id") Long id);
 
+    // Admin export; the genre is fetched in the same query instead of once per book
+    @QueryHints({ @QueryHint(name = "org.hibernate.fetchSize", value = "1000"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true") })
+    @Query("SELECT b FROM Book b LEFT JOIN FETCH b.genre ORDER BY b.id")
+    Stream<Book> streamAllForExport();
+
 }
@@ -0,0 +1,29 @@
+package com.BRS.BookRecomendation.repository;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.BRS.BookRecomendation.Entities.Book;
+
+public final class BookSpecifications {
+
+    private BookSpecifications() {
+    }
+
+    public static Specification<Book> hasGenreTag(String genreTag) {
+        return (root, query, cb) -> cb.equal(root.get("genreTag"), genreTag);
+    }
+
+    public static Specification<Book> titleOrAuthorContains(String text) {
+        String pattern = "%" + text.toLowerCase() + "%";
+        return (root, query, cb) -> cb.or(
+                cb.like(cb.lower(root.<String>get("title")), pattern),
+                cb.like(cb.lower(root.<String>get("author")), pattern));
+    }
+
+    // Everything after an untitled book in title order: null titles sort first, then by id
+    public static Specification<Book> titledOrAfter(Long id) {
+        return (root, query, cb) -> cb.or(
+                cb.isNotNull(root.get("title")),
+                cb.greaterThan(root.<Long>get("id"), id));
+    }
+}
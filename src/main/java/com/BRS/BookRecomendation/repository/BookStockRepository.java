@@ -0,0 +1,123 @@
+package com.BRS.BookRecomendation.repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+// Set-based stock changes that bypass the entity read-check-write
+@Repository
+public class BookStockRepository {
+
+    private static final String DECREMENT_SQL =
+            "UPDATE books SET stock_quantity = stock_quantity - ? WHERE id = ? AND stock_quantity >= ?";
+    private static final String APPLY_DELTA_SQL =
+            "UPDATE books SET stock_quantity = stock_quantity + ? WHERE id = ?";
+    private static final String APPEND_DELTA_SQL =
+            "INSERT INTO inventory_deltas (book_id, delta, created_at) VALUES (?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    // Decrements every book in one batch, in ascending id order so concurrent checkouts lock rows in the
+    // same order. Returns the ids whose stock was insufficient; the caller must roll back if any are returned.
+    public List<Long> decrementStock(SortedMap<Long, Integer> quantities) {
+        List<Object[]> args = new ArrayList<>(quantities.size());
+        List<Long> bookIds = new ArrayList<>(quantities.size());
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            args.add(new Object[] { entry.getValue(), entry.getKey(), entry.getValue() });
+            bookIds.add(entry.getKey());
+        }
+        int[] updated = jdbcTemplate.batchUpdate(DECREMENT_SQL, args);
+
+        List<Long> insufficient = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                insufficient.add(bookIds.get(i));
+            }
+        }
+        return insufficient;
+    }
+
+    // Adds signed deltas to book stock, in ascending id order
+    public void applyDeltas(SortedMap<Long, Integer> deltas) {
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        for (Map.Entry<Long, Integer> entry : deltas.entrySet()) {
+            args.add(new Object[] { entry.getValue(), entry.getKey() });
+        }
+        jdbcTemplate.batchUpdate(APPLY_DELTA_SQL, args);
+    }
+
+    public Map<Long, Integer> findAllStock() {
+        Map<Long, Integer> stock = new HashMap<>();
+        jdbcTemplate.query("SELECT id, stock_quantity FROM books",
+                (RowCallbackHandler) rs -> stock.put(rs.getLong(1), rs.getInt(2)));
+        return stock;
+    }
+
+    public Integer findStock(Long bookId) {
+        List<Integer> stock = jdbcTemplate.queryForList("SELECT stock_quantity FROM books WHERE id = ?",
+                Integer.class, bookId);
+        return stock.isEmpty() ? null : stock.get(0);
+    }
+
+    // Current stock of several books, row-locked in ascending id order
+    public Map<Long, Integer> lockStock(Collection<Long> bookIds) {
+        Map<Long, Integer> stock = new HashMap<>();
+        namedJdbcTemplate.query("SELECT id, stock_quantity FROM books WHERE id IN (:ids) ORDER BY id FOR UPDATE",
+                Map.of("ids", bookIds), (RowCallbackHandler) rs -> stock.put(rs.getLong(1), rs.getInt(2)));
+        return stock;
+    }
+
+    // Inventory delta log
+
+    public void appendDeltas(Map<Long, Integer> deltas) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        for (Map.Entry<Long, Integer> entry : deltas.entrySet()) {
+            args.add(new Object[] { entry.getKey(), entry.getValue(), now });
+        }
+        jdbcTemplate.batchUpdate(APPEND_DELTA_SQL, args);
+    }
+
+    public Map<Long, Integer> sumPendingDeltas() {
+        Map<Long, Integer> pending = new HashMap<>();
+        jdbcTemplate.query("SELECT book_id, SUM(delta) FROM inventory_deltas GROUP BY book_id",
+                (RowCallbackHandler) rs -> pending.put(rs.getLong(1), rs.getInt(2)));
+        return pending;
+    }
+
+    public int sumPendingDeltas(Long bookId) {
+        Integer sum = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(delta), 0) FROM inventory_deltas WHERE book_id = ?", Integer.class, bookId);
+        return sum == null ? 0 : sum;
+    }
+
+    // Oldest first; rows are (id, book id, delta). Locks the rows so a second flusher skips them.
+    public List<long[]> findPendingDeltas(int limit) {
+        return jdbcTemplate.query(
+                "SELECT id, book_id, delta FROM inventory_deltas ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED",
+                (rs, rowNum) -> new long[] { rs.getLong(1), rs.getLong(2), rs.getInt(3) }, limit);
+    }
+
+    public void deleteDeltas(List<Long> ids) {
+        List<Object[]> args = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            args.add(new Object[] { id });
+        }
+        jdbcTemplate.batchUpdate("DELETE FROM inventory_deltas WHERE id = ?", args);
+    }
+}
@@ -3,11 +3,16 @@ package com.BRS.BookRecomendation.repository;
 import com.BRS.BookRecomendation.Entities.Cart;
 import org.springframework.data.jpa.repository.JpaRepository;
 import java.util.List;
+import java.util.Collection;
+import java.time.LocalDateTime;
 import com.BRS.BookRecomendation.Entities.UserInfo;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.data.jpa.repository.QueryHints;
+import jakarta.persistence.QueryHint;
+import java.util.stream.Stream;
 
 public interface CartRepository extends JpaRepository<Cart, Long> {
 
@@ -24,4 +29,24 @@ public interface CartRepository extends JpaRepository<Cart, Long> {
     @Transactional
     @Query("DELETE FROM Cart c WHERE c.user.id = :userId")
     int deleteByUserId(@Param("userId") Long userId);
+
+    // Rows are (user id, book id), used to train recommendations
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("SELECT c.user.id, c.book.id FROM Cart c WHERE c.user IS NOT NULL AND c.book IS NOT NULL")
+    Stream<Object[]> streamUserBookPairs();
+
+    // Rows are (cart id, book id, held quantity, expiry)
+    @Query("SELECT c.id, c.book.id, c.heldQuantity, c.holdExpiresAt FROM Cart c WHERE c.holdExpiresAt > :now")
+    List<Object[]> findActiveHolds(@Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Cart c SET c.heldQuantity = 0, c.holdExpiresAt = NULL WHERE c.holdExpiresAt <= :now")
+    int clearExpiredHolds(@Param("now") LocalDateTime now);
+
+    // Skips rows whose hold was refreshed after it was picked for expiry
+    @Modifying
+    @Transactional
+    @Query("UPDATE Cart c SET c.heldQuantity = 0, c.holdExpiresAt = NULL WHERE c.id IN :ids AND c.holdExpiresAt <= :now")
+    int clearExpiredHolds(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
 }
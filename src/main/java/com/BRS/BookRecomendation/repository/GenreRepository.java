@@ -1,13 +1,24 @@
 package com.BRS.BookRecomendation.repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import com.BRS.BookRecomendation.Entities.Genre;
 
+import jakarta.persistence.QueryHint;
+
 public interface GenreRepository extends JpaRepository<Genre, Long> {
     List<Genre> findByGenreId(Long genreId);
 
     boolean existsByGenreTag(String genreTag);
+
+    // Admin export
+    @QueryHints({ @QueryHint(name = "org.hibernate.fetchSize", value = "1000"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true") })
+    @Query("SELECT g FROM Genre g ORDER BY g.genreId")
+    Stream<Genre> streamAllForExport();
 }
@@ -0,0 +1,75 @@
+package com.BRS.BookRecomendation.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.BRS.BookRecomendation.DTO.Status;
+
+// Set-based order changes that would otherwise load and save every order and item
+@Repository
+public class OrderBulkRepository {
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    public long countByUserAndStatus(Long userId, Status status) {
+        Long count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM orders WHERE user_id = :userId AND status = :status",
+                Map.of("userId", userId, "status", status.name()), Long.class);
+        return count == null ? 0 : count;
+    }
+
+    // Locks the next chunk of the user's orders in the given status, lowest ids first
+    public List<Long> lockOrderIds(Long userId, Status status, int limit) {
+        return jdbcTemplate.queryForList(
+                "SELECT id FROM orders WHERE user_id = :userId AND status = :status ORDER BY id LIMIT :limit FOR UPDATE",
+                Map.of("userId", userId, "status", status.name(), "limit", limit), Long.class);
+    }
+
+    // Ordered quantities per book across the given orders, in ascending book id order
+    public SortedMap<Long, Integer> sumQuantitiesByBook(Collection<Long> orderIds) {
+        SortedMap<Long, Integer> quantities = new TreeMap<>();
+        jdbcTemplate.query(
+                "SELECT book_id, SUM(quantity) FROM order_items WHERE order_id IN (:orderIds) GROUP BY book_id",
+                Map.of("orderIds", orderIds),
+                (RowCallbackHandler) rs -> quantities.put(rs.getLong(1), rs.getInt(2)));
+        return quantities;
+    }
+
+    // Rows are (id, status, user id, username), locked in id order so concurrent chunks cannot deadlock
+    public List<Object[]> lockOrders(Collection<Long> orderIds) {
+        return jdbcTemplate.query(
+                "SELECT id, status, user_id, username FROM orders WHERE id IN (:orderIds) ORDER BY id FOR UPDATE",
+                Map.of("orderIds", orderIds),
+                (rs, rowNum) -> new Object[] { rs.getLong(1), Status.parse(rs.getString(2)), rs.getLong(3),
+                        rs.getString(4) });
+    }
+
+    // One batched statement per order, each guarded by the status it was read in; returns per-order counts
+    public int[] updateStatuses(Map<Long, Status> fromByOrder, Status to) {
+        List<SqlParameterSource> batch = new ArrayList<>(fromByOrder.size());
+        fromByOrder.forEach((orderId, from) -> batch.add(new MapSqlParameterSource()
+                .addValue("id", orderId)
+                .addValue("from", from.name())
+                .addValue("to", to.name())));
+        return jdbcTemplate.batchUpdate("UPDATE orders SET status = :to, claimed_by = NULL, lease_expires_at = NULL "
+                + "WHERE id = :id AND status = :from",
+                batch.toArray(new SqlParameterSource[0]));
+    }
+
+    public int updateStatus(Collection<Long> orderIds, Status from, Status to) {
+        return jdbcTemplate.update("UPDATE orders SET status = :to WHERE id IN (:orderIds) AND status = :from",
+                Map.of("orderIds", orderIds, "from", from.name(), "to", to.name()));
+    }
+}
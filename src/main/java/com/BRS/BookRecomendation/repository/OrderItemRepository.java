@@ -1,9 +1,44 @@
 package com.BRS.BookRecomendation.repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import com.BRS.BookRecomendation.DTO.OrderItemDTO;
+import com.BRS.BookRecomendation.DTO.Status;
 import com.BRS.BookRecomendation.Entities.OrderItem;
 
+import jakarta.persistence.QueryHint;
+
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
 
+    // Rows are (order id, book id), grouped by order
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("SELECT oi.order.id, oi.book.id FROM OrderItem oi WHERE oi.order.status NOT IN :excluded ORDER BY oi.order.id")
+    Stream<Object[]> streamOrderBookPairs(@Param("excluded") Collection<Status> excluded);
+
+    // Rows are (order id, book id), grouped by order
+    @Query("SELECT oi.order.id, oi.book.id FROM OrderItem oi WHERE oi.order.id IN :orderIds ORDER BY oi.order.id")
+    List<Object[]> findOrderBookPairs(@Param("orderIds") Collection<Long> orderIds);
+
+    // Rows are (user id, book id) for purchases, used to train recommendations
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("SELECT oi.order.user.id, oi.book.id FROM OrderItem oi WHERE oi.order.status NOT IN :excluded")
+    Stream<Object[]> streamUserBookPairs(@Param("excluded") Collection<Status> excluded);
+
+    // Rows are (order id, created at, status, user id, username, book id, title, genre tag, quantity, price),
+    // grouped by order
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("SELECT o.id, o.createdAt, o.status, o.user.id, o.username, oi.book.id, oi.bookTitle, oi.book.genreTag, "
+            + "oi.quantity, oi.price FROM OrderItem oi JOIN oi.order o ORDER BY o.id, oi.id")
+    Stream<Object[]> streamOrderFacts();
+
+    @Query("SELECT new com.BRS.BookRecomendation.DTO.OrderItemDTO(oi.order.id, oi.book.id, oi.bookTitle, oi.quantity, "
+            + "oi.price, oi.imageUrl) FROM OrderItem oi WHERE oi.order.id IN :orderIds ORDER BY oi.id")
+    List<OrderItemDTO> findItemViewsByOrderIds(@Param("orderIds") Collection<Long> orderIds);
 }
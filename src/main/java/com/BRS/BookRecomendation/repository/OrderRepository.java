@@ -2,18 +2,84 @@ package com.BRS.BookRecomendation.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import com.BRS.BookRecomendation.DTO.OrderDTO;
+import com.BRS.BookRecomendation.DTO.Status;
 import com.BRS.BookRecomendation.Entities.Order;
 import com.BRS.BookRecomendation.Entities.UserInfo;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
     List<Order> findByUser(UserInfo user);
 
     @Query("SELECT o FROM Order o WHERE o.user.id = :userId")
     List<Order> findByUserId(@Param("userId") Long userId);
+
+    // Order history headers, newest first; items are loaded for the whole page in one more query
+
+    @Query("SELECT new com.BRS.BookRecomendation.DTO.OrderDTO(o.id, o.totalPrice, o.status, o.createdAt) "
+            + "FROM Order o WHERE o.user.id = :userId ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderDTO> findHistoryFirstPage(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT new com.BRS.BookRecomendation.DTO.OrderDTO(o.id, o.totalPrice, o.status, o.createdAt) "
+            + "FROM Order o WHERE o.user.id = :userId "
+            + "AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :orderId)) "
+            + "ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderDTO> findHistoryPageAfter(@Param("userId") Long userId, @Param("createdAt") LocalDateTime createdAt,
+            @Param("orderId") Long orderId, Pageable pageable);
+
+    // Single-order status changes read through this, so they queue behind bulk changes and each other
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id = :orderId")
+    Optional<Order> lockById(@Param("orderId") Long orderId);
+
+    @Query("SELECT new com.BRS.BookRecomendation.DTO.OrderDTO(o.id, o.totalPrice, o.status, o.createdAt) "
+            + "FROM Order o WHERE o.id = :orderId AND o.user.id = :userId")
+    Optional<OrderDTO> findView(@Param("userId") Long userId, @Param("orderId") Long orderId);
+
+    @Query("SELECT new com.BRS.BookRecomendation.DTO.OrderDTO(o.id, o.totalPrice, o.status, o.createdAt) "
+            + "FROM Order o WHERE o.id IN :orderIds ORDER BY o.id")
+    List<OrderDTO> findViews(@Param("orderIds") Collection<Long> orderIds);
+
+    // Fulfilment queue. The locking reads skip rows another worker is claiming instead of waiting on them.
+
+    @Query(value = "SELECT id FROM orders WHERE status = 'CONFIRMED' ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<Long> lockClaimable(@Param("limit") int limit);
+
+    // Orders whose worker stopped heartbeating
+    @Query(value = "SELECT id FROM orders WHERE status = 'PROCESSING' AND lease_expires_at < :now "
+            + "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockExpiredLeases(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Query(value = "SELECT id FROM orders WHERE id IN (:orderIds) AND status = 'PROCESSING' "
+            + "AND claimed_by = :workerId ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Long> lockHeldBy(@Param("orderIds") Collection<Long> orderIds, @Param("workerId") String workerId);
+
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :status, o.claimedBy = :workerId, o.leaseExpiresAt = :leaseExpiresAt "
+            + "WHERE o.id IN :orderIds")
+    int updateClaim(@Param("orderIds") Collection<Long> orderIds, @Param("status") Status status,
+            @Param("workerId") String workerId, @Param("leaseExpiresAt") LocalDateTime leaseExpiresAt);
+
+    // Admin export; the user is fetched in the same query instead of once per order
+    @QueryHints({ @QueryHint(name = "org.hibernate.fetchSize", value = "1000"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true") })
+    @Query("SELECT o FROM Order o JOIN FETCH o.user ORDER BY o.id")
+    Stream<Order> streamAllForExport();
 }
@@ -0,0 +1,100 @@
+package com.BRS.BookRecomendation.repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.BRS.BookRecomendation.Entities.OutboxEntry;
+
+@Repository
+public class OutboxRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO outbox (event_type, aggregate_id, payload, attempts, "
+            + "created_at, next_attempt_at) VALUES (?, ?, ?, 0, ?, ?)";
+
+    private static final RowMapper<OutboxEntry> ENTRY_MAPPER = (rs, rowNum) -> OutboxEntry.builder()
+            .id(rs.getLong(1))
+            .eventType(rs.getString(2))
+            .aggregateId(rs.getLong(3))
+            .payload(rs.getString(4))
+            .attempts(rs.getInt(5))
+            .build();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public void append(String eventType, Long aggregateId, String payload) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update(INSERT_SQL, eventType, aggregateId, payload, now, now);
+    }
+
+    // Rows are (aggregate id, payload), inserted in one batch
+    public void appendAll(String eventType, List<Object[]> rows) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> args = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            args.add(new Object[] { eventType, row[0], row[1], now, now });
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, args);
+    }
+
+    // Oldest due rows first. Rows stay locked until the caller's transaction ends and other drainers skip them.
+    public List<OutboxEntry> claim(int limit, int maxAttempts, LocalDateTime now) {
+        return jdbcTemplate.query(
+                "SELECT id, event_type, aggregate_id, payload, attempts FROM outbox WHERE attempts < ? "
+                        + "AND (next_attempt_at IS NULL OR next_attempt_at <= ?) "
+                        + "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED",
+                ENTRY_MAPPER, maxAttempts, Timestamp.valueOf(now), limit);
+    }
+
+    public List<OutboxEntry> findByIds(Collection<Long> ids) {
+        return namedJdbcTemplate.query(
+                "SELECT id, event_type, aggregate_id, payload, attempts FROM outbox WHERE id IN (:ids)",
+                Map.of("ids", ids), ENTRY_MAPPER);
+    }
+
+    public void delete(List<Long> ids) {
+        List<Object[]> args = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            args.add(new Object[] { id });
+        }
+        jdbcTemplate.batchUpdate("DELETE FROM outbox WHERE id = ?", args);
+    }
+
+    // Counts an attempt and schedules the next one
+    public void markFailed(List<OutboxEntry> entries) {
+        List<Object[]> args = new ArrayList<>(entries.size());
+        for (OutboxEntry entry : entries) {
+            args.add(new Object[] { entry.getLastError(), Timestamp.valueOf(entry.getNextAttemptAt()), entry.getId() });
+        }
+        jdbcTemplate.batchUpdate(
+                "UPDATE outbox SET attempts = attempts + 1, last_error = ?, next_attempt_at = ? WHERE id = ?", args);
+    }
+
+    // Moves the next attempt without counting one
+    public void postpone(List<OutboxEntry> entries) {
+        List<Object[]> args = new ArrayList<>(entries.size());
+        for (OutboxEntry entry : entries) {
+            args.add(new Object[] { entry.getLastError(), Timestamp.valueOf(entry.getNextAttemptAt()), entry.getId() });
+        }
+        jdbcTemplate.batchUpdate("UPDATE outbox SET last_error = ?, next_attempt_at = ? WHERE id = ?", args);
+    }
+
+    public long countPending(int maxAttempts) {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox WHERE attempts < ?", Long.class,
+                maxAttempts);
+        return count == null ? 0 : count;
+    }
+}
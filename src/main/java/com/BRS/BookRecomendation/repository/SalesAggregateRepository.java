@@ -0,0 +1,98 @@
+package com.BRS.BookRecomendation.repository;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.BRS.BookRecomendation.Entities.SalesAggregate;
+
+@Repository
+public class SalesAggregateRepository {
+
+    public static final String TOTAL = "TOTAL";
+    public static final String GENRE = "GENRE";
+    public static final String BOOK = "BOOK";
+
+    private static final String UPSERT_SQL = "INSERT INTO sales_daily "
+            + "(dimension, dimension_key, sales_date, revenue, units, order_count) VALUES (?, ?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE revenue = revenue + VALUES(revenue), units = units + VALUES(units), "
+            + "order_count = order_count + VALUES(order_count)";
+
+    // Per-dimension roll-ups of order items by order day; %s is the extra filter on orders
+    private static final String[] ROLLUP_SELECTS = {
+            "SELECT 'TOTAL', '', DATE(o.created_at), SUM(oi.price * oi.quantity), SUM(oi.quantity), "
+                    + "COUNT(DISTINCT o.id) FROM orders o JOIN order_items oi ON oi.order_id = o.id "
+                    + "WHERE %s GROUP BY DATE(o.created_at)",
+            "SELECT 'GENRE', COALESCE(b.genre_tag, ''), DATE(o.created_at), SUM(oi.price * oi.quantity), "
+                    + "SUM(oi.quantity), COUNT(DISTINCT o.id) FROM orders o "
+                    + "JOIN order_items oi ON oi.order_id = o.id JOIN books b ON b.id = oi.book_id "
+                    + "WHERE %s GROUP BY DATE(o.created_at), COALESCE(b.genre_tag, '')",
+            "SELECT 'BOOK', CAST(oi.book_id AS CHAR), DATE(o.created_at), SUM(oi.price * oi.quantity), "
+                    + "SUM(oi.quantity), COUNT(DISTINCT o.id) FROM orders o "
+                    + "JOIN order_items oi ON oi.order_id = o.id "
+                    + "WHERE %s GROUP BY DATE(o.created_at), oi.book_id" };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    // Adds the figures onto existing rows, creating them as needed
+    public void upsert(List<SalesAggregate> deltas) {
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        for (SalesAggregate delta : deltas) {
+            args.add(new Object[] { delta.getDimension(), delta.getDimensionKey(), Date.valueOf(delta.getSalesDate()),
+                    delta.getRevenue(), delta.getUnits(), delta.getOrderCount() });
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, args);
+    }
+
+    // Figures the given orders contribute, for all three dimensions
+    public List<SalesAggregate> rollUp(Collection<Long> orderIds) {
+        List<SalesAggregate> rows = new ArrayList<>();
+        for (String select : ROLLUP_SELECTS) {
+            rows.addAll(namedJdbcTemplate.query(String.format(select, "o.id IN (:orderIds)"),
+                    Map.of("orderIds", orderIds), (rs, rowNum) -> mapRow(rs)));
+        }
+        return rows;
+    }
+
+    public List<SalesAggregate> findSince(LocalDate from) {
+        return jdbcTemplate.query("SELECT dimension, dimension_key, sales_date, revenue, units, order_count "
+                + "FROM sales_daily WHERE sales_date >= ?", (rs, rowNum) -> mapRow(rs), Date.valueOf(from));
+    }
+
+    // Recomputes every row from the orders that are not cancelled
+    public int rebuild() {
+        jdbcTemplate.update("DELETE FROM sales_daily");
+        int rows = 0;
+        for (String select : ROLLUP_SELECTS) {
+            rows += jdbcTemplate.update("INSERT INTO sales_daily "
+                    + "(dimension, dimension_key, sales_date, revenue, units, order_count) "
+                    + String.format(select, "o.status <> 'CANCELLED'"));
+        }
+        return rows;
+    }
+
+    private static SalesAggregate mapRow(ResultSet rs) throws SQLException {
+        return SalesAggregate.builder()
+                .dimension(rs.getString(1))
+                .dimensionKey(rs.getString(2))
+                .salesDate(rs.getDate(3).toLocalDate())
+                .revenue(rs.getDouble(4))
+                .units(rs.getLong(5))
+                .orderCount(rs.getLong(6))
+                .build();
+    }
+}
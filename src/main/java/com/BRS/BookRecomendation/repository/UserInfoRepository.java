@@ -2,12 +2,16 @@ package com.BRS.BookRecomendation.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.BRS.BookRecomendation.Entities.UserInfo;
 
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import jakarta.persistence.QueryHint;
 
 @Repository
 public interface UserInfoRepository extends JpaRepository<UserInfo, Long> {
@@ -21,5 +25,10 @@ public interface UserInfoRepository extends JpaRepository<UserInfo, Long> {
     
     @Query("SELECT u FROM UserInfo u WHERE u.id = :id")
     UserInfo getUserById(@Param("id") Long id);
-    
+
+    // Admin export; read-only and fetched in chunks so the caller can detach rows as it writes them
+    @QueryHints({ @QueryHint(name = "org.hibernate.fetchSize", value = "1000"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true") })
+    @Query("SELECT u FROM UserInfo u ORDER BY u.id")
+    Stream<UserInfo> streamAllForExport();
 }
\ No newline at end of file
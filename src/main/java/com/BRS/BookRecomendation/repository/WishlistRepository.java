@@ -9,6 +9,10 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.data.jpa.repository.QueryHints;
+import jakarta.persistence.QueryHint;
+import java.util.stream.Stream;
+import org.springframework.data.domain.Pageable;
 
 public interface WishlistRepository extends JpaRepository<Wishlist, Long> {
 
@@ -28,4 +32,15 @@ public interface WishlistRepository extends JpaRepository<Wishlist, Long> {
     @Transactional
     @Query("DELETE FROM Wishlist w WHERE w.user.id = :userId")
     int deleteByUserId(@Param("userId") Long userId);
+
+    // Rows are (user id, book id), used to train recommendations
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("SELECT w.user.id, w.book.id FROM Wishlist w WHERE w.book IS NOT NULL")
+    Stream<Object[]> streamUserBookPairs();
+
+    // Keyset page of (user id, username) for one book, in user id order, each user once
+    @Query("SELECT DISTINCT u.id, u.username FROM Wishlist w JOIN w.user u "
+            + "WHERE w.book.id = :bookId AND u.id > :afterUserId ORDER BY u.id")
+    List<Object[]> findWishlisterPage(@Param("bookId") Long bookId, @Param("afterUserId") Long afterUserId,
+            Pageable pageable);
 }
@@ -0,0 +1,311 @@
+package com.BRS.BookRecomendation.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.BRS.BookRecomendation.DTO.Status;
+import com.BRS.BookRecomendation.Entities.OrderItem;
+import com.BRS.BookRecomendation.events.OrderPlacedEvent;
+import com.BRS.BookRecomendation.repository.OrderItemRepository;
+import com.BRS.BookRecomendation.util.IntIntHashMap;
+import com.BRS.BookRecomendation.util.LongIntHashMap;
+import com.BRS.BookRecomendation.util.TopK;
+
+import jakarta.annotation.PreDestroy;
+
+@Service
+public class AlsoBoughtService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlsoBoughtService.class);
+
+    public static final int MAX_ALSO_BOUGHT = 50;
+
+    private static final List<Status> EXCLUDED_STATUSES = List.of(Status.CANCELLED, Status.FAILED);
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private CoPurchaseModel model = new CoPurchaseModel();
+
+    // Orders placed or dropped while a rebuild is scanning the table, replayed onto the new model
+    private boolean rebuilding;
+    private final List<PendingChange> changesDuringRebuild = new ArrayList<>();
+
+    private final AtomicBoolean rebuildRunning = new AtomicBoolean();
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "also-bought-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        requestRebuild();
+    }
+
+    public boolean requestRebuild() {
+        if (!rebuildRunning.compareAndSet(false, true)) {
+            logger.info("Also-bought rebuild already in progress");
+            return false;
+        }
+        rebuildExecutor.submit(this::rebuild);
+        return true;
+    }
+
+    private void rebuild() {
+        long start = System.nanoTime();
+        try {
+            lock.writeLock().lock();
+            try {
+                rebuilding = true;
+                changesDuringRebuild.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            CoPurchaseModel fresh = new CoPurchaseModel();
+            // 1 for every order the new model counts, so that a replayed change is applied exactly once
+            LongIntHashMap counted = new LongIntHashMap(1 << 16, 0);
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.setReadOnly(true);
+            transaction.executeWithoutResult(status -> {
+                try (Stream<Object[]> rows = orderItemRepository.streamOrderBookPairs(EXCLUDED_STATUSES)) {
+                    Basket basket = new Basket();
+                    rows.forEach(row -> {
+                        long orderId = (Long) row[0];
+                        if (orderId != basket.orderId) {
+                            fresh.addOrder(basket.drain(), 1);
+                            basket.orderId = orderId;
+                            counted.put(orderId, 1);
+                        }
+                        basket.add((Long) row[1]);
+                    });
+                    fresh.addOrder(basket.drain(), 1);
+                }
+            });
+
+            lock.writeLock().lock();
+            try {
+                // The scan may or may not have seen a change, whatever its order id, depending on when it committed
+                for (PendingChange change : changesDuringRebuild) {
+                    int wanted = change.delta > 0 ? 1 : 0;
+                    if (counted.get(change.orderId) != wanted) {
+                        fresh.addOrder(change.bookIds, change.delta);
+                        counted.put(change.orderId, wanted);
+                    }
+                }
+                model = fresh;
+            } finally {
+                rebuilding = false;
+                changesDuringRebuild.clear();
+                lock.writeLock().unlock();
+            }
+            logger.info("Also-bought model rebuilt with {} books in {} ms", fresh.bookCount(),
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            logger.error("Also-bought model rebuild failed: {}", e.getMessage());
+            lock.writeLock().lock();
+            try {
+                rebuilding = false;
+                changesDuringRebuild.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            rebuildRunning.set(false);
+        }
+    }
+
+    @TransactionalEventListener
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        List<OrderItem> items = event.getOrder().getOrderItems();
+        long[] bookIds = new long[items.size()];
+        for (int i = 0; i < bookIds.length; i++) {
+            bookIds[i] = items.get(i).getBook().getId();
+        }
+
+        apply(new PendingChange(event.getOrder().getId(), bookIds, 1));
+    }
+
+    // Call inside the transaction that changes the orders. Orders moving into or out of the excluded statuses
+    // are taken out of or put back into the model once it commits, as a rebuild would count them.
+    public void recordStatusChange(Map<Long, Status> previousStatuses, Status status) {
+        int delta = EXCLUDED_STATUSES.contains(status) ? -1 : 1;
+        List<Long> flipped = previousStatuses.entrySet().stream()
+                .filter(entry -> EXCLUDED_STATUSES.contains(entry.getValue()) == (delta > 0))
+                .map(Map.Entry::getKey)
+                .toList();
+        if (flipped.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Basket> baskets = new LinkedHashMap<>();
+        for (Object[] row : orderItemRepository.findOrderBookPairs(flipped)) {
+            baskets.computeIfAbsent((Long) row[0], orderId -> new Basket()).add((Long) row[1]);
+        }
+        List<PendingChange> changes = new ArrayList<>(baskets.size());
+        baskets.forEach((orderId, basket) -> changes.add(new PendingChange(orderId, basket.drain(), delta)));
+        Runnable change = () -> changes.forEach(this::apply);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+
+    private void apply(PendingChange change) {
+        lock.writeLock().lock();
+        try {
+            model.addOrder(change.bookIds, change.delta);
+            if (rebuilding) {
+                changesDuringRebuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Long> getAlsoBought(Long bookId, int limit) {
+        lock.readLock().lock();
+        try {
+            return model.topK(bookId, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    private static final class Basket {
+        private long orderId = -1;
+        private long[] bookIds = new long[16];
+        private int size;
+
+        private void add(long bookId) {
+            if (size == bookIds.length) {
+                bookIds = Arrays.copyOf(bookIds, size * 2);
+            }
+            bookIds[size++] = bookId;
+        }
+
+        private long[] drain() {
+            long[] drained = Arrays.copyOf(bookIds, size);
+            size = 0;
+            return drained;
+        }
+    }
+
+    // An order entering the counts (delta 1) or leaving them (delta -1)
+    private static final class PendingChange {
+        private final long orderId;
+        private final long[] bookIds;
+        private final int delta;
+
+        private PendingChange(long orderId, long[] bookIds, int delta) {
+            this.orderId = orderId;
+            this.bookIds = bookIds;
+            this.delta = delta;
+        }
+    }
+
+    // Symmetric co-occurrence counts: rows[i] maps dense book index j to the number of orders containing both
+    private static final class CoPurchaseModel {
+        private final LongIntHashMap indexes = new LongIntHashMap(1024, -1);
+        private long[] bookIds = new long[1024];
+        private IntIntHashMap[] rows = new IntIntHashMap[1024];
+        private int books;
+
+        private void addOrder(long[] basket, int delta) {
+            if (basket.length < 2) {
+                return;
+            }
+            long[] distinct = Arrays.stream(basket).sorted().distinct().toArray();
+            int[] basketIndexes = new int[distinct.length];
+            for (int i = 0; i < distinct.length; i++) {
+                basketIndexes[i] = indexOf(distinct[i]);
+            }
+            for (int i = 0; i < basketIndexes.length; i++) {
+                for (int j = 0; j < basketIndexes.length; j++) {
+                    if (i != j) {
+                        rows[basketIndexes[i]].addTo(basketIndexes[j], delta);
+                    }
+                }
+            }
+        }
+
+        private int indexOf(long bookId) {
+            int index = indexes.get(bookId);
+            if (index >= 0) {
+                return index;
+            }
+            if (books == bookIds.length) {
+                bookIds = Arrays.copyOf(bookIds, books * 2);
+                rows = Arrays.copyOf(rows, books * 2);
+            }
+            index = books++;
+            indexes.put(bookId, index);
+            bookIds[index] = bookId;
+            rows[index] = new IntIntHashMap();
+            return index;
+        }
+
+        private List<Long> topK(long bookId, int k) {
+            int index = indexes.get(bookId);
+            if (index < 0) {
+                return List.of();
+            }
+            IntIntHashMap row = rows[index];
+            TopK top = new TopK(k);
+            for (int slot = 0; slot < row.capacity(); slot++) {
+                int other = row.keyAt(slot);
+                // Pairs whose orders were all dropped stay behind with a count of zero
+                if (other >= 0 && row.valueAt(slot) > 0) {
+                    // Break count ties towards the lower book id so results are stable
+                    top.offer(other, row.valueAt(slot) - bookIds[other] * 1e-12);
+                }
+            }
+            List<Long> result = new ArrayList<>(top.size());
+            for (int other : top.drainDescending()) {
+                result.add(bookIds[other]);
+            }
+            return result;
+        }
+
+        private int bookCount() {
+            return books;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.BRS.BookRecomendation.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import com.BRS.BookRecomendation.Entities.Book;
+import com.BRS.BookRecomendation.events.OutboxMessage;
+import com.BRS.BookRecomendation.repository.BookRepository;
+import com.BRS.BookRecomendation.repository.WishlistRepository;
+
+import jakarta.annotation.PreDestroy;
+
+// Tells everyone who wishlisted a book that it is available again. The outbox drainer only hands the
+// book over; wishlisters are then read in keyset pages on a background thread and queued for delivery,
+// so neither the stock update nor the drainer waits on a large fan-out.
+@Service
+public class BackInStockService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BackInStockService.class);
+
+    @Autowired
+    private WishlistRepository wishlistRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private InventoryLedger inventoryLedger;
+
+    @Value("${back-in-stock.page-size:1000}")
+    private int pageSize;
+
+    @Value("${back-in-stock.enqueue-timeout-ms:5000}")
+    private long enqueueTimeoutMs;
+
+    @Value("${back-in-stock.cooldown-minutes:60}")
+    private long cooldownMinutes;
+
+    // Book id to the time its last fan-out started; a restock inside the cooldown does not notify again
+    private final ConcurrentHashMap<Long, Long> lastFanOut = new ConcurrentHashMap<>();
+
+    private final ExecutorService fanOutExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(1000), runnable -> {
+                Thread thread = new Thread(runnable, "back-in-stock-fan-out");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    @EventListener
+    public void onOutboxMessage(OutboxMessage message) {
+        if (!OutboxService.STOCK_CHANGED.equals(message.getType())) {
+            return;
+        }
+        Map<String, Object> payload = message.getPayload();
+        int previousStock = ((Number) payload.get("previousStock")).intValue();
+        int newStock = ((Number) payload.get("newStock")).intValue();
+        if (previousStock <= 0 && newStock > 0) {
+            requestFanOut(message.getAggregateId());
+        }
+    }
+
+    public boolean requestFanOut(Long bookId) {
+        long now = System.currentTimeMillis();
+        long cooldownMs = cooldownMinutes * 60_000;
+        // Atomically claims the book unless a fan-out started within the cooldown
+        Long claimed = lastFanOut.merge(bookId, now,
+                (previous, fresh) -> fresh - previous < cooldownMs ? previous : fresh);
+        if (claimed != now) {
+            logger.debug("Back-in-stock fan-out for book ID: {} skipped, one ran recently", bookId);
+            return false;
+        }
+        try {
+            fanOutExecutor.execute(() -> fanOut(bookId));
+            return true;
+        } catch (RejectedExecutionException e) {
+            // Throwing leaves the outbox row to be retried once the backlog has drained
+            lastFanOut.remove(bookId, now);
+            throw new RuntimeException("Back-in-stock fan-out backlog is full");
+        }
+    }
+
+    private void fanOut(Long bookId) {
+        Book book = bookRepository.findById(bookId).orElse(null);
+        Integer available = book == null ? null
+                : inventoryLedger.isEnabled() ? inventoryLedger.getAvailable(bookId) : book.getStockQuantity();
+        if (available == null || available <= 0) {
+            logger.info("Back-in-stock fan-out for book ID: {} dropped, book is gone or sold out again", bookId);
+            return;
+        }
+        long start = System.nanoTime();
+        long afterUserId = 0;
+        int queued = 0;
+        int dropped = 0;
+        while (true) {
+            List<Object[]> page = wishlistRepository.findWishlisterPage(bookId, afterUserId,
+                    PageRequest.of(0, pageSize));
+            for (Object[] row : page) {
+                Long userId = (Long) row[0];
+                if (notificationService.sendStockNotification(userId, (String) row[1], bookId, book.getTitle(),
+                        enqueueTimeoutMs)) {
+                    queued++;
+                } else {
+                    dropped++;
+                }
+                afterUserId = userId;
+            }
+            if (page.size() < pageSize) {
+                break;
+            }
+        }
+        logger.info("Back-in-stock fan-out for book '{}' queued {} notifications ({} dropped) in {} ms",
+                book.getTitle(), queued, dropped, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fanOutExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,100 @@
+package com.BRS.BookRecomendation.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+
+import com.BRS.BookRecomendation.DTO.BookSort;
+import com.BRS.BookRecomendation.Entities.Book;
+
+// Encodes keyset positions as opaque, URL-safe cursors of the form "SORT|id|value". A null value, such as a
+// missing title, is written as "SORT|id" with no value part. Ranked search results are keyed on the score of
+// the last hit, "RELEVANCE|id|score", which database listings of the same sort ignore.
+final class BookCursors {
+
+    static final String SCORE = "score";
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private BookCursors() {
+    }
+
+    static String encode(BookSort sort, ScrollPosition position) {
+        Map<String, ?> keys = ((KeysetScrollPosition) position).getKeys();
+        Object value = switch (sort) {
+            case RELEVANCE -> keys.get(SCORE);
+            case ID -> null;
+            default -> keys.get(sort.getProperty());
+        };
+        return encode(sort, keys.get("id"), value);
+    }
+
+    // For pages cut from in-memory lists, so that the next page can continue from the database
+    static String encode(BookSort sort, Book last) {
+        return encode(sort, position(sort, last));
+    }
+
+    // The keyset a book sits at in the given order
+    static KeysetScrollPosition position(BookSort sort, Book book) {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        switch (sort) {
+            case RATING -> keys.put(sort.getProperty(), book.getRating());
+            case PRICE -> keys.put(sort.getProperty(), book.getPrice());
+            case TITLE -> keys.put(sort.getProperty(), book.getTitle());
+            case ID, RELEVANCE -> {
+            }
+        }
+        keys.put("id", book.getId());
+        return ScrollPosition.forward(keys);
+    }
+
+    // The keyset a search hit sits at in relevance order
+    static KeysetScrollPosition position(double score, Long bookId) {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put(SCORE, score);
+        keys.put("id", bookId);
+        return ScrollPosition.forward(keys);
+    }
+
+    private static String encode(BookSort sort, Object id, Object value) {
+        StringBuilder raw = new StringBuilder(sort.name()).append('|').append(id);
+        if (value != null) {
+            raw.append('|').append(value);
+        }
+        return ENCODER.encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    static KeysetScrollPosition decode(String cursor, BookSort sort) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        try {
+            String[] parts = new String(DECODER.decode(cursor), StandardCharsets.UTF_8).split("\\|", 3);
+            if (!sort.name().equals(parts[0])) {
+                throw new IllegalArgumentException("Cursor was issued for sort " + parts[0]);
+            }
+            String value = parts.length > 2 ? parts[2] : null;
+            Map<String, Object> keys = new LinkedHashMap<>();
+            switch (sort) {
+                case RATING, PRICE -> keys.put(sort.getProperty(), Double.valueOf(parts[2]));
+                case TITLE -> keys.put(sort.getProperty(), value);
+                case RELEVANCE -> {
+                    if (value != null) {
+                        keys.put(SCORE, Double.valueOf(value));
+                    }
+                }
+                case ID -> {
+                }
+            }
+            keys.put("id", Long.valueOf(parts[1]));
+            return ScrollPosition.forward(keys);
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package com.BRS.BookRecomendation.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.BRS.BookRecomendation.Entities.Book;
+import com.BRS.BookRecomendation.events.BookChangedEvent;
+import com.BRS.BookRecomendation.repository.BookRepository;
+import com.BRS.BookRecomendation.util.LongIntHashMap;
+
+import jakarta.annotation.PostConstruct;
+
+@Service
+public class BookFacetIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookFacetIndex.class);
+
+    public static final String GENRE = "genre";
+    public static final String PRICE = "price";
+    public static final String RATING = "rating";
+    public static final String IN_STOCK = "inStock";
+
+    private static final double[] RATING_BOUNDS = { 2, 3, 4 };
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Value("${book.facets.price-bounds:200,500,1000}")
+    private double[] priceBounds;
+
+    private String[] priceLabels;
+    private String[] ratingLabels;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Books get a dense row number for the bitmaps; rows of deleted books are not reused until a rebuild
+    private LongIntHashMap rows = new LongIntHashMap(1024, -1);
+    private long[] rowBookIds = new long[1024];
+    private String[] rowGenres = new String[1024];
+    private int[] rowPriceBands = new int[1024];
+    private int[] rowRatingBands = new int[1024];
+    private int rowCount;
+
+    private final RoaringBitmap live = new RoaringBitmap();
+    private final RoaringBitmap inStock = new RoaringBitmap();
+    private final Map<String, RoaringBitmap> genres = new TreeMap<>();
+    private RoaringBitmap[] priceBands;
+    private RoaringBitmap[] ratingBands;
+
+    @PostConstruct
+    public void init() {
+        Arrays.sort(priceBounds);
+        priceLabels = labels(priceBounds, null);
+        ratingLabels = labels(RATING_BOUNDS, 5.0);
+        priceBands = newBitmaps(priceLabels.length);
+        ratingBands = newBitmaps(ratingLabels.length);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndex() {
+        try {
+            long start = System.nanoTime();
+            List<Book> books = bookRepository.findAll();
+            lock.writeLock().lock();
+            try {
+                rows = new LongIntHashMap(Math.max(1024, books.size()), -1);
+                rowCount = 0;
+                live.clear();
+                inStock.clear();
+                genres.clear();
+                priceBands = newBitmaps(priceLabels.length);
+                ratingBands = newBitmaps(ratingLabels.length);
+                for (Book book : books) {
+                    index(book);
+                }
+                live.runOptimize();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.info("Facet index built for {} books with {} genres in {} ms", books.size(), genres.size(),
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            logger.error("Failed to build facet index: {}", e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (event.getType() == BookChangedEvent.Type.DELETED || event.getBook() == null) {
+                unindex(event.getBookId());
+            } else {
+                // Stock changes only move the in-stock bit, everything else re-files the whole row
+                int row = rows.get(event.getBookId());
+                if (event.getType() == BookChangedEvent.Type.STOCK && row >= 0) {
+                    setInStock(row, event.getBook().getStockQuantity() > 0);
+                } else {
+                    index(event.getBook());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Values are ORed within a facet and facets are ANDed; empty or null selections do not filter
+    public Result filter(Collection<String> genreValues, Collection<String> priceValues,
+            Collection<String> ratingValues, boolean inStockOnly, int page, int size) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap genreFilter = union(genreValues, genres);
+            RoaringBitmap priceFilter = union(priceValues, byLabel(priceLabels, priceBands));
+            RoaringBitmap ratingFilter = union(ratingValues, byLabel(ratingLabels, ratingBands));
+            RoaringBitmap stockFilter = inStockOnly ? inStock : null;
+
+            RoaringBitmap matches = intersect(genreFilter, priceFilter, ratingFilter, stockFilter);
+
+            // Each facet is counted against the other facets' filters so the UI can widen a selection
+            Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+            facets.put(GENRE, counts(genres, intersect(null, priceFilter, ratingFilter, stockFilter)));
+            facets.put(PRICE, counts(byLabel(priceLabels, priceBands),
+                    intersect(genreFilter, null, ratingFilter, stockFilter)));
+            facets.put(RATING, counts(byLabel(ratingLabels, ratingBands),
+                    intersect(genreFilter, priceFilter, null, stockFilter)));
+            Map<String, Integer> stockCounts = new LinkedHashMap<>();
+            stockCounts.put("true", RoaringBitmap.andCardinality(inStock,
+                    intersect(genreFilter, priceFilter, ratingFilter, null)));
+            facets.put(IN_STOCK, stockCounts);
+
+            List<Long> ids = new ArrayList<>(size);
+            long offset = (long) page * size;
+            int total = matches.getCardinality();
+            if (offset < total) {
+                PeekableIntIterator iterator = matches.getIntIterator();
+                iterator.advanceIfNeeded(matches.select((int) offset));
+                while (iterator.hasNext() && ids.size() < size) {
+                    ids.add(rowBookIds[iterator.next()]);
+                }
+            }
+            return new Result(ids, total, facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // A book already in the index keeps its row, and so its place in the results; new books are appended
+    private void index(Book book) {
+        int row = rows.get(book.getId());
+        if (row >= 0) {
+            clear(row);
+        } else {
+            row = appendRow(book.getId());
+        }
+        rowGenres[row] = book.getGenreTag();
+        rowPriceBands[row] = band(book.getPrice(), priceBounds);
+        rowRatingBands[row] = band(book.getRating(), RATING_BOUNDS);
+
+        live.add(row);
+        if (book.getGenreTag() != null) {
+            genres.computeIfAbsent(book.getGenreTag(), tag -> new RoaringBitmap()).add(row);
+        }
+        priceBands[rowPriceBands[row]].add(row);
+        ratingBands[rowRatingBands[row]].add(row);
+        setInStock(row, book.getStockQuantity() > 0);
+    }
+
+    private int appendRow(Long bookId) {
+        if (rowCount == rowBookIds.length) {
+            int capacity = rowCount * 2;
+            rowBookIds = Arrays.copyOf(rowBookIds, capacity);
+            rowGenres = Arrays.copyOf(rowGenres, capacity);
+            rowPriceBands = Arrays.copyOf(rowPriceBands, capacity);
+            rowRatingBands = Arrays.copyOf(rowRatingBands, capacity);
+        }
+        int row = rowCount++;
+        rows.put(bookId, row);
+        rowBookIds[row] = bookId;
+        return row;
+    }
+
+    private void unindex(Long bookId) {
+        int row = rows.get(bookId);
+        if (row < 0) {
+            return;
+        }
+        rows.put(bookId, -1);
+        clear(row);
+    }
+
+    // Takes the row out of every bitmap; the row number itself stays with its book
+    private void clear(int row) {
+        live.remove(row);
+        inStock.remove(row);
+        RoaringBitmap genre = rowGenres[row] == null ? null : genres.get(rowGenres[row]);
+        if (genre != null) {
+            genre.remove(row);
+            if (genre.isEmpty()) {
+                genres.remove(rowGenres[row]);
+            }
+        }
+        priceBands[rowPriceBands[row]].remove(row);
+        ratingBands[rowRatingBands[row]].remove(row);
+        rowGenres[row] = null;
+    }
+
+    private void setInStock(int row, boolean available) {
+        if (available) {
+            inStock.add(row);
+        } else {
+            inStock.remove(row);
+        }
+    }
+
+    private RoaringBitmap intersect(RoaringBitmap... filters) {
+        RoaringBitmap result = live;
+        for (RoaringBitmap filter : filters) {
+            if (filter != null) {
+                result = RoaringBitmap.and(result, filter);
+            }
+        }
+        return result;
+    }
+
+    private static RoaringBitmap union(Collection<String> values, Map<String, RoaringBitmap> bitmaps) {
+        if (values == null || values.isEmpty()) {
+            return null;
+        }
+        RoaringBitmap result = new RoaringBitmap();
+        for (String value : values) {
+            RoaringBitmap bitmap = bitmaps.get(value);
+            if (bitmap != null) {
+                result.or(bitmap);
+            }
+        }
+        return result;
+    }
+
+    private static Map<String, Integer> counts(Map<String, RoaringBitmap> bitmaps, RoaringBitmap base) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (Map.Entry<String, RoaringBitmap> entry : bitmaps.entrySet()) {
+            counts.put(entry.getKey(), RoaringBitmap.andCardinality(entry.getValue(), base));
+        }
+        return counts;
+    }
+
+    private static Map<String, RoaringBitmap> byLabel(String[] labels, RoaringBitmap[] bitmaps) {
+        Map<String, RoaringBitmap> result = new LinkedHashMap<>();
+        for (int i = 0; i < labels.length; i++) {
+            result.put(labels[i], bitmaps[i]);
+        }
+        return result;
+    }
+
+    private static int band(double value, double[] bounds) {
+        int band = 0;
+        while (band < bounds.length && value >= bounds[band]) {
+            band++;
+        }
+        return band;
+    }
+
+    // Bounds {200, 500} become "0-200", "200-500" and "500+", or "500-5" when there is a maximum
+    private static String[] labels(double[] bounds, Double max) {
+        String[] labels = new String[bounds.length + 1];
+        String lower = "0";
+        for (int i = 0; i < bounds.length; i++) {
+            String upper = format(bounds[i]);
+            labels[i] = lower + "-" + upper;
+            lower = upper;
+        }
+        labels[bounds.length] = max == null ? lower + "+" : lower + "-" + format(max);
+        return labels;
+    }
+
+    private static String format(double value) {
+        return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+    }
+
+    private static RoaringBitmap[] newBitmaps(int count) {
+        RoaringBitmap[] bitmaps = new RoaringBitmap[count];
+        for (int i = 0; i < count; i++) {
+            bitmaps[i] = new RoaringBitmap();
+        }
+        return bitmaps;
+    }
+
+    public static final class Result {
+        private final List<Long> bookIds;
+        private final int total;
+        private final Map<String, Map<String, Integer>> facets;
+
+        private Result(List<Long> bookIds, int total, Map<String, Map<String, Integer>> facets) {
+            this.bookIds = bookIds;
+            this.total = total;
+            this.facets = facets;
+        }
+
+        public List<Long> getBookIds() {
+            return bookIds;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public Map<String, Map<String, Integer>> getFacets() {
+            return facets;
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package com.BRS.BookRecomendation.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.BRS.BookRecomendation.DTO.BookSort;
+import com.BRS.BookRecomendation.Entities.Book;
+import com.BRS.BookRecomendation.events.BookChangedEvent;
+import com.BRS.BookRecomendation.repository.BookRepository;
+
+@Service
+public class BookSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookSearchIndex.class);
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    // Field order: title, author, description
+    private static final int FIELDS = 3;
+    private static final double[] FIELD_BOOST = { 3.0, 2.0, 1.0 };
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int MAX_PREFIX_EXPANSIONS = 50;
+    private static final Comparator<Map.Entry<Long, Double>> RANKING = Map.Entry.<Long, Double>comparingByValue()
+            .reversed().thenComparing(Map.Entry.comparingByKey());
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Value("${book.search.index.enabled:true}")
+    private boolean enabled;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // term -> (book id -> term frequency per field)
+    private final TreeMap<String, Map<Long, int[]>> postings = new TreeMap<>();
+    private final Map<Long, int[]> fieldLengths = new HashMap<>();
+    private final Map<Long, Set<String>> documentTerms = new HashMap<>();
+    // Just the fields the result sorts need, so that matches can be reordered without loading them
+    private final Map<Long, Book> sortKeys = new HashMap<>();
+    private final long[] totalFieldLengths = new long[FIELDS];
+    private volatile boolean ready;
+
+    public boolean isAvailable() {
+        return enabled && ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndex() {
+        if (!enabled) {
+            logger.info("Book search index disabled, searches use the database");
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            List<Book> books = bookRepository.findAll();
+            lock.writeLock().lock();
+            try {
+                postings.clear();
+                fieldLengths.clear();
+                documentTerms.clear();
+                sortKeys.clear();
+                Arrays.fill(totalFieldLengths, 0);
+                for (Book book : books) {
+                    addDocument(book);
+                }
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.info("Book search index built for {} books with {} terms in {} ms", books.size(),
+                    postings.size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            logger.error("Failed to build book search index, searches fall back to the database: {}",
+                    e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (!enabled || event.getType() == BookChangedEvent.Type.STOCK) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeDocument(event.getBookId());
+            if (event.getType() == BookChangedEvent.Type.SAVED && event.getBook() != null) {
+                addDocument(event.getBook());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.debug("Search index updated for book ID: {} ({})", event.getBookId(), event.getType());
+    }
+
+    // Returns matching book ids, best match first
+    public List<Long> search(String query, int limit) {
+        return rank(query, limit).stream().map(Map.Entry::getKey).collect(Collectors.toList());
+    }
+
+    // One page of matches in the given order, following on from the position the previous page ended on; the
+    // ranking still picks which matches are kept. Positions are the sort key and id of a match, its score for
+    // relevance, so books added or dropped between requests do not shift the rest of the results.
+    public Window<Long> search(String query, int limit, BookSort sort, KeysetScrollPosition after, int size) {
+        List<Map.Entry<Long, Double>> ranked = rank(query, limit);
+        List<Long> ids = new ArrayList<>(ranked.size());
+        List<KeysetScrollPosition> positions = new ArrayList<>(ranked.size());
+        int from = 0;
+        if (sort == BookSort.RELEVANCE) {
+            for (Map.Entry<Long, Double> hit : ranked) {
+                ids.add(hit.getKey());
+                positions.add(BookCursors.position(hit.getValue(), hit.getKey()));
+            }
+            if (!after.isInitial()) {
+                if (!(after.getKeys().get(BookCursors.SCORE) instanceof Double score)) {
+                    throw new IllegalArgumentException("Cursor has no search score");
+                }
+                // Any change to the index moves every score a little, so the last match is looked up by id. Only
+                // when it has dropped out does its old score place the page, and then matches near it can repeat
+                // or be skipped.
+                Long lastId = (Long) after.getKeys().get("id");
+                from = ids.indexOf(lastId) + 1;
+                if (from == 0) {
+                    Map.Entry<Long, Double> last = Map.entry(lastId, score);
+                    while (from < ranked.size() && RANKING.compare(ranked.get(from), last) <= 0) {
+                        from++;
+                    }
+                }
+            }
+        } else {
+            List<Book> books;
+            lock.readLock().lock();
+            try {
+                books = ranked.stream()
+                        .map(hit -> sortKeys.get(hit.getKey()))
+                        .filter(Objects::nonNull)
+                        .sorted(sort.comparator())
+                        .collect(Collectors.toList());
+            } finally {
+                lock.readLock().unlock();
+            }
+            for (Book book : books) {
+                ids.add(book.getId());
+                positions.add(BookCursors.position(sort, book));
+            }
+            if (!after.isInitial()) {
+                Map<String, ?> keys = after.getKeys();
+                Book last = Book.builder()
+                        .id((Long) keys.get("id"))
+                        .title((String) keys.get("title"))
+                        .price(keys.get("price") instanceof Double price ? price : 0)
+                        .rating(keys.get("rating") instanceof Double rating ? rating : 0)
+                        .build();
+                while (from < books.size() && sort.comparator().compare(books.get(from), last) <= 0) {
+                    from++;
+                }
+            }
+        }
+
+        int start = from;
+        int end = Math.min(from + size, ids.size());
+        return Window.from(ids.subList(start, end), index -> positions.get(start + index), end < ids.size());
+    }
+
+    // Scored matches, best first and ties to the lower id
+    private List<Map.Entry<Long, Double>> rank(String query, int limit) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            int docCount = fieldLengths.size();
+            if (docCount == 0) {
+                return List.of();
+            }
+            double[] avgLength = new double[FIELDS];
+            for (int f = 0; f < FIELDS; f++) {
+                avgLength[f] = Math.max(1.0, (double) totalFieldLengths[f] / docCount);
+            }
+
+            Map<Long, Double> scores = new HashMap<>();
+            for (int i = 0; i < terms.size(); i++) {
+                String term = terms.get(i);
+                boolean lastTerm = i == terms.size() - 1;
+                // The last term is usually still being typed, so treat it as a prefix
+                if (lastTerm) {
+                    NavigableMap<String, Map<Long, int[]>> expansions = postings.subMap(term, true,
+                            term + Character.MAX_VALUE, false);
+                    int expanded = 0;
+                    for (Map.Entry<String, Map<Long, int[]>> entry : expansions.entrySet()) {
+                        double discount = entry.getKey().equals(term) ? 1.0 : 0.8;
+                        score(entry.getValue(), docCount, avgLength, discount, scores);
+                        if (++expanded >= MAX_PREFIX_EXPANSIONS) {
+                            break;
+                        }
+                    }
+                } else {
+                    Map<Long, int[]> docs = postings.get(term);
+                    if (docs != null) {
+                        score(docs, docCount, avgLength, 1.0, scores);
+                    }
+                }
+            }
+
+            List<Map.Entry<Long, Double>> ranked = new ArrayList<>(scores.entrySet());
+            ranked.sort(RANKING);
+            return ranked.subList(0, Math.min(limit, ranked.size()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void score(Map<Long, int[]> docs, int docCount, double[] avgLength, double discount,
+            Map<Long, Double> scores) {
+        double idf = Math.log(1.0 + (docCount - docs.size() + 0.5) / (docs.size() + 0.5));
+        for (Map.Entry<Long, int[]> doc : docs.entrySet()) {
+            int[] tf = doc.getValue();
+            int[] lengths = fieldLengths.get(doc.getKey());
+            double score = 0;
+            for (int f = 0; f < FIELDS; f++) {
+                if (tf[f] == 0) {
+                    continue;
+                }
+                double norm = K1 * (1 - B + B * lengths[f] / avgLength[f]);
+                score += FIELD_BOOST[f] * idf * (tf[f] * (K1 + 1)) / (tf[f] + norm);
+            }
+            scores.merge(doc.getKey(), score * discount, Double::sum);
+        }
+    }
+
+    private void addDocument(Book book) {
+        String[] fields = { book.getTitle(), book.getAuthor(), book.getDescription() };
+        int[] lengths = new int[FIELDS];
+        Set<String> terms = new LinkedHashSet<>();
+        for (int f = 0; f < FIELDS; f++) {
+            List<String> tokens = tokenize(fields[f]);
+            lengths[f] = tokens.size();
+            totalFieldLengths[f] += tokens.size();
+            for (String token : tokens) {
+                postings.computeIfAbsent(token, t -> new HashMap<>())
+                        .computeIfAbsent(book.getId(), id -> new int[FIELDS])[f]++;
+                terms.add(token);
+            }
+        }
+        fieldLengths.put(book.getId(), lengths);
+        documentTerms.put(book.getId(), terms);
+        sortKeys.put(book.getId(), Book.builder()
+                .id(book.getId())
+                .title(book.getTitle())
+                .price(book.getPrice())
+                .rating(book.getRating())
+                .build());
+    }
+
+    private void removeDocument(Long bookId) {
+        int[] lengths = fieldLengths.remove(bookId);
+        if (lengths == null) {
+            return;
+        }
+        for (int f = 0; f < FIELDS; f++) {
+            totalFieldLengths[f] -= lengths[f];
+        }
+        sortKeys.remove(bookId);
+        for (String term : documentTerms.remove(bookId)) {
+            Map<Long, int[]> docs = postings.get(term);
+            if (docs != null && docs.remove(bookId) != null && docs.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        List<String> tokens = new ArrayList<>();
+        for (String token : NON_WORD.split(normalized.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
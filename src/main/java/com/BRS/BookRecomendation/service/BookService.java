@@ -1,24 +1,78 @@
 package com.BRS.BookRecomendation.service;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import com.BRS.BookRecomendation.config.CacheConfig;
+import com.BRS.BookRecomendation.DTO.BookPage;
+import com.BRS.BookRecomendation.DTO.BookSection;
+import com.BRS.BookRecomendation.DTO.BookSectionPage;
+import com.BRS.BookRecomendation.DTO.BookSort;
 import com.BRS.BookRecomendation.Entities.Book;
+import com.BRS.BookRecomendation.events.BookChangedEvent;
 import com.BRS.BookRecomendation.repository.BookRepository;
+import com.BRS.BookRecomendation.repository.BookStockRepository;
+import com.BRS.BookRecomendation.repository.BookSpecifications;
 
 @Service
 public class BookService {
 
     private static final Logger logger = LoggerFactory.getLogger(BookService.class);
 
+    public static final int MAX_PAGE_SIZE = 100;
+
     @Autowired
     private BookRepository bookRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private BookSearchIndex bookSearchIndex;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private InventoryLedger inventoryLedger;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private BookStockRepository bookStockRepository;
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Value("${book.search.max-results:100}")
+    private int maxSearchResults;
+
+    @Value("${book.search.max-candidates:10000}")
+    private int maxSearchCandidates;
+
     // Book retrieval methods
     public List<Book> getAllBooks() {
         logger.info("Retrieving all books");
@@ -27,6 +81,7 @@ public class BookService {
         return books;
     }
 
+    @Cacheable(value = CacheConfig.BOOKS_CACHE, key = "#id", unless = "#result == null")
     public Optional<Book> getBookById(Long id) {
         logger.info("Retrieving book with ID: {}", id);
         Optional<Book> book = bookRepository.findById(id);
@@ -38,6 +93,15 @@ public class BookService {
         return book;
     }
 
+    @TransactionalEventListener(fallbackExecution = true)
+    public void evictCachedBook(BookChangedEvent event) {
+        Cache cache = cacheManager.getCache(CacheConfig.BOOKS_CACHE);
+        if (cache != null) {
+            cache.evict(event.getBookId());
+            logger.debug("Evicted cached book with ID: {} after {} change", event.getBookId(), event.getType());
+        }
+    }
+
     public List<Book> getBooksByGenre(String genreTag) {
         logger.info("Retrieving books for genre tag: {}", genreTag);
         List<Book> books = bookRepository.findByGenreTag(genreTag);
@@ -47,11 +111,92 @@ public class BookService {
 
     public List<Book> searchBooks(String query) {
         logger.info("Searching books with query: '{}'", query);
-        List<Book> books = bookRepository.findByTitleContainingIgnoreCaseOrAuthorContainingIgnoreCase(query, query);
-        logger.debug("Found {} books matching query: '{}'", books.size(), query);
+        if (!bookSearchIndex.isAvailable()) {
+            List<Book> books = bookRepository.findByTitleContainingIgnoreCaseOrAuthorContainingIgnoreCase(query, query);
+            logger.debug("Found {} books matching query: '{}' using database search", books.size(), query);
+            return books;
+        }
+
+        List<Book> books = getBooksInOrder(bookSearchIndex.search(query, maxSearchResults));
+        logger.debug("Found {} books matching query: '{}' using search index", books.size(), query);
         return books;
     }
 
+    // Loads books with one primary-key query, keeping the order of the given ids
+    public List<Book> getBooksInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Book> booksById = bookRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        return ids.stream()
+                .map(booksById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    // Keyset-paginated retrieval
+    public BookPage getBooksByGenre(String genreTag, BookSort sort, String cursor, int size) {
+        logger.info("Retrieving page of books for genre tag: {} (sort: {}, size: {})", genreTag, sort, size);
+        return scroll(BookSpecifications.hasGenreTag(genreTag), sort, cursor, size);
+    }
+
+    // First page of every genre section, cut from the catalog snapshot rather than queried genre by genre;
+    // the cursors continue through getBooksByGenre
+    public List<BookSectionPage> getFirstPages(BookSort sort, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        List<BookSection> sections = catalogSnapshotService.getSnapshot().getSections();
+        List<BookSectionPage> pages = new ArrayList<>(sections.size());
+        for (BookSection section : sections) {
+            List<Book> books = section.getBooks().stream()
+                    .sorted(sort.comparator())
+                    .limit(pageSize)
+                    .collect(Collectors.toList());
+            String nextCursor = section.getBooks().size() > pageSize
+                    ? BookCursors.encode(sort, books.get(books.size() - 1))
+                    : null;
+            pages.add(new BookSectionPage(section.getGenre(), books, nextCursor));
+        }
+        return pages;
+    }
+
+    public BookPage searchBooks(String query, BookSort sort, String cursor, int size) {
+        logger.info("Searching page of books with query: '{}' (sort: {}, size: {})", query, sort, size);
+        if (!bookSearchIndex.isAvailable()) {
+            return scroll(BookSpecifications.titleOrAuthorContains(query), sort, cursor, size);
+        }
+        // Pages are cut from the ranked ids in memory; only the ids of one page go to the database
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        Window<Long> window = bookSearchIndex.search(query, maxSearchCandidates, sort,
+                BookCursors.decode(cursor, sort), pageSize);
+        String nextCursor = window.hasNext() && !window.isEmpty()
+                ? BookCursors.encode(sort, window.positionAt(window.size() - 1))
+                : null;
+        List<Book> books = getBooksInOrder(window.getContent());
+        logger.debug("Returning page of {} ranked books, has next page: {}", books.size(), nextCursor != null);
+        return new BookPage(books, nextCursor);
+    }
+
+    private BookPage scroll(Specification<Book> specification, BookSort sort, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        KeysetScrollPosition decoded = BookCursors.decode(cursor, sort);
+        // SQL cannot compare with a null title, so what follows a book without one is spelled out instead
+        boolean afterUntitled = sort == BookSort.TITLE && !decoded.isInitial()
+                && decoded.getKeys().get("title") == null;
+        KeysetScrollPosition position = afterUntitled ? ScrollPosition.keyset() : decoded;
+        Specification<Book> filter = afterUntitled
+                ? specification.and(BookSpecifications.titledOrAfter((Long) decoded.getKeys().get("id")))
+                : specification;
+        Window<Book> window = bookRepository.findBy(filter,
+                query -> query.sortBy(sort.toSort()).limit(pageSize).scroll(position));
+
+        String nextCursor = window.hasNext() && !window.isEmpty()
+                ? BookCursors.encode(sort, window.positionAt(window.size() - 1))
+                : null;
+        logger.debug("Returning page of {} books, has next page: {}", window.size(), nextCursor != null);
+        return new BookPage(window.getContent(), nextCursor);
+    }
+
     // Book management methods
     public Book saveBook(Book book) {
         if (book.getId() == null) {
@@ -60,8 +205,10 @@ public class BookService {
             logger.info("Updating book with ID: {}", book.getId());
         }
 
+        keepLedgerStock(book);
         Book savedBook = bookRepository.save(book);
         logger.debug("Book saved successfully with ID: {}", savedBook.getId());
+        eventPublisher.publishEvent(new BookChangedEvent(BookChangedEvent.Type.SAVED, savedBook.getId(), savedBook));
         return savedBook;
     }
 
@@ -71,6 +218,7 @@ public class BookService {
         if (bookRepository.existsById(id)) {
             bookRepository.deleteById(id);
             logger.debug("Book with ID: {} deleted successfully", id);
+            eventPublisher.publishEvent(new BookChangedEvent(BookChangedEvent.Type.DELETED, id, null));
         } else {
             logger.warn("Attempted to delete non-existent book with ID: {}", id);
         }
@@ -84,36 +232,56 @@ public class BookService {
             return null;
         }
 
+        keepLedgerStock(book);
         Book updatedBook = bookRepository.save(book);
         logger.debug("Book with ID: {} updated successfully", updatedBook.getId());
+        eventPublisher.publishEvent(new BookChangedEvent(BookChangedEvent.Type.SAVED, updatedBook.getId(), updatedBook));
         return updatedBook;
     }
 
+    // While the inventory ledger owns stock, edits keep the stored quantity; stock moves through updateStock
+    private void keepLedgerStock(Book book) {
+        if (inventoryLedger.isEnabled() && book.getId() != null) {
+            bookRepository.findById(book.getId())
+                    .ifPresent(existing -> book.setStockQuantity(existing.getStockQuantity()));
+        }
+    }
+
     // Inventory management
+    @Transactional
     public boolean updateStock(Long bookId, int quantity) {
         logger.info("Updating stock for book ID: {} by {} units", bookId, quantity);
 
-        Optional<Book> bookOpt = bookRepository.findById(bookId);
-        if (bookOpt.isPresent()) {
-            Book book = bookOpt.get();
-            int currentStock = book.getStockQuantity();
-            int newStock = currentStock + quantity;
-
-            if (newStock >= 0) {
-                book.setStockQuantity(newStock);
-                bookRepository.save(book);
-                logger.debug("Stock updated for book '{}' from {} to {}",
-                        book.getTitle(), currentStock, newStock);
-                return true;
+        if (inventoryLedger.isEnabled()) {
+            Integer before = inventoryLedger.getAvailable(bookId);
+            boolean adjusted = inventoryLedger.adjust(bookId, quantity);
+            if (!adjusted) {
+                logger.warn("Inventory ledger refused stock update for book ID: {} by {} units", bookId, quantity);
             } else {
-                logger.warn("Cannot update stock for book ID: {} - would result in negative stock ({} + {} = {})",
-                        bookId, currentStock, quantity, newStock);
-                return false;
+                outboxService.appendStockChange(bookId, before, before + quantity);
             }
-        } else {
+            return adjusted;
+        }
+
+        // Locked read for the check and the outbox; the change itself is applied in SQL
+        Integer currentStock = bookStockRepository.lockStock(List.of(bookId)).get(bookId);
+        if (currentStock == null) {
             logger.error("Book with ID: {} not found for stock update", bookId);
             return false;
         }
+        int newStock = currentStock + quantity;
+        if (newStock < 0) {
+            logger.warn("Cannot update stock for book ID: {} - would result in negative stock ({} + {} = {})",
+                    bookId, currentStock, quantity, newStock);
+            return false;
+        }
+
+        bookStockRepository.applyDeltas(new TreeMap<>(Map.of(bookId, quantity)));
+        Book book = bookRepository.findById(bookId).orElse(null);
+        logger.debug("Stock updated for book ID: {} from {} to {}", bookId, currentStock, newStock);
+        eventPublisher.publishEvent(new BookChangedEvent(BookChangedEvent.Type.STOCK, bookId, book));
+        outboxService.appendStockChange(bookId, currentStock, newStock);
+        return true;
     }
 
     public boolean checkStockAvailability(Long bookId, int requestedQuantity) {
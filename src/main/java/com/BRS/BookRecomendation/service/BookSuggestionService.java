@@ -0,0 +1,301 @@
+package com.BRS.BookRecomendation.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.BRS.BookRecomendation.DTO.BookSuggestion;
+import com.BRS.BookRecomendation.Entities.Book;
+import com.BRS.BookRecomendation.events.BookChangedEvent;
+import com.BRS.BookRecomendation.repository.BookRepository;
+
+@Service
+public class BookSuggestionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookSuggestionService.class);
+
+    // Completions kept per trie node, also the largest limit a caller can ask for
+    public static final int MAX_SUGGESTIONS = 10;
+
+    private static final Comparator<BookSuggestion> BY_RATING = Comparator
+            .comparingDouble(BookSuggestion::getRating).reversed()
+            .thenComparing(BookSuggestion::getText);
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Node root = new Node();
+
+    // What each book contributed, so it can be taken out again on update/delete
+    private final Map<Long, IndexedBook> indexedBooks = new HashMap<>();
+
+    // author key -> (book id -> rating); an author completion carries its best-rated book
+    private final Map<String, Map<Long, Double>> authorBooks = new HashMap<>();
+    private final Map<String, BookSuggestion> authorSuggestions = new HashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildTrie() {
+        try {
+            long start = System.nanoTime();
+            List<Book> books = bookRepository.findAll();
+            lock.writeLock().lock();
+            try {
+                root = new Node();
+                indexedBooks.clear();
+                authorBooks.clear();
+                authorSuggestions.clear();
+                for (Book book : books) {
+                    addBook(book);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.info("Suggestion trie built for {} books in {} ms", books.size(),
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            logger.error("Failed to build suggestion trie: {}", e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.getType() == BookChangedEvent.Type.STOCK) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeBook(event.getBookId());
+            if (event.getType() == BookChangedEvent.Type.SAVED && event.getBook() != null) {
+                addBook(event.getBook());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<BookSuggestion> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        int size = Math.max(1, Math.min(limit, MAX_SUGGESTIONS));
+
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.child(key.charAt(i));
+            }
+            if (node == null) {
+                return List.of();
+            }
+            return List.of(Arrays.copyOf(node.top, Math.min(size, node.topSize)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addBook(Book book) {
+        String titleKey = normalize(book.getTitle());
+        String authorKey = normalize(book.getAuthor());
+        BookSuggestion title = null;
+        if (!titleKey.isEmpty()) {
+            title = new BookSuggestion(book.getTitle(), BookSuggestion.Type.TITLE, book.getId(), book.getRating());
+            insert(titleKey, title);
+        }
+        if (!authorKey.isEmpty()) {
+            authorBooks.computeIfAbsent(authorKey, k -> new HashMap<>()).put(book.getId(), book.getRating());
+            refreshAuthor(authorKey, book.getAuthor());
+        }
+        indexedBooks.put(book.getId(), new IndexedBook(titleKey, title, authorKey, book.getAuthor()));
+    }
+
+    private void removeBook(Long bookId) {
+        IndexedBook indexed = indexedBooks.remove(bookId);
+        if (indexed == null) {
+            return;
+        }
+        if (indexed.title != null) {
+            remove(indexed.titleKey, indexed.title);
+        }
+        Map<Long, Double> books = authorBooks.get(indexed.authorKey);
+        if (books != null) {
+            books.remove(bookId);
+            if (books.isEmpty()) {
+                authorBooks.remove(indexed.authorKey);
+            }
+            refreshAuthor(indexed.authorKey, indexed.author);
+        }
+    }
+
+    private void refreshAuthor(String authorKey, String author) {
+        BookSuggestion previous = authorSuggestions.remove(authorKey);
+        if (previous != null) {
+            remove(authorKey, previous);
+        }
+        Map<Long, Double> books = authorBooks.get(authorKey);
+        if (books == null || books.isEmpty()) {
+            return;
+        }
+        Map.Entry<Long, Double> best = books.entrySet().stream()
+                .max(Map.Entry.<Long, Double>comparingByValue())
+                .get();
+        BookSuggestion suggestion = new BookSuggestion(author, BookSuggestion.Type.AUTHOR, best.getKey(),
+                best.getValue());
+        authorSuggestions.put(authorKey, suggestion);
+        insert(authorKey, suggestion);
+    }
+
+    private void insert(String key, BookSuggestion suggestion) {
+        Node node = root;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.childOrCreate(key.charAt(i));
+            node.offer(suggestion);
+        }
+        node.addTerminal(suggestion);
+    }
+
+    private void remove(String key, BookSuggestion suggestion) {
+        Node[] path = new Node[key.length()];
+        Node node = root;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.child(key.charAt(i));
+            if (node == null) {
+                return;
+            }
+            path[i] = node;
+        }
+        node.removeTerminal(suggestion);
+        for (Node step : path) {
+            // A full list may have hidden lower-rated completions, so refill it from the subtree
+            if (step.discard(suggestion) && step.topSize == MAX_SUGGESTIONS - 1) {
+                step.recompute();
+            }
+        }
+    }
+
+    static String normalize(String text) {
+        return String.join(" ", BookSearchIndex.tokenize(text));
+    }
+
+    private static final class IndexedBook {
+        private final String titleKey;
+        private final BookSuggestion title;
+        private final String authorKey;
+        private final String author;
+
+        private IndexedBook(String titleKey, BookSuggestion title, String authorKey, String author) {
+            this.titleKey = titleKey;
+            this.title = title;
+            this.authorKey = authorKey;
+            this.author = author;
+        }
+    }
+
+    private static final class Node {
+        private static final char[] NO_KEYS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        // Arrays grow on demand; most nodes sit on a single title and hold one completion
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private BookSuggestion[] top = new BookSuggestion[1];
+        private int topSize;
+        private List<BookSuggestion> terminals;
+
+        private Node child(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            return index >= 0 ? children[index] : null;
+        }
+
+        private Node childOrCreate(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            if (index >= 0) {
+                return children[index];
+            }
+            int insertAt = -index - 1;
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            newKeys[insertAt] = c;
+            newChildren[insertAt] = new Node();
+            System.arraycopy(keys, insertAt, newKeys, insertAt + 1, keys.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            keys = newKeys;
+            children = newChildren;
+            return newChildren[insertAt];
+        }
+
+        private void offer(BookSuggestion suggestion) {
+            if (topSize == MAX_SUGGESTIONS && BY_RATING.compare(suggestion, top[topSize - 1]) >= 0) {
+                return;
+            }
+            if (topSize == top.length && top.length < MAX_SUGGESTIONS) {
+                top = Arrays.copyOf(top, Math.min(MAX_SUGGESTIONS, top.length * 2));
+            }
+            int position = topSize == MAX_SUGGESTIONS ? MAX_SUGGESTIONS - 1 : topSize++;
+            while (position > 0 && BY_RATING.compare(suggestion, top[position - 1]) < 0) {
+                top[position] = top[position - 1];
+                position--;
+            }
+            top[position] = suggestion;
+        }
+
+        private boolean discard(BookSuggestion suggestion) {
+            for (int i = 0; i < topSize; i++) {
+                if (top[i] == suggestion) {
+                    System.arraycopy(top, i + 1, top, i, topSize - i - 1);
+                    top[--topSize] = null;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void recompute() {
+            Arrays.fill(top, null);
+            topSize = 0;
+            collect(this);
+        }
+
+        private void addTerminal(BookSuggestion suggestion) {
+            if (terminals == null) {
+                terminals = new ArrayList<>(1);
+            }
+            terminals.add(suggestion);
+        }
+
+        private void removeTerminal(BookSuggestion suggestion) {
+            if (terminals != null && terminals.remove(suggestion) && terminals.isEmpty()) {
+                terminals = null;
+            }
+        }
+
+        private void collect(Node node) {
+            if (node.terminals != null) {
+                for (BookSuggestion suggestion : node.terminals) {
+                    offer(suggestion);
+                }
+            }
+            for (Node child : node.children) {
+                collect(child);
+            }
+        }
+    }
+}
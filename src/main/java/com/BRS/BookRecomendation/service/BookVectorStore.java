@@ -0,0 +1,128 @@
+package com.BRS.BookRecomendation.service;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import com.BRS.BookRecomendation.util.LongIntHashMap;
+import com.BRS.BookRecomendation.util.TopK;
+
+// Unit-length book vectors packed row after row into one float[], scored by brute-force cosine
+final class BookVectorStore {
+
+    // Below this many rows a single-threaded scan is faster than splitting the work
+    private static final int PARALLEL_THRESHOLD = 32_768;
+    private static final int CHUNK_ROWS = 8_192;
+
+    private final int dimensions;
+    private final LongIntHashMap rows;
+    private float[] vectors;
+    private long[] bookIds;
+    private int size;
+
+    BookVectorStore(int dimensions, int expectedBooks) {
+        int capacity = Math.max(16, expectedBooks);
+        this.dimensions = dimensions;
+        this.rows = new LongIntHashMap(capacity, -1);
+        this.vectors = new float[capacity * dimensions];
+        this.bookIds = new long[capacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    void put(long bookId, float[] vector) {
+        int row = rows.get(bookId);
+        if (row < 0) {
+            if (size == bookIds.length) {
+                bookIds = Arrays.copyOf(bookIds, size * 2);
+                vectors = Arrays.copyOf(vectors, size * 2 * dimensions);
+            }
+            row = size++;
+            bookIds[row] = bookId;
+            rows.put(bookId, row);
+        }
+        System.arraycopy(vector, 0, vectors, row * dimensions, dimensions);
+    }
+
+    // Moves the last row into the freed slot so rows stay dense
+    void remove(long bookId) {
+        int row = rows.get(bookId);
+        if (row < 0) {
+            return;
+        }
+        int last = --size;
+        if (row != last) {
+            System.arraycopy(vectors, last * dimensions, vectors, row * dimensions, dimensions);
+            bookIds[row] = bookIds[last];
+            rows.put(bookIds[row], row);
+        }
+        rows.put(bookId, -1);
+    }
+
+    // Returns the ids of the k books closest to the given one, most similar first
+    long[] mostSimilar(long bookId, int k) {
+        int row = rows.get(bookId);
+        if (row < 0 || k <= 0) {
+            return new long[0];
+        }
+        float[] query = Arrays.copyOfRange(vectors, row * dimensions, (row + 1) * dimensions);
+
+        int[] best;
+        if (size < PARALLEL_THRESHOLD) {
+            TopK top = new TopK(k);
+            scan(query, row, 0, size, top);
+            best = top.drainDescending();
+        } else {
+            // Each chunk keeps its own top k; the few survivors are rescored and merged
+            int chunks = (size + CHUNK_ROWS - 1) / CHUNK_ROWS;
+            int[] candidates = IntStream.range(0, chunks).parallel()
+                    .mapToObj(chunk -> {
+                        TopK top = new TopK(k);
+                        scan(query, row, chunk * CHUNK_ROWS, Math.min(size, (chunk + 1) * CHUNK_ROWS), top);
+                        return top.drainDescending();
+                    })
+                    .flatMapToInt(Arrays::stream)
+                    .toArray();
+            TopK top = new TopK(k);
+            for (int candidate : candidates) {
+                top.offer(candidate, dot(query, vectors, candidate * dimensions, dimensions));
+            }
+            best = top.drainDescending();
+        }
+
+        long[] result = new long[best.length];
+        for (int i = 0; i < best.length; i++) {
+            result[i] = bookIds[best[i]];
+        }
+        return result;
+    }
+
+    private void scan(float[] query, int excludedRow, int from, int to, TopK top) {
+        for (int row = from; row < to; row++) {
+            if (row == excludedRow) {
+                continue;
+            }
+            float score = dot(query, vectors, row * dimensions, dimensions);
+            if (score > 0) {
+                top.offer(row, score);
+            }
+        }
+    }
+
+    // Four independent accumulators break the add dependency chain so the loop pipelines well
+    static float dot(float[] query, float[] matrix, int offset, int length) {
+        float s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = 0;
+        for (; i + 3 < length; i += 4) {
+            s0 += query[i] * matrix[offset + i];
+            s1 += query[i + 1] * matrix[offset + i + 1];
+            s2 += query[i + 2] * matrix[offset + i + 2];
+            s3 += query[i + 3] * matrix[offset + i + 3];
+        }
+        for (; i < length; i++) {
+            s0 += query[i] * matrix[offset + i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+}
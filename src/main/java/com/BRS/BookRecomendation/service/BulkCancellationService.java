@@ -0,0 +1,244 @@
+package com.BRS.BookRecomendation.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.BRS.BookRecomendation.DTO.BulkCancellationJob;
+import com.BRS.BookRecomendation.DTO.Status;
+import com.BRS.BookRecomendation.Entities.Book;
+import com.BRS.BookRecomendation.events.BookChangedEvent;
+import com.BRS.BookRecomendation.repository.BookRepository;
+import com.BRS.BookRecomendation.repository.BookStockRepository;
+import com.BRS.BookRecomendation.repository.OrderBulkRepository;
+
+import jakarta.annotation.PreDestroy;
+
+// Cancels every confirmed order of a user in chunks. Each chunk is one transaction: lock the orders,
+// sum their items per book, restore stock with one batched update per book and flip all statuses in a
+// single statement, so the cost grows with the number of chunks and books rather than orders and items.
+@Service
+public class BulkCancellationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkCancellationService.class);
+
+    @Autowired
+    private OrderBulkRepository orderBulkRepository;
+
+    @Autowired
+    private BookStockRepository bookStockRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private InventoryLedger inventoryLedger;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private SalesStatsService salesStatsService;
+
+    @Autowired
+    private OrderAnalyticsService orderAnalyticsService;
+
+    @Autowired
+    private AlsoBoughtService alsoBoughtService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${orders.bulk-cancel.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${orders.bulk-cancel.job-retention-ms:3600000}")
+    private long jobRetentionMs;
+
+    private final ConcurrentHashMap<Long, Job> jobs = new ConcurrentHashMap<>();
+    private final AtomicLong jobIds = new AtomicLong();
+
+    private final ExecutorService jobExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "bulk-cancellation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public long countCancellable(Long userId) {
+        return orderBulkRepository.countByUserAndStatus(userId, Status.CONFIRMED);
+    }
+
+    // Runs on the caller's thread; returns the number of orders cancelled
+    public long cancelAll(Long userId) {
+        Job job = new Job(0, userId);
+        run(job);
+        if (job.state == BulkCancellationJob.State.FAILED) {
+            throw new RuntimeException("Bulk cancellation failed for user " + userId + ": " + job.message);
+        }
+        return job.cancelledOrders.get();
+    }
+
+    // Queues the cancellation; afterwards runs only if every order was cancelled
+    public BulkCancellationJob submit(Long userId, Runnable afterwards) {
+        Job job = new Job(jobIds.incrementAndGet(), userId);
+        jobs.put(job.id, job);
+        jobExecutor.execute(() -> {
+            run(job);
+            if (job.state == BulkCancellationJob.State.COMPLETED && afterwards != null) {
+                try {
+                    afterwards.run();
+                } catch (RuntimeException e) {
+                    job.fail("Orders cancelled, follow-up failed: " + e.getMessage());
+                    logger.error("Follow-up of bulk cancellation job {} failed: {}", job.id, e.getMessage());
+                }
+            }
+        });
+        logger.info("Bulk cancellation job {} queued for user ID: {}", job.id, userId);
+        return view(job);
+    }
+
+    public BulkCancellationJob getJob(Long jobId) {
+        Job job = jobs.get(jobId);
+        return job == null ? null : view(job);
+    }
+
+    @Scheduled(fixedDelayString = "${orders.bulk-cancel.job-retention-ms:3600000}")
+    public void expireJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(Duration.ofMillis(jobRetentionMs));
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdownNow();
+    }
+
+    private void run(Job job) {
+        job.state = BulkCancellationJob.State.RUNNING;
+        job.startedAt = LocalDateTime.now();
+        long start = System.nanoTime();
+        try {
+            job.totalOrders = countCancellable(job.userId);
+            logger.info("Cancelling {} orders for user ID: {} in chunks of {}", job.totalOrders, job.userId,
+                    chunkSize);
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            while (true) {
+                // Progress only moves once a chunk has committed
+                long[] chunk = transaction.execute(status -> cancelChunk(job.userId));
+                if (chunk == null || chunk[0] == 0) {
+                    break;
+                }
+                job.cancelledOrders.addAndGet(chunk[0]);
+                job.restockedUnits.addAndGet(chunk[1]);
+                logger.debug("Bulk cancellation for user ID: {} at {}/{} orders", job.userId,
+                        job.cancelledOrders.get(), job.totalOrders);
+            }
+            job.finish(BulkCancellationJob.State.COMPLETED, null);
+            logger.info("Cancelled {} orders for user ID: {}, restocking {} units, in {} ms",
+                    job.cancelledOrders.get(), job.userId, job.restockedUnits.get(),
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            job.fail(e.getMessage());
+            logger.error("Bulk cancellation for user ID: {} stopped after {} orders: {}", job.userId,
+                    job.cancelledOrders.get(), e.getMessage());
+        }
+    }
+
+    // Returns { orders cancelled, units restocked }
+    private long[] cancelChunk(Long userId) {
+        List<Long> orderIds = orderBulkRepository.lockOrderIds(userId, Status.CONFIRMED, chunkSize);
+        if (orderIds.isEmpty()) {
+            return new long[] { 0, 0 };
+        }
+        SortedMap<Long, Integer> quantities = orderBulkRepository.sumQuantitiesByBook(orderIds);
+        if (!quantities.isEmpty()) {
+            restock(quantities);
+        }
+        salesStatsService.recordCancelled(orderIds);
+        int cancelled = orderBulkRepository.updateStatus(orderIds, Status.CONFIRMED, Status.CANCELLED);
+        orderAnalyticsService.recordStatusChange(orderIds, Status.CANCELLED);
+        alsoBoughtService.recordStatusChange(
+                orderIds.stream().collect(Collectors.toMap(Function.identity(), orderId -> Status.CONFIRMED)),
+                Status.CANCELLED);
+        long units = quantities.values().stream().mapToLong(Integer::longValue).sum();
+        return new long[] { cancelled, units };
+    }
+
+    // Shared with bulk status changes that cancel orders
+    void restock(SortedMap<Long, Integer> quantities) {
+        if (inventoryLedger.isEnabled()) {
+            quantities.forEach((bookId, quantity) -> {
+                Integer available = inventoryLedger.getAvailable(bookId);
+                if (available != null) {
+                    outboxService.appendStockChange(bookId, available, available + quantity);
+                }
+            });
+            inventoryLedger.release(quantities);
+            return;
+        }
+        Map<Long, Integer> before = bookStockRepository.lockStock(quantities.keySet());
+        bookStockRepository.applyDeltas(quantities);
+        quantities.forEach((bookId, quantity) -> {
+            Integer previous = before.get(bookId);
+            if (previous != null) {
+                outboxService.appendStockChange(bookId, previous, previous + quantity);
+            }
+        });
+        for (Book book : bookRepository.findAllById(quantities.keySet())) {
+            eventPublisher.publishEvent(new BookChangedEvent(BookChangedEvent.Type.STOCK, book.getId(), book));
+        }
+    }
+
+    private static BulkCancellationJob view(Job job) {
+        return new BulkCancellationJob(job.id, job.userId, job.state, job.totalOrders, job.cancelledOrders.get(),
+                job.restockedUnits.get(), job.startedAt, job.finishedAt, job.message);
+    }
+
+    private static final class Job {
+        private final long id;
+        private final Long userId;
+        private final AtomicLong cancelledOrders = new AtomicLong();
+        private final AtomicLong restockedUnits = new AtomicLong();
+        private volatile BulkCancellationJob.State state = BulkCancellationJob.State.QUEUED;
+        private volatile long totalOrders;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private volatile String message;
+
+        private Job(long id, Long userId) {
+            this.id = id;
+            this.userId = userId;
+        }
+
+        private void finish(BulkCancellationJob.State finalState, String reason) {
+            message = reason;
+            state = finalState;
+            finishedAt = LocalDateTime.now();
+        }
+
+        private void fail(String reason) {
+            finish(BulkCancellationJob.State.FAILED, reason);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.BRS.BookRecomendation.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.BRS.BookRecomendation.DTO.BulkStatusReport;
+import com.BRS.BookRecomendation.DTO.OrderStatusResult;
+import com.BRS.BookRecomendation.DTO.Status;
+import com.BRS.BookRecomendation.repository.OrderBulkRepository;
+
+// Moves many orders to one status for the warehouse. Each chunk is one transaction: lock the orders,
+// check every move against the Status state machine, then apply the valid ones with one JDBC batch.
+// A chunk that fails rolls back on its own and the rest carry on; every order gets its own result.
+@Service
+public class BulkStatusService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkStatusService.class);
+
+    @Autowired
+    private OrderBulkRepository orderBulkRepository;
+
+    @Autowired
+    private BulkCancellationService bulkCancellationService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private SalesStatsService salesStatsService;
+
+    @Autowired
+    private OrderAnalyticsService orderAnalyticsService;
+
+    @Autowired
+    private AlsoBoughtService alsoBoughtService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${orders.bulk-status.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${orders.bulk-status.max-orders:10000}")
+    private int maxOrders;
+
+    public BulkStatusReport updateStatuses(List<Long> orderIds, String status) {
+        Status target = Status.parse(status);
+        if (target == null) {
+            logger.error("Invalid order status: {}", status);
+            throw new RuntimeException("Invalid order status: " + status);
+        }
+        if (orderIds == null || orderIds.isEmpty()) {
+            throw new RuntimeException("No order ids given");
+        }
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(orderIds));
+        if (ids.size() > maxOrders) {
+            throw new RuntimeException("At most " + maxOrders + " orders can be updated at once");
+        }
+
+        long start = System.nanoTime();
+        logger.info("Moving {} orders to {} in chunks of {}", ids.size(), target, chunkSize);
+        Map<Long, OrderStatusResult> results = new HashMap<>();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+            try {
+                results.putAll(transaction.execute(transactionStatus -> applyChunk(chunk, target)));
+            } catch (Exception e) {
+                logger.error("Status change to {} failed for a chunk of {} orders: {}", target, chunk.size(),
+                        e.getMessage());
+                for (Long orderId : chunk) {
+                    results.put(orderId, new OrderStatusResult(orderId, OrderStatusResult.Outcome.FAILED, null,
+                            e.getMessage()));
+                }
+            }
+        }
+
+        List<OrderStatusResult> ordered = new ArrayList<>(ids.size());
+        int updated = 0;
+        int rejected = 0;
+        for (Long orderId : ids) {
+            OrderStatusResult result = results.get(orderId);
+            ordered.add(result);
+            if (result.getOutcome() == OrderStatusResult.Outcome.UPDATED) {
+                updated++;
+            } else if (result.getOutcome() != OrderStatusResult.Outcome.UNCHANGED) {
+                rejected++;
+            }
+        }
+        logger.info("Moved {}/{} orders to {} ({} rejected) in {} ms", updated, ids.size(), target, rejected,
+                (System.nanoTime() - start) / 1_000_000);
+        return new BulkStatusReport(target, ids.size(), updated, rejected, ordered);
+    }
+
+    private Map<Long, OrderStatusResult> applyChunk(List<Long> chunk, Status target) {
+        Map<Long, OrderStatusResult> results = new HashMap<>();
+        Map<Long, Status> eligible = new LinkedHashMap<>();
+        Map<Long, Object[]> rows = new HashMap<>();
+        for (Object[] row : orderBulkRepository.lockOrders(chunk)) {
+            rows.put((Long) row[0], row);
+        }
+
+        for (Long orderId : chunk) {
+            Object[] row = rows.get(orderId);
+            if (row == null) {
+                results.put(orderId, new OrderStatusResult(orderId, OrderStatusResult.Outcome.NOT_FOUND, null,
+                        "Order not found"));
+                continue;
+            }
+            Status current = (Status) row[1];
+            if (current == target) {
+                results.put(orderId, new OrderStatusResult(orderId, OrderStatusResult.Outcome.UNCHANGED, current,
+                        "Already " + target));
+            } else if (current == null || !current.canTransitionTo(target)) {
+                results.put(orderId, new OrderStatusResult(orderId, OrderStatusResult.Outcome.INVALID_TRANSITION,
+                        current, "Cannot change order status from " + current + " to " + target));
+            } else {
+                eligible.put(orderId, current);
+            }
+        }
+        if (eligible.isEmpty()) {
+            return results;
+        }
+
+        // Orders can only be cancelled before shipping, so their stock is still reserved
+        if (target == Status.CANCELLED) {
+            SortedMap<Long, Integer> quantities = orderBulkRepository.sumQuantitiesByBook(eligible.keySet());
+            if (!quantities.isEmpty()) {
+                bulkCancellationService.restock(quantities);
+            }
+            salesStatsService.recordCancelled(eligible.keySet());
+        }
+
+        int[] counts = orderBulkRepository.updateStatuses(eligible, target);
+        Map<Long, Status> changed = new LinkedHashMap<>();
+        Map<Long, Map<String, Object>> payloads = new TreeMap<>();
+        int index = 0;
+        for (Map.Entry<Long, Status> entry : eligible.entrySet()) {
+            Long orderId = entry.getKey();
+            // Zero means the guard on the old status did not match; drivers may report -2 for "unknown"
+            if (counts[index++] == 0) {
+                results.put(orderId, new OrderStatusResult(orderId, OrderStatusResult.Outcome.FAILED,
+                        entry.getValue(), "Order changed concurrently"));
+                continue;
+            }
+            changed.put(orderId, entry.getValue());
+            results.put(orderId, new OrderStatusResult(orderId, OrderStatusResult.Outcome.UPDATED, entry.getValue(),
+                    null));
+            Object[] row = rows.get(orderId);
+            Map<String, Object> payload = new HashMap<>();
+            payload.put("orderId", orderId);
+            payload.put("userId", row[2]);
+            payload.put("username", row[3]);
+            payload.put("status", target.name());
+            payloads.put(orderId, payload);
+        }
+        if (!payloads.isEmpty()) {
+            outboxService.appendAll(OutboxService.ORDER_STATUS_CHANGED, payloads);
+            orderAnalyticsService.recordStatusChange(changed.keySet(), target);
+            alsoBoughtService.recordStatusChange(changed, target);
+        }
+        return results;
+    }
+}
@@ -0,0 +1,246 @@
+package com.BRS.BookRecomendation.service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.BRS.BookRecomendation.Entities.Cart;
+import com.BRS.BookRecomendation.repository.BookStockRepository;
+import com.BRS.BookRecomendation.repository.CartRepository;
+
+// Soft, time-limited stock holds for cart items. Held quantities are summed per book in memory so
+// available-to-promise is stock minus one counter; expiries sit in a delay queue and are cleared in bulk.
+// Holds are advisory: checkout still decides on real stock.
+@Service
+public class CartHoldService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CartHoldService.class);
+
+    private static final int CLEAR_CHUNK_SIZE = 1000;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private BookStockRepository bookStockRepository;
+
+    @Autowired
+    private InventoryLedger inventoryLedger;
+
+    @Value("${cart.hold.enabled:true}")
+    private boolean enabled;
+
+    @Value("${cart.hold.ttl-minutes:15}")
+    private long ttlMinutes;
+
+    private final ConcurrentHashMap<Long, AtomicInteger> heldByBook = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Hold> holdsByCart = new ConcurrentHashMap<>();
+
+    // Replaced or released holds stay queued but inactive and are skipped when they surface
+    private final DelayQueue<Hold> expiries = new DelayQueue<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            int cleared = cartRepository.clearExpiredHolds(now);
+            List<Object[]> active = cartRepository.findActiveHolds(now);
+            for (Object[] row : active) {
+                track((Long) row[0], (Long) row[1], (Integer) row[2], (LocalDateTime) row[3]);
+            }
+            logger.info("Cart holds recovered: {} active, {} expired while offline", active.size(), cleared);
+        } catch (Exception e) {
+            logger.error("Cart hold recovery failed, existing holds are ignored: {}", e.getMessage());
+        }
+    }
+
+    // Stamps a fresh hold for the row's full quantity; call before saving the row
+    public Cart withHold(Cart cart) {
+        if (enabled) {
+            cart.setHeldQuantity(cart.getQuantity());
+            cart.setHoldExpiresAt(LocalDateTime.now().plusMinutes(ttlMinutes));
+        }
+        return cart;
+    }
+
+    // Starts counting a saved row's hold once its transaction has committed
+    public void track(Cart cart) {
+        if (!enabled || cart.getHoldExpiresAt() == null) {
+            return;
+        }
+        Long cartId = cart.getId();
+        Long bookId = cart.getBook().getId();
+        int quantity = cart.getHeldQuantity();
+        LocalDateTime expiresAt = cart.getHoldExpiresAt();
+        afterCommit(() -> track(cartId, bookId, quantity, expiresAt));
+    }
+
+    // For rows that are being deleted; their counts come off after commit
+    public void release(Collection<Long> cartIds) {
+        if (!enabled || cartIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(cartIds);
+        afterCommit(() -> {
+            for (Long cartId : ids) {
+                Hold hold = holdsByCart.remove(cartId);
+                if (hold != null) {
+                    deactivate(hold);
+                }
+            }
+        });
+    }
+
+    public int getHeld(Long bookId) {
+        AtomicInteger held = heldByBook.get(bookId);
+        return held == null ? 0 : held.get();
+    }
+
+    // Stock not promised to other carts, or -1 when the book does not exist
+    public int availableToPromise(Long bookId) {
+        Integer stock = inventoryLedger.isEnabled() ? inventoryLedger.getAvailable(bookId)
+                : bookStockRepository.findStock(bookId);
+        if (stock == null) {
+            return -1;
+        }
+        return Math.max(0, stock - getHeld(bookId));
+    }
+
+    // The caller's own hold on the row counts towards the quantity it asks for
+    public boolean isAvailable(Long bookId, int quantity, Cart ownItem) {
+        Integer stock = inventoryLedger.isEnabled() ? inventoryLedger.getAvailable(bookId)
+                : bookStockRepository.findStock(bookId);
+        if (stock == null) {
+            return false;
+        }
+        int held = getHeld(bookId);
+        if (ownItem != null) {
+            Hold own = holdsByCart.get(ownItem.getId());
+            if (own != null && own.active.get()) {
+                held -= own.quantity;
+            }
+        }
+        return stock - held >= quantity;
+    }
+
+    @Scheduled(fixedDelayString = "${cart.hold.sweep-interval-ms:1000}")
+    public void sweep() {
+        if (!enabled) {
+            return;
+        }
+        List<Hold> due = new ArrayList<>();
+        expiries.drainTo(due);
+        if (due.isEmpty()) {
+            return;
+        }
+        List<Long> expiredIds = new ArrayList<>(due.size());
+        for (Hold hold : due) {
+            if (deactivate(hold)) {
+                holdsByCart.remove(hold.cartId, hold);
+                expiredIds.add(hold.cartId);
+            }
+        }
+        if (expiredIds.isEmpty()) {
+            return;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            int cleared = 0;
+            for (int from = 0; from < expiredIds.size(); from += CLEAR_CHUNK_SIZE) {
+                List<Long> chunk = expiredIds.subList(from, Math.min(from + CLEAR_CHUNK_SIZE, expiredIds.size()));
+                cleared += cartRepository.clearExpiredHolds(chunk, now);
+            }
+            logger.debug("Expired {} cart holds, cleared {} rows", expiredIds.size(), cleared);
+        } catch (Exception e) {
+            // Counts are already released; stale columns are cleared at the next startup
+            logger.error("Failed to clear {} expired cart holds: {}", expiredIds.size(), e.getMessage());
+        }
+    }
+
+    private void track(Long cartId, Long bookId, int quantity, LocalDateTime expiresAt) {
+        Hold hold = new Hold(cartId, bookId, quantity, expiresAt);
+        heldByBook.compute(bookId, (id, held) -> {
+            AtomicInteger counter = held == null ? new AtomicInteger() : held;
+            counter.addAndGet(quantity);
+            return counter;
+        });
+        Hold previous = holdsByCart.put(cartId, hold);
+        if (previous != null) {
+            deactivate(previous);
+        }
+        expiries.add(hold);
+    }
+
+    // Only the first of release, replacement and expiry gives the quantity back
+    private boolean deactivate(Hold hold) {
+        if (!hold.active.compareAndSet(true, false)) {
+            return false;
+        }
+        heldByBook.computeIfPresent(hold.bookId, (id, held) -> held.addAndGet(-hold.quantity) <= 0 ? null : held);
+        return true;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static final class Hold implements Delayed {
+        private final Long cartId;
+        private final Long bookId;
+        private final int quantity;
+        private final long expiresAtMillis;
+        private final AtomicBoolean active = new AtomicBoolean(true);
+
+        private Hold(Long cartId, Long bookId, int quantity, LocalDateTime expiresAt) {
+            this.cartId = cartId;
+            this.bookId = bookId;
+            this.quantity = quantity;
+            this.expiresAtMillis = expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(expiresAtMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(expiresAtMillis, ((Hold) other).expiresAtMillis);
+        }
+    }
+}
@@ -30,6 +30,12 @@ public class CartService {
     @Autowired
     private BookRepository bookRepository;
 
+    @Autowired
+    private TrendingService trendingService;
+
+    @Autowired
+    private CartHoldService cartHoldService;
+
     // Cart operations
     public void addToCart(Long userId, Long bookId, Integer quantity) {
         logger.info("Attempting to add book ID: {} with quantity: {} to cart for user: {}", bookId, quantity, userId);
@@ -41,7 +47,8 @@ public class CartService {
                 logger.info("Book already in cart, updating quantity from {} to {}", existingItem.getQuantity(),
                         existingItem.getQuantity() + quantity);
                 existingItem.setQuantity(existingItem.getQuantity() + quantity);
-                cartRepository.save(existingItem);
+                cartHoldService.track(cartRepository.save(cartHoldService.withHold(existingItem)));
+                trendingService.recordCartAdd(bookId);
             } else {
                 UserInfo user = userInfoRepository.findById(userId)
                         .orElseThrow(() -> new RuntimeException("User not found"));
@@ -56,7 +63,8 @@ public class CartService {
                         .addedDate(LocalDateTime.now())
                         .build();
 
-                cartRepository.save(cart);
+                cartHoldService.track(cartRepository.save(cartHoldService.withHold(cart)));
+                trendingService.recordCartAdd(bookId);
                 logger.info("Successfully added book ID: {} to cart for user: {}", bookId, userId);
             }
         } catch (Exception e) {
@@ -75,7 +83,7 @@ public class CartService {
                 logger.info("Updating quantity from {} to {} for book ID: {} in user: {}'s cart",
                         cart.getQuantity(), quantity, bookId, userId);
                 cart.setQuantity(quantity);
-                cartRepository.save(cart);
+                cartHoldService.track(cartRepository.save(cartHoldService.withHold(cart)));
                 logger.info("Successfully updated quantity for book ID: {} in cart", bookId);
             } else {
                 logger.warn("Cart item not found for user ID: {} and book ID: {}", userId, bookId);
@@ -94,6 +102,7 @@ public class CartService {
             Cart cart = cartRepository.findByUserIdAndBookId(userId, bookId);
             if (cart != null) {
                 cartRepository.delete(cart);
+                cartHoldService.release(List.of(cart.getId()));
                 logger.info("Successfully removed book ID: {} from cart for user: {}", bookId, userId);
             } else {
                 logger.warn("Cart item not found for user ID: {} and book ID: {}", userId, bookId);
@@ -127,7 +136,9 @@ public class CartService {
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
             // Delete all cart items for this user's ID
+            List<Long> cartIds = cartRepository.findByUserId(userId).stream().map(Cart::getId).toList();
             int deletedCount = cartRepository.deleteByUserId(userId);
+            cartHoldService.release(cartIds);
             logger.info("Successfully removed {} books from cart for user: {}", deletedCount, userId);
         } catch (Exception e) {
             logger.error("Error removing all books from cart: {}", e.getMessage());
@@ -0,0 +1,146 @@
+package com.BRS.BookRecomendation.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.BRS.BookRecomendation.DTO.BookSection;
+import com.BRS.BookRecomendation.DTO.CatalogSnapshot;
+import com.BRS.BookRecomendation.Entities.Book;
+import com.BRS.BookRecomendation.Entities.Genre;
+import com.BRS.BookRecomendation.events.BookChangedEvent;
+import com.BRS.BookRecomendation.events.GenreChangedEvent;
+import com.BRS.BookRecomendation.repository.BookRepository;
+import com.BRS.BookRecomendation.repository.GenreRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+
+@Service
+public class CatalogSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSnapshotService.class);
+
+    private final AtomicReference<CatalogSnapshot> current = new AtomicReference<>();
+    private final AtomicLong versions = new AtomicLong();
+    private final AtomicBoolean stale = new AtomicBoolean();
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Timer rebuildTimer;
+    private Counter hits;
+    private Counter misses;
+
+    @PostConstruct
+    public void registerMetrics() {
+        rebuildTimer = Timer.builder("catalog.snapshot.rebuild")
+                .description("Time taken to rebuild the genre-section catalog snapshot")
+                .register(meterRegistry);
+        hits = Counter.builder("catalog.snapshot.requests").tag("result", "hit").register(meterRegistry);
+        misses = Counter.builder("catalog.snapshot.requests").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("catalog.snapshot.version", current, ref -> ref.get() == null ? 0 : ref.get().getVersion())
+                .register(meterRegistry);
+    }
+
+    public CatalogSnapshot getSnapshot() {
+        CatalogSnapshot snapshot = current.get();
+        if (snapshot != null) {
+            hits.increment();
+            return snapshot;
+        }
+        misses.increment();
+        logger.debug("Catalog snapshot not built yet, building on demand");
+        return rebuild();
+    }
+
+    public synchronized CatalogSnapshot rebuild() {
+        // Clear the flag first so that changes arriving during the build trigger another refresh
+        stale.set(false);
+        CatalogSnapshot snapshot = rebuildTimer.record(this::build);
+        current.set(snapshot);
+        logger.info("Catalog snapshot v{} built with {} sections", snapshot.getVersion(),
+                snapshot.getSections().size());
+        return snapshot;
+    }
+
+    private CatalogSnapshot build() {
+        List<Genre> genres = genreRepository.findAll();
+        Map<String, List<Book>> booksByGenre = bookRepository.findAll().stream()
+                .filter(book -> book.getGenreTag() != null)
+                .sorted(Comparator.comparing(Book::getId))
+                .collect(Collectors.groupingBy(Book::getGenreTag));
+
+        List<BookSection> sections = new ArrayList<>(genres.size());
+        for (Genre genre : genres) {
+            List<Book> books = booksByGenre.getOrDefault(genre.getGenreTag(), List.of());
+            sections.add(new BookSection(genre.getGenreTag(), List.copyOf(books)));
+        }
+        return new CatalogSnapshot(versions.incrementAndGet(), LocalDateTime.now(), List.copyOf(sections));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            logger.error("Initial catalog snapshot build failed, will build on first request: {}", e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.getType() == BookChangedEvent.Type.STOCK) {
+            // Stock moves with every checkout, so fold those into the periodic refresh
+            stale.set(true);
+        } else {
+            rebuildOrMarkStale();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGenreChanged(GenreChangedEvent event) {
+        rebuildOrMarkStale();
+    }
+
+    private void rebuildOrMarkStale() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            logger.error("Catalog snapshot rebuild failed, retrying on next refresh: {}", e.getMessage());
+            stale.set(true);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.snapshot.refresh-interval-ms:5000}")
+    public void refreshIfStale() {
+        if (stale.get()) {
+            logger.debug("Catalog snapshot is stale, refreshing");
+            rebuild();
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.BRS.BookRecomendation.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.temporal.Temporal;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.BRS.BookRecomendation.DTO.ExportFormat;
+import com.BRS.BookRecomendation.Entities.Book;
+import com.BRS.BookRecomendation.Entities.Genre;
+import com.BRS.BookRecomendation.Entities.Order;
+import com.BRS.BookRecomendation.Entities.UserInfo;
+import com.BRS.BookRecomendation.repository.BookRepository;
+import com.BRS.BookRecomendation.repository.GenreRepository;
+import com.BRS.BookRecomendation.repository.OrderRepository;
+import com.BRS.BookRecomendation.repository.UserInfoRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+// Writes whole tables to a response one row at a time. Rows come from a cursor-backed JPA stream and are
+// detached once written, so heap use depends on the fetch size rather than on the table. Columns are listed
+// explicitly: entities are never serialized as a whole, which keeps fields such as passwords out.
+@Service
+public class ExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportService.class);
+
+    private static final List<String> ORDER_COLUMNS = List.of("id", "userId", "username", "status", "totalPrice",
+            "createdAt");
+    private static final List<String> USER_COLUMNS = List.of("id", "username", "fullName", "roles");
+    private static final List<String> BOOK_COLUMNS = List.of("id", "title", "author", "genreTag", "genreId",
+            "price", "rating", "stockQuantity", "imageUrl", "description");
+    private static final List<String> GENRE_COLUMNS = List.of("genreId", "genreTag");
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserInfoRepository userInfoRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Rows between flushing the response and clearing the persistence context
+    @Value("${export.flush-rows:1000}")
+    private int flushRows;
+
+    public long exportOrders(OutputStream out, ExportFormat format) {
+        return export("orders", out, format, ORDER_COLUMNS, orderRepository::streamAllForExport,
+                (Order order) -> new Object[] { order.getId(), order.getUser().getId(), order.getUsername(),
+                        order.getStatus(), order.getTotalPrice(), order.getCreatedAt() });
+    }
+
+    public long exportUsers(OutputStream out, ExportFormat format) {
+        return export("users", out, format, USER_COLUMNS, userInfoRepository::streamAllForExport,
+                (UserInfo user) -> new Object[] { user.getId(), user.getUsername(), user.getFullName(),
+                        user.getRoles() });
+    }
+
+    public long exportBooks(OutputStream out, ExportFormat format) {
+        return export("books", out, format, BOOK_COLUMNS, bookRepository::streamAllForExport,
+                (Book book) -> new Object[] { book.getId(), book.getTitle(), book.getAuthor(), book.getGenreTag(),
+                        book.getGenre() == null ? null : book.getGenre().getGenreId(), book.getPrice(),
+                        book.getRating(), book.getStockQuantity(), book.getImageUrl(), book.getDescription() });
+    }
+
+    public long exportGenres(OutputStream out, ExportFormat format) {
+        return export("genres", out, format, GENRE_COLUMNS, genreRepository::streamAllForExport,
+                (Genre genre) -> new Object[] { genre.getGenreId(), genre.getGenreTag() });
+    }
+
+    private <T> long export(String name, OutputStream out, ExportFormat format, List<String> columns,
+            Supplier<Stream<T>> source, Function<T, Object[]> toRow) {
+        long start = System.nanoTime();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        Long exported = transaction.execute(status -> {
+            long rows = 0;
+            try (Stream<T> stream = source.get()) {
+                RowWriter writer = format == ExportFormat.CSV ? new CsvRowWriter(out, columns)
+                        : new NdjsonRowWriter(objectMapper, out, columns);
+                Iterator<T> entities = stream.iterator();
+                while (entities.hasNext()) {
+                    T entity = entities.next();
+                    writer.write(toRow.apply(entity));
+                    entityManager.detach(entity);
+                    if (++rows % flushRows == 0) {
+                        writer.flush();
+                        // Also lets go of associations fetched with the rows
+                        entityManager.clear();
+                    }
+                }
+                writer.finish();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return rows;
+        });
+        long count = exported == null ? 0 : exported;
+        logger.info("Exported {} {} as {} in {} ms", count, name, format, (System.nanoTime() - start) / 1_000_000);
+        return count;
+    }
+
+    private static Object exportValue(Object value) {
+        if (value instanceof Temporal || value instanceof Enum<?>) {
+            return value.toString();
+        }
+        return value;
+    }
+
+    private interface RowWriter {
+        void write(Object[] values) throws IOException;
+
+        void flush() throws IOException;
+
+        // Flushes what is left; the response stream itself stays open for the container to close
+        void finish() throws IOException;
+    }
+
+    private static final class NdjsonRowWriter implements RowWriter {
+        private final JsonGenerator generator;
+        private final List<String> columns;
+
+        private NdjsonRowWriter(ObjectMapper objectMapper, OutputStream out, List<String> columns)
+                throws IOException {
+            this.generator = objectMapper.createGenerator(out);
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Rows are separated by the newline written after each one, not the default space
+            this.generator.setRootValueSeparator(null);
+            this.columns = columns;
+        }
+
+        @Override
+        public void write(Object[] values) throws IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < values.length; i++) {
+                generator.writeFieldName(columns.get(i));
+                generator.writeObject(exportValue(values[i]));
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            generator.flush();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.close();
+        }
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+
+        private CsvRowWriter(OutputStream out, List<String> columns) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+            write(columns.toArray());
+        }
+
+        @Override
+        public void write(Object[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                Object value = exportValue(values[i]);
+                if (value != null) {
+                    writer.write(escape(value.toString()));
+                }
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+
+        // RFC 4180 quoting
+        private static String escape(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                    && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+}
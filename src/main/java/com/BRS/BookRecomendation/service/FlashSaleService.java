@@ -0,0 +1,248 @@
+package com.BRS.BookRecomendation.service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.BRS.BookRecomendation.DTO.FlashSaleTicket;
+import com.BRS.BookRecomendation.Entities.Book;
+import com.BRS.BookRecomendation.Entities.Order;
+import com.BRS.BookRecomendation.repository.BookRepository;
+import com.BRS.BookRecomendation.repository.BookStockRepository;
+
+import jakarta.annotation.PreDestroy;
+
+// Per-book admission control for hot releases: attempts beyond the remaining stock are turned away in
+// memory, the rest wait in a bounded FIFO queue that a single writer turns into orders one at a time
+@Service
+public class FlashSaleService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlashSaleService.class);
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookStockRepository bookStockRepository;
+
+    @Autowired
+    private InventoryLedger inventoryLedger;
+
+    @Value("${flash-sale.queue-capacity:1000}")
+    private int defaultQueueCapacity;
+
+    @Value("${flash-sale.ticket-retention-ms:900000}")
+    private long ticketRetentionMs;
+
+    private final ConcurrentHashMap<Long, Sale> sales = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Ticket> tickets = new ConcurrentHashMap<>();
+    private final AtomicLong ticketIds = new AtomicLong();
+
+    public boolean isActive(Long bookId) {
+        return sales.containsKey(bookId);
+    }
+
+    public int enable(Long bookId, Integer queueCapacity) {
+        Book book = bookRepository.findById(bookId)
+                .orElseThrow(() -> new RuntimeException("Book not found: " + bookId));
+        Integer ledgerAvailable = inventoryLedger.isEnabled() ? inventoryLedger.getAvailable(bookId) : null;
+        int stock = ledgerAvailable != null ? ledgerAvailable : book.getStockQuantity();
+        int capacity = queueCapacity != null && queueCapacity > 0 ? queueCapacity : defaultQueueCapacity;
+
+        Sale sale = new Sale(bookId, stock, capacity);
+        if (sales.putIfAbsent(bookId, sale) != null) {
+            throw new RuntimeException("Flash sale already active for book: " + bookId);
+        }
+        sale.writer.start();
+        logger.info("Flash sale enabled for book ID: {} with {} units and queue capacity {}", bookId, stock,
+                capacity);
+        return stock;
+    }
+
+    // Stops admitting; tickets already queued are still processed
+    public boolean disable(Long bookId) {
+        Sale sale = sales.remove(bookId);
+        if (sale == null) {
+            return false;
+        }
+        sale.closed = true;
+        logger.info("Flash sale disabled for book ID: {} with {} tickets still queued", bookId, sale.queue.size());
+        return true;
+    }
+
+    public FlashSaleTicket checkout(Long userId, Long bookId, int quantity) {
+        Sale sale = sales.get(bookId);
+        if (sale == null) {
+            throw new RuntimeException("No flash sale active for book: " + bookId);
+        }
+        if (quantity <= 0) {
+            throw new RuntimeException("Quantity must be positive");
+        }
+
+        // Rejected attempts get an id for the response but are never stored, so a sold-out rush leaves nothing behind
+        long ticketId = ticketIds.incrementAndGet();
+        if (sale.remaining.addAndGet(-quantity) < 0) {
+            sale.remaining.addAndGet(quantity);
+            logger.debug("Flash sale ticket {} rejected for book ID: {}, sold out", ticketId, bookId);
+            return rejected(ticketId, userId, bookId, quantity, "Sold out");
+        }
+        Ticket ticket = new Ticket(ticketId, userId, bookId, quantity, sale);
+        // Sequence numbers are taken under the queue's own ordering so positions match processing order
+        synchronized (sale) {
+            ticket.sequence = sale.enqueued.incrementAndGet();
+            if (sale.closed || !sale.queue.offer(ticket)) {
+                sale.enqueued.decrementAndGet();
+                sale.remaining.addAndGet(quantity);
+                return rejected(ticketId, userId, bookId, quantity,
+                        sale.closed ? "Flash sale has ended" : "Queue is full, try again shortly");
+            }
+            tickets.put(ticket.id, ticket);
+        }
+        logger.debug("Flash sale ticket {} queued for book ID: {} as number {}", ticket.id, bookId,
+                ticket.sequence);
+        return view(ticket);
+    }
+
+    public FlashSaleTicket getTicket(Long ticketId) {
+        Ticket ticket = tickets.get(ticketId);
+        if (ticket == null) {
+            return null;
+        }
+        return view(ticket);
+    }
+
+    @Scheduled(fixedDelayString = "${flash-sale.ticket-retention-ms:900000}")
+    public void expireTickets() {
+        long cutoff = System.currentTimeMillis() - ticketRetentionMs;
+        int before = tickets.size();
+        tickets.values().removeIf(ticket -> ticket.finishedAt > 0 && ticket.finishedAt < cutoff);
+        if (tickets.size() < before) {
+            logger.debug("Expired {} finished flash sale tickets", before - tickets.size());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Sale sale : sales.values()) {
+            sale.closed = true;
+            sale.writer.interrupt();
+        }
+    }
+
+    private void process(Sale sale) {
+        while (!(sale.closed && sale.queue.isEmpty())) {
+            Ticket ticket;
+            try {
+                ticket = sale.queue.poll(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (ticket == null) {
+                continue;
+            }
+            try {
+                Order order = orderService.placeDirectOrder(ticket.userId, ticket.bookId, ticket.quantity);
+                ticket.finish(FlashSaleTicket.State.CONFIRMED, order.getId(), null);
+            } catch (RuntimeException e) {
+                // Stock sold or written down elsewhere shows up here; everything else hands the units back
+                if (e.getMessage() != null && e.getMessage().startsWith("Insufficient stock")) {
+                    resync(sale);
+                } else {
+                    sale.remaining.addAndGet(ticket.quantity);
+                }
+                ticket.finish(FlashSaleTicket.State.FAILED, null, e.getMessage());
+                logger.warn("Flash sale ticket {} for book ID: {} failed: {}", ticket.id, sale.bookId,
+                        e.getMessage());
+            } finally {
+                sale.processed.set(ticket.sequence);
+            }
+        }
+        logger.info("Flash sale writer for book ID: {} stopped", sale.bookId);
+    }
+
+    // This ticket's units stay taken. Remaining only ever moves down to what the stock still covers after the
+    // queued tickets, so a checkout admitted meanwhile is never counted twice.
+    private void resync(Sale sale) {
+        Integer stock = inventoryLedger.isEnabled() ? inventoryLedger.getAvailable(sale.bookId)
+                : bookStockRepository.findStock(sale.bookId);
+        int queued = sale.queue.stream().mapToInt(ticket -> ticket.quantity).sum();
+        int covered = Math.max(0, (stock == null ? 0 : stock) - queued);
+        int remaining = sale.remaining.accumulateAndGet(covered, Math::min);
+        logger.info("Flash sale for book ID: {} resynced to {} remaining units ({} in stock, {} queued)",
+                sale.bookId, remaining, stock, queued);
+    }
+
+    private static FlashSaleTicket rejected(long ticketId, Long userId, Long bookId, int quantity, String reason) {
+        return new FlashSaleTicket(ticketId, userId, bookId, quantity, FlashSaleTicket.State.REJECTED, 0, null,
+                reason);
+    }
+
+    private static FlashSaleTicket view(Ticket ticket) {
+        long position = 0;
+        if (ticket.state == FlashSaleTicket.State.QUEUED) {
+            position = Math.max(0, ticket.sequence - ticket.sale.processed.get() - 1);
+        }
+        return new FlashSaleTicket(ticket.id, ticket.userId, ticket.bookId, ticket.quantity, ticket.state, position,
+                ticket.orderId, ticket.message);
+    }
+
+    private final class Sale {
+        private final Long bookId;
+        private final AtomicInteger remaining;
+        private final BlockingQueue<Ticket> queue;
+        private final AtomicLong enqueued = new AtomicLong();
+        private final AtomicLong processed = new AtomicLong();
+        private final Thread writer;
+        private volatile boolean closed;
+
+        private Sale(Long bookId, int stock, int capacity) {
+            this.bookId = bookId;
+            this.remaining = new AtomicInteger(stock);
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.writer = new Thread(() -> process(this), "flash-sale-" + bookId);
+            this.writer.setDaemon(true);
+        }
+    }
+
+    private static final class Ticket {
+        private final long id;
+        private final Long userId;
+        private final Long bookId;
+        private final int quantity;
+        private final Sale sale;
+        private volatile long sequence;
+        private volatile FlashSaleTicket.State state = FlashSaleTicket.State.QUEUED;
+        private volatile Long orderId;
+        private volatile String message;
+        private volatile long finishedAt;
+
+        private Ticket(long id, Long userId, Long bookId, int quantity, Sale sale) {
+            this.id = id;
+            this.userId = userId;
+            this.bookId = bookId;
+            this.quantity = quantity;
+            this.sale = sale;
+        }
+
+        private void finish(FlashSaleTicket.State finalState, Long order, String reason) {
+            orderId = order;
+            message = reason;
+            state = finalState;
+            finishedAt = System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.BRS.BookRecomendation.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.BRS.BookRecomendation.DTO.FulfilmentBatch;
+import com.BRS.BookRecomendation.DTO.FulfilmentLease;
+import com.BRS.BookRecomendation.DTO.OrderDTO;
+import com.BRS.BookRecomendation.DTO.Status;
+import com.BRS.BookRecomendation.repository.OrderBulkRepository;
+import com.BRS.BookRecomendation.repository.OrderRepository;
+
+// Work queue over CONFIRMED orders for packing. A claim locks a batch with SKIP LOCKED, so concurrent workers
+// on any node get disjoint orders without waiting on each other, and moves it to PROCESSING under a lease.
+// Workers heartbeat to keep their orders; when a lease runs out the orders go to the next claimer.
+@Service
+public class FulfilmentQueueService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FulfilmentQueueService.class);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderBulkRepository orderBulkRepository;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private OrderAnalyticsService orderAnalyticsService;
+
+    @Value("${fulfilment.lease-seconds:300}")
+    private long leaseSeconds;
+
+    @Value("${fulfilment.max-claim:100}")
+    private int maxClaim;
+
+    @Transactional
+    public FulfilmentBatch claim(String workerId, int limit) {
+        requireWorker(workerId);
+        int batchSize = Math.max(1, Math.min(limit, maxClaim));
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime leaseExpiresAt = now.plusSeconds(leaseSeconds);
+
+        // Abandoned orders first, as they have waited longest
+        List<Long> reclaimed = orderRepository.lockExpiredLeases(now, batchSize);
+        List<Long> fresh = reclaimed.size() < batchSize
+                ? orderRepository.lockClaimable(batchSize - reclaimed.size())
+                : List.of();
+        List<Long> claimed = new ArrayList<>(reclaimed);
+        claimed.addAll(fresh);
+        if (claimed.isEmpty()) {
+            logger.debug("Fulfilment worker {} found no orders to claim", workerId);
+            return new FulfilmentBatch(workerId, leaseExpiresAt, List.of());
+        }
+
+        orderRepository.updateClaim(claimed, Status.PROCESSING, workerId, leaseExpiresAt);
+        if (!fresh.isEmpty()) {
+            recordStatusChange(fresh, Status.PROCESSING);
+        }
+        List<OrderDTO> orders = orderService.getOrderViews(claimed);
+        logger.info("Fulfilment worker {} claimed {} orders ({} from expired leases) until {}", workerId,
+                claimed.size(), reclaimed.size(), leaseExpiresAt);
+        return new FulfilmentBatch(workerId, leaseExpiresAt, orders);
+    }
+
+    // Extends the lease on the orders the worker still holds
+    @Transactional
+    public FulfilmentLease heartbeat(String workerId, List<Long> orderIds) {
+        requireWorker(workerId);
+        List<Long> requested = distinct(orderIds);
+        List<Long> held = requested.isEmpty() ? List.of() : orderRepository.lockHeldBy(requested, workerId);
+        LocalDateTime leaseExpiresAt = LocalDateTime.now().plusSeconds(leaseSeconds);
+        if (!held.isEmpty()) {
+            orderRepository.updateClaim(held, Status.PROCESSING, workerId, leaseExpiresAt);
+        }
+        List<Long> lost = lost(requested, held);
+        if (!lost.isEmpty()) {
+            logger.warn("Fulfilment worker {} no longer holds orders {}", workerId, lost);
+        }
+        logger.debug("Fulfilment worker {} extended {} orders until {}", workerId, held.size(), leaseExpiresAt);
+        return new FulfilmentLease(workerId, leaseExpiresAt, held, lost);
+    }
+
+    // Hands the orders back to the queue as CONFIRMED; finished orders move on through the status endpoints
+    @Transactional
+    public FulfilmentLease release(String workerId, List<Long> orderIds) {
+        requireWorker(workerId);
+        List<Long> requested = distinct(orderIds);
+        List<Long> held = requested.isEmpty() ? List.of() : orderRepository.lockHeldBy(requested, workerId);
+        if (!held.isEmpty()) {
+            orderRepository.updateClaim(held, Status.CONFIRMED, null, null);
+            orderAnalyticsService.recordStatusChange(held, Status.CONFIRMED);
+        }
+        logger.info("Fulfilment worker {} released {} orders", workerId, held.size());
+        return new FulfilmentLease(workerId, null, held, lost(requested, held));
+    }
+
+    // Customers hear about packing starting; reclaims and releases are internal and stay quiet
+    private void recordStatusChange(List<Long> orderIds, Status status) {
+        Map<Long, Map<String, Object>> payloads = new TreeMap<>();
+        for (Object[] row : orderBulkRepository.lockOrders(orderIds)) {
+            Map<String, Object> payload = new HashMap<>();
+            payload.put("orderId", row[0]);
+            payload.put("userId", row[2]);
+            payload.put("username", row[3]);
+            payload.put("status", status.name());
+            payloads.put((Long) row[0], payload);
+        }
+        outboxService.appendAll(OutboxService.ORDER_STATUS_CHANGED, payloads);
+        orderAnalyticsService.recordStatusChange(orderIds, status);
+    }
+
+    private static void requireWorker(String workerId) {
+        if (workerId == null || workerId.isBlank() || workerId.length() > 64) {
+            throw new RuntimeException("A worker id of at most 64 characters is required");
+        }
+    }
+
+    private static List<Long> distinct(List<Long> orderIds) {
+        return orderIds == null ? List.of() : new ArrayList<>(new LinkedHashSet<>(orderIds));
+    }
+
+    private static List<Long> lost(List<Long> requested, List<Long> held) {
+        List<Long> lost = new ArrayList<>(requested);
+        lost.removeAll(new LinkedHashSet<>(held));
+        return lost;
+    }
+}
@@ -6,10 +6,12 @@ import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.BRS.BookRecomendation.Entities.Genre;
+import com.BRS.BookRecomendation.events.GenreChangedEvent;
 import com.BRS.BookRecomendation.repository.GenreRepository;
 
 @Service
@@ -20,6 +22,9 @@ public class GenreService {
     @Autowired
     private GenreRepository genreRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public List<Genre> getAllGenres() {
         logger.debug("Retrieving all genres");
         List<Genre> genres = genreRepository.findAll();
@@ -48,6 +53,7 @@ public class GenreService {
 
         Genre savedGenre = genreRepository.save(genre);
         logger.info("Genre saved successfully with ID: {}", savedGenre.getGenreId());
+        eventPublisher.publishEvent(new GenreChangedEvent(savedGenre.getGenreId(), false));
         return savedGenre;
     }
 
@@ -65,6 +71,7 @@ public class GenreService {
 
         genreRepository.deleteById(genreId);
         logger.info("Genre with ID: {} successfully deleted", genreId);
+        eventPublisher.publishEvent(new GenreChangedEvent(genreId, true));
     }
 
     public boolean existsByGenreTag(String genreTag) {
@@ -0,0 +1,140 @@
+package com.BRS.BookRecomendation.service;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.BRS.BookRecomendation.Entities.IdempotencyKey;
+import com.BRS.BookRecomendation.Entities.Order;
+import com.BRS.BookRecomendation.exception.DuplicateRequestException;
+import com.BRS.BookRecomendation.repository.IdempotencyKeyRepository;
+import com.BRS.BookRecomendation.repository.OrderRepository;
+
+// Deduplicates retried order placements. Recent keys, including ones still in flight, are answered from
+// memory; older ones and keys first seen by another instance fall back to the idempotency_keys table.
+@Service
+public class IdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    public static final int MAX_KEY_LENGTH = 128;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Value("${idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${idempotency.memory-ttl-minutes:10}")
+    private long memoryTtlMinutes;
+
+    @Value("${idempotency.cleanup-batch-size:1000}")
+    private int cleanupBatchSize;
+
+    private final ConcurrentHashMap<String, Entry> recent = new ConcurrentHashMap<>();
+
+    // Runs the placement at most once per user and key; the placement must call record() in its transaction
+    public Order execute(Long userId, String key, Supplier<Order> placement) {
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new RuntimeException("Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+        String cacheKey = userId + ":" + key;
+        Entry mine = new Entry();
+        Entry existing = recent.putIfAbsent(cacheKey, mine);
+        if (existing != null) {
+            Long orderId = existing.orderId;
+            if (orderId == null) {
+                logger.warn("Duplicate request for user: {} while key is still in flight", userId);
+                throw new DuplicateRequestException("A request with this Idempotency-Key is already in progress");
+            }
+            logger.info("Replaying order ID: {} for user: {} from memory", orderId, userId);
+            return loadOrder(orderId);
+        }
+
+        try {
+            Optional<IdempotencyKey> stored = idempotencyKeyRepository.findByUserIdAndIdempotencyKey(userId, key);
+            if (stored.isPresent()) {
+                mine.complete(stored.get().getOrderId());
+                logger.info("Replaying order ID: {} for user: {} from the key store", mine.orderId, userId);
+                return loadOrder(mine.orderId);
+            }
+            Order order = placement.get();
+            mine.complete(order.getId());
+            return order;
+        } catch (DataIntegrityViolationException e) {
+            // Another instance committed the same key first and this placement was rolled back
+            Optional<IdempotencyKey> stored = idempotencyKeyRepository.findByUserIdAndIdempotencyKey(userId, key);
+            if (stored.isEmpty()) {
+                recent.remove(cacheKey, mine);
+                throw e;
+            }
+            mine.complete(stored.get().getOrderId());
+            logger.info("Key for user: {} was taken concurrently, replaying order ID: {}", userId, mine.orderId);
+            return loadOrder(mine.orderId);
+        } catch (RuntimeException e) {
+            // Failed attempts are not remembered so the client can retry with the same key
+            recent.remove(cacheKey, mine);
+            throw e;
+        }
+    }
+
+    // Flushed immediately so a concurrent duplicate fails this transaction before it commits
+    public void record(Long userId, String key, Long orderId) {
+        idempotencyKeyRepository.saveAndFlush(IdempotencyKey.builder()
+                .userId(userId)
+                .idempotencyKey(key)
+                .orderId(orderId)
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.cleanup-interval-ms:600000}")
+    public void expireKeys() {
+        long memoryCutoff = System.currentTimeMillis() - memoryTtlMinutes * 60_000;
+        int before = recent.size();
+        recent.values().removeIf(entry -> entry.completedAt > 0 && entry.completedAt < memoryCutoff);
+
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(ttlHours);
+        int deleted = 0;
+        try {
+            int batch;
+            do {
+                batch = idempotencyKeyRepository.deleteOlderThan(cutoff, cleanupBatchSize);
+                deleted += batch;
+            } while (batch == cleanupBatchSize);
+        } catch (Exception e) {
+            logger.error("Idempotency key cleanup stopped after {} rows: {}", deleted, e.getMessage());
+        }
+        if (deleted > 0 || recent.size() < before) {
+            logger.info("Expired {} idempotency keys from memory and {} from the key store",
+                    before - recent.size(), deleted);
+        }
+    }
+
+    private Order loadOrder(Long orderId) {
+        return orderRepository.findById(orderId)
+                .orElseThrow(() -> new RuntimeException("Order not found: " + orderId));
+    }
+
+    private static final class Entry {
+        private volatile Long orderId;
+        private volatile long completedAt;
+
+        private void complete(Long order) {
+            orderId = order;
+            completedAt = System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package com.BRS.BookRecomendation.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.BRS.BookRecomendation.DTO.InventoryDrift;
+import com.BRS.BookRecomendation.Entities.Book;
+import com.BRS.BookRecomendation.events.BookChangedEvent;
+import com.BRS.BookRecomendation.repository.BookRepository;
+import com.BRS.BookRecomendation.repository.BookStockRepository;
+
+// Keeps available stock in memory so checkouts of hot books do not queue on their books row.
+// Every change is appended to inventory_deltas in the caller's transaction and folded into
+// books.stock_quantity later in batches; available = stock_quantity + unapplied deltas at all times.
+@Service
+public class InventoryLedger {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryLedger.class);
+
+    @Autowired
+    private BookStockRepository bookStockRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${inventory.ledger.enabled:false}")
+    private boolean enabled;
+
+    @Value("${inventory.ledger.flush-batch-size:5000}")
+    private int flushBatchSize;
+
+    // The map is internally striped across bins and each counter only moves by CAS
+    private final ConcurrentHashMap<Long, AtomicInteger> available = new ConcurrentHashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.setReadOnly(true);
+            transaction.executeWithoutResult(status -> {
+                Map<Long, Integer> stock = bookStockRepository.findAllStock();
+                Map<Long, Integer> pending = bookStockRepository.sumPendingDeltas();
+                for (Map.Entry<Long, Integer> entry : stock.entrySet()) {
+                    int count = entry.getValue() + pending.getOrDefault(entry.getKey(), 0);
+                    // Books registered lazily by an early checkout are already current
+                    available.putIfAbsent(entry.getKey(), new AtomicInteger(count));
+                }
+                logger.info("Inventory ledger recovered {} books ({} with unapplied deltas) in {} ms",
+                        stock.size(), pending.size(), (System.nanoTime() - start) / 1_000_000);
+            });
+        } catch (Exception e) {
+            logger.error("Inventory ledger recovery failed, books will be loaded on first use: {}", e.getMessage());
+        }
+    }
+
+    // Takes the whole quantity map or nothing. Returns the id of the first book that is short, or null once
+    // everything is reserved. The delta rows commit with the caller's transaction; a rollback gives the stock back.
+    public Long reserve(SortedMap<Long, Integer> quantities) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Inventory reservations need an active transaction");
+        }
+        Map<Long, Integer> taken = new HashMap<>();
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            AtomicInteger counter = counter(entry.getKey());
+            if (counter == null || !tryTake(counter, entry.getValue())) {
+                giveBack(taken);
+                logger.debug("Ledger reservation failed on book ID: {} (requested: {})", entry.getKey(),
+                        entry.getValue());
+                return entry.getKey();
+            }
+            taken.put(entry.getKey(), entry.getValue());
+        }
+        onRollback(() -> giveBack(taken));
+
+        Map<Long, Integer> deltas = new TreeMap<>();
+        taken.forEach((bookId, quantity) -> deltas.put(bookId, -quantity));
+        bookStockRepository.appendDeltas(deltas);
+        return null;
+    }
+
+    // Stock comes back only once the releasing transaction has committed
+    public void release(Map<Long, Integer> quantities) {
+        bookStockRepository.appendDeltas(quantities);
+        afterCommit(() -> quantities.forEach((bookId, quantity) -> {
+            AtomicInteger counter = available.get(bookId);
+            if (counter != null) {
+                counter.addAndGet(quantity);
+            }
+        }));
+    }
+
+    // Manual stock correction; refuses to take availability below zero
+    public boolean adjust(Long bookId, int quantity) {
+        AtomicInteger counter = counter(bookId);
+        if (counter == null) {
+            return false;
+        }
+        if (quantity >= 0) {
+            bookStockRepository.appendDeltas(Map.of(bookId, quantity));
+            afterCommit(() -> counter.addAndGet(quantity));
+            return true;
+        }
+        if (!tryTake(counter, -quantity)) {
+            return false;
+        }
+        boolean inTransaction = TransactionSynchronizationManager.isSynchronizationActive();
+        if (inTransaction) {
+            onRollback(() -> counter.addAndGet(-quantity));
+        }
+        try {
+            bookStockRepository.appendDeltas(Map.of(bookId, quantity));
+        } catch (RuntimeException e) {
+            if (!inTransaction) {
+                counter.addAndGet(-quantity);
+            }
+            throw e;
+        }
+        return true;
+    }
+
+    public Integer getAvailable(Long bookId) {
+        AtomicInteger counter = counter(bookId);
+        return counter == null ? null : counter.get();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.getType() == BookChangedEvent.Type.DELETED) {
+            available.remove(event.getBookId());
+        }
+    }
+
+    // Write-behind: folds the oldest deltas into books and deletes them in one transaction, so a crash
+    // either applies a batch completely or leaves it to be replayed
+    @Scheduled(fixedDelayString = "${inventory.ledger.flush-interval-ms:500}")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            Integer applied = transaction.execute(status -> {
+                List<long[]> deltas = bookStockRepository.findPendingDeltas(flushBatchSize);
+                if (deltas.isEmpty()) {
+                    return 0;
+                }
+                SortedMap<Long, Integer> perBook = new TreeMap<>();
+                List<Long> ids = new ArrayList<>(deltas.size());
+                for (long[] delta : deltas) {
+                    ids.add(delta[0]);
+                    perBook.merge(delta[1], (int) delta[2], Integer::sum);
+                }
+                bookStockRepository.applyDeltas(perBook);
+                bookStockRepository.deleteDeltas(ids);
+                for (Book book : bookRepository.findAllById(perBook.keySet())) {
+                    eventPublisher.publishEvent(new BookChangedEvent(BookChangedEvent.Type.STOCK, book.getId(), book));
+                }
+                logger.debug("Inventory ledger flushed {} deltas into {} books", deltas.size(), perBook.size());
+                return deltas.size();
+            });
+            if (applied != null && applied == flushBatchSize) {
+                logger.info("Inventory ledger flush hit the batch limit of {}, backlog remains", flushBatchSize);
+            }
+        } catch (Exception e) {
+            logger.error("Inventory ledger flush failed, deltas stay queued: {}", e.getMessage());
+        }
+    }
+
+    public List<InventoryDrift> reconcile() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        return transaction.execute(status -> {
+            Map<Long, Integer> stock = bookStockRepository.findAllStock();
+            Map<Long, Integer> pending = bookStockRepository.sumPendingDeltas();
+            List<InventoryDrift> drifts = new ArrayList<>();
+            for (Map.Entry<Long, AtomicInteger> entry : available.entrySet()) {
+                Long bookId = entry.getKey();
+                int ledger = entry.getValue().get();
+                int databaseStock = stock.getOrDefault(bookId, 0);
+                int pendingDelta = pending.getOrDefault(bookId, 0);
+                if (ledger != databaseStock + pendingDelta) {
+                    drifts.add(new InventoryDrift(bookId, ledger, databaseStock, pendingDelta));
+                }
+            }
+            logger.info("Inventory reconciliation checked {} books, {} drifted", available.size(), drifts.size());
+            return drifts;
+        });
+    }
+
+    private AtomicInteger counter(Long bookId) {
+        AtomicInteger counter = available.get(bookId);
+        if (counter != null) {
+            return counter;
+        }
+        Integer stock = bookStockRepository.findStock(bookId);
+        if (stock == null) {
+            return null;
+        }
+        int count = stock + bookStockRepository.sumPendingDeltas(bookId);
+        return available.computeIfAbsent(bookId, id -> new AtomicInteger(count));
+    }
+
+    private static boolean tryTake(AtomicInteger counter, int quantity) {
+        while (true) {
+            int current = counter.get();
+            if (current < quantity) {
+                return false;
+            }
+            if (counter.compareAndSet(current, current - quantity)) {
+                return true;
+            }
+        }
+    }
+
+    private void giveBack(Map<Long, Integer> taken) {
+        taken.forEach((bookId, quantity) -> {
+            AtomicInteger counter = available.get(bookId);
+            if (counter != null) {
+                counter.addAndGet(quantity);
+            }
+        });
+    }
+
+    private static void onRollback(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    action.run();
+                }
+            }
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,263 @@
+package com.BRS.BookRecomendation.service;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import com.BRS.BookRecomendation.util.LongIntHashMap;
+import com.BRS.BookRecomendation.util.TopK;
+
+// Item-based kNN over implicit feedback: cosine item-item similarity, then per-user top-N scoring
+final class ItemKnnTrainer {
+
+    private final LongIntHashMap userIndexes = new LongIntHashMap(1024, -1);
+    private final LongIntHashMap itemIndexes = new LongIntHashMap(1024, -1);
+    private long[] userIds = new long[1024];
+    private long[] itemIds = new long[1024];
+    private int users;
+    private int items;
+
+    private int[] interactionUsers = new int[4096];
+    private int[] interactionItems = new int[4096];
+    private float[] interactionWeights = new float[4096];
+    private int interactions;
+
+    void add(long userId, long bookId, float weight) {
+        if (interactions == interactionUsers.length) {
+            int capacity = interactions * 2;
+            interactionUsers = Arrays.copyOf(interactionUsers, capacity);
+            interactionItems = Arrays.copyOf(interactionItems, capacity);
+            interactionWeights = Arrays.copyOf(interactionWeights, capacity);
+        }
+        interactionUsers[interactions] = userIndex(userId);
+        interactionItems[interactions] = itemIndex(bookId);
+        interactionWeights[interactions] = weight;
+        interactions++;
+    }
+
+    int interactionCount() {
+        return interactions;
+    }
+
+    Model train(ForkJoinPool pool, int neighbours, int recommendations, float maxWeight)
+            throws InterruptedException, ExecutionException {
+        // CSR layout of user -> (item, weight), with duplicate pairs summed and capped
+        int[] userStart = new int[users + 1];
+        for (int i = 0; i < interactions; i++) {
+            userStart[interactionUsers[i] + 1]++;
+        }
+        for (int u = 0; u < users; u++) {
+            userStart[u + 1] += userStart[u];
+        }
+        int[] cursor = Arrays.copyOf(userStart, users);
+        int[] userItems = new int[interactions];
+        float[] userWeights = new float[interactions];
+        for (int i = 0; i < interactions; i++) {
+            int position = cursor[interactionUsers[i]]++;
+            userItems[position] = interactionItems[i];
+            userWeights[position] = interactionWeights[i];
+        }
+        int[] userLength = new int[users];
+        for (int u = 0; u < users; u++) {
+            userLength[u] = mergeDuplicates(userItems, userWeights, userStart[u], userStart[u + 1], maxWeight);
+        }
+
+        // Transposed item -> (user, weight) and item norms
+        int[] itemStart = new int[items + 1];
+        for (int u = 0; u < users; u++) {
+            for (int p = userStart[u]; p < userStart[u] + userLength[u]; p++) {
+                itemStart[userItems[p] + 1]++;
+            }
+        }
+        for (int i = 0; i < items; i++) {
+            itemStart[i + 1] += itemStart[i];
+        }
+        int[] itemCursor = Arrays.copyOf(itemStart, items);
+        int[] itemUsers = new int[itemStart[items]];
+        float[] itemWeights = new float[itemStart[items]];
+        double[] norms = new double[items];
+        double[] popularity = new double[items];
+        for (int u = 0; u < users; u++) {
+            for (int p = userStart[u]; p < userStart[u] + userLength[u]; p++) {
+                int item = userItems[p];
+                int position = itemCursor[item]++;
+                itemUsers[position] = u;
+                itemWeights[position] = userWeights[p];
+                norms[item] += (double) userWeights[p] * userWeights[p];
+                popularity[item] += userWeights[p];
+            }
+        }
+        for (int i = 0; i < items; i++) {
+            norms[i] = Math.sqrt(norms[i]);
+        }
+
+        int[][] neighbourItems = new int[items][];
+        float[][] neighbourScores = new float[items][];
+        ThreadLocal<double[]> dots = ThreadLocal.withInitial(() -> new double[items]);
+        ThreadLocal<int[]> touchedItems = ThreadLocal.withInitial(() -> new int[items]);
+        pool.submit(() -> IntStream.range(0, items).parallel().forEach(item -> {
+            double[] dot = dots.get();
+            int[] touched = touchedItems.get();
+            int touchedCount = 0;
+            for (int p = itemStart[item]; p < itemStart[item + 1]; p++) {
+                int user = itemUsers[p];
+                float weight = itemWeights[p];
+                for (int q = userStart[user]; q < userStart[user] + userLength[user]; q++) {
+                    int other = userItems[q];
+                    if (other == item) {
+                        continue;
+                    }
+                    if (dot[other] == 0) {
+                        touched[touchedCount++] = other;
+                    }
+                    dot[other] += weight * userWeights[q];
+                }
+            }
+            TopK top = new TopK(neighbours);
+            for (int t = 0; t < touchedCount; t++) {
+                int other = touched[t];
+                top.offer(other, dot[other] / (norms[item] * norms[other]));
+            }
+            int[] best = top.drainDescending();
+            float[] scores = new float[best.length];
+            for (int b = 0; b < best.length; b++) {
+                scores[b] = (float) (dot[best[b]] / (norms[item] * norms[best[b]]));
+            }
+            for (int t = 0; t < touchedCount; t++) {
+                dot[touched[t]] = 0;
+            }
+            neighbourItems[item] = best;
+            neighbourScores[item] = scores;
+        })).get();
+
+        long[][] userRecommendations = new long[users][];
+        ThreadLocal<double[]> userScores = ThreadLocal.withInitial(() -> new double[items]);
+        pool.submit(() -> IntStream.range(0, users).parallel().forEach(user -> {
+            double[] score = userScores.get();
+            int[] touched = touchedItems.get();
+            int touchedCount = 0;
+            int from = userStart[user];
+            int to = from + userLength[user];
+            for (int p = from; p < to; p++) {
+                int[] similar = neighbourItems[userItems[p]];
+                float[] similarity = neighbourScores[userItems[p]];
+                for (int n = 0; n < similar.length; n++) {
+                    if (score[similar[n]] == 0) {
+                        touched[touchedCount++] = similar[n];
+                    }
+                    score[similar[n]] += userWeights[p] * similarity[n];
+                }
+            }
+            // Items the user already interacted with are not recommended back
+            for (int p = from; p < to; p++) {
+                score[userItems[p]] = 0;
+            }
+            TopK top = new TopK(recommendations);
+            for (int t = 0; t < touchedCount; t++) {
+                if (score[touched[t]] > 0) {
+                    top.offer(touched[t], score[touched[t]]);
+                }
+                score[touched[t]] = 0;
+            }
+            int[] best = top.drainDescending();
+            long[] bookIds = new long[best.length];
+            for (int b = 0; b < best.length; b++) {
+                bookIds[b] = itemIds[best[b]];
+            }
+            userRecommendations[user] = bookIds;
+        })).get();
+
+        TopK popular = new TopK(recommendations);
+        for (int i = 0; i < items; i++) {
+            popular.offer(i, popularity[i]);
+        }
+        int[] popularItems = popular.drainDescending();
+        long[] popularBookIds = new long[popularItems.length];
+        for (int p = 0; p < popularItems.length; p++) {
+            popularBookIds[p] = itemIds[popularItems[p]];
+        }
+        return new Model(userIndexes, userRecommendations, popularBookIds);
+    }
+
+    // Sorts one CSR row by item, sums duplicate items and caps weights; returns the new row length
+    private static int mergeDuplicates(int[] rowItems, float[] rowWeights, int from, int to, float maxWeight) {
+        if (from == to) {
+            return 0;
+        }
+        long[] packed = new long[to - from];
+        for (int p = from; p < to; p++) {
+            packed[p - from] = ((long) rowItems[p] << 32) | (Float.floatToIntBits(rowWeights[p]) & 0xFFFFFFFFL);
+        }
+        Arrays.sort(packed);
+        int length = 0;
+        for (long entry : packed) {
+            int item = (int) (entry >>> 32);
+            float weight = Float.intBitsToFloat((int) entry);
+            if (length > 0 && rowItems[from + length - 1] == item) {
+                rowWeights[from + length - 1] = Math.min(maxWeight, rowWeights[from + length - 1] + weight);
+            } else {
+                rowItems[from + length] = item;
+                rowWeights[from + length] = Math.min(maxWeight, weight);
+                length++;
+            }
+        }
+        return length;
+    }
+
+    private int userIndex(long userId) {
+        int index = userIndexes.get(userId);
+        if (index < 0) {
+            if (users == userIds.length) {
+                userIds = Arrays.copyOf(userIds, users * 2);
+            }
+            index = users++;
+            userIds[index] = userId;
+            userIndexes.put(userId, index);
+        }
+        return index;
+    }
+
+    private int itemIndex(long bookId) {
+        int index = itemIndexes.get(bookId);
+        if (index < 0) {
+            if (items == itemIds.length) {
+                itemIds = Arrays.copyOf(itemIds, items * 2);
+            }
+            index = items++;
+            itemIds[index] = bookId;
+            itemIndexes.put(bookId, index);
+        }
+        return index;
+    }
+
+    // Immutable once built; readers never see it change
+    static final class Model {
+        private final LongIntHashMap userIndexes;
+        private final long[][] recommendations;
+        private final long[] popular;
+
+        private Model(LongIntHashMap userIndexes, long[][] recommendations, long[] popular) {
+            this.userIndexes = userIndexes;
+            this.recommendations = recommendations;
+            this.popular = popular;
+        }
+
+        static Model empty() {
+            return new Model(new LongIntHashMap(4, -1), new long[0][], new long[0]);
+        }
+
+        // Falls back to the most popular books for users without history
+        long[] recommendationsFor(long userId) {
+            int index = userIndexes.get(userId);
+            if (index < 0 || recommendations[index].length == 0) {
+                return popular;
+            }
+            return recommendations[index];
+        }
+
+        int userCount() {
+            return recommendations.length;
+        }
+    }
+}
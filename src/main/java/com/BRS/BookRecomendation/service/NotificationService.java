@@ -1,108 +1,71 @@
 package com.BRS.BookRecomendation.service;
 
+import java.util.Map;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
-import com.BRS.BookRecomendation.Entities.Order;
-import com.BRS.BookRecomendation.Entities.UserInfo;
+import com.BRS.BookRecomendation.events.OutboxMessage;
+import com.BRS.BookRecomendation.exception.OutboxBackpressureException;
+import com.BRS.BookRecomendation.notifications.Notification;
+import com.BRS.BookRecomendation.notifications.NotificationDispatcher;
 
+// Renders notifications and hands them to the dispatcher; nothing here waits on delivery
 @Service
 public class NotificationService {
 
     private static final Logger logger = LoggerFactory.getLogger(NotificationService.class);
 
     @Autowired
-    private UserInfoService userInfoService;
-
-    // In a real application, you would inject an email service or other
-    // notification mechanism
-
-    public void sendOrderConfirmation(Order order) {
-        logger.info("Preparing order confirmation notification for order ID: {}", order.getId());
-
-        UserInfo user = userInfoService.getUserById(order.getUser().getId());
-        if (user == null) {
-            logger.warn("Cannot send order confirmation - user not found for username: {}",
-                    order.getUser().getUsername());
+    private NotificationDispatcher dispatcher;
+
+    // Order notifications come from the outbox and keep their row until the sink has accepted them, so they
+    // survive a crash right after the order commits and a sink that is down for a while
+    @EventListener
+    public void onOutboxMessage(OutboxMessage message) {
+        Map<String, Object> payload = message.getPayload();
+        Notification notification = switch (message.getType()) {
+            case OutboxService.ORDER_PLACED -> orderConfirmation(message.getAggregateId(),
+                    asLong(payload.get("userId")), (String) payload.get("username"), payload.get("totalPrice"));
+            case OutboxService.ORDER_STATUS_CHANGED -> orderStatusUpdate(message.getAggregateId(),
+                    asLong(payload.get("userId")), (String) payload.get("username"), payload.get("status"));
+            default -> null;
+        };
+        if (notification == null) {
             return;
         }
-
-        // In a real application, you would send an actual email
-        logger.info("Sending order confirmation email to: {}", user.getUsername());
-        logger.debug("Order confirmation details - Order ID: {}, Total: ${}",
-                order.getId(), order.getTotalPrice());
-
-        // Simulated email sending
-        System.out.println("Sending order confirmation email to: " + user.getUsername());
-        System.out.println("Order ID: " + order.getId());
-        System.out.println("Total: $" + order.getTotalPrice());
-
-        logger.info("Order confirmation notification sent successfully to: {}", user.getUsername());
-    }
-
-    public void sendOrderStatusUpdate(Order order) {
-        logger.info("Preparing order status update notification for order ID: {}", order.getId());
-
-        UserInfo user = userInfoService.getUserById(order.getUser().getId());
-        if (user == null) {
-            logger.warn("Cannot send status update - user not found for username: {}",
-                    order.getUser().getUsername());
-            return;
+        if (!dispatcher.submitFromOutbox(notification, message.getId())) {
+            throw new OutboxBackpressureException("Notification queue is full");
         }
-
-        // In a real application, you would send an actual email
-        logger.info("Sending order status update email to: {}", user.getUsername());
-        logger.debug("Order status update details - Order ID: {}, Status: {}",
-                order.getId(), order.getStatus());
-
-        // Simulated email sending
-        System.out.println("Sending order status update email to: " + user.getUsername());
-        System.out.println("Order ID: " + order.getId());
-        System.out.println("Status: " + order.getStatus());
-
-        logger.info("Order status update notification sent successfully to: {}", user.getUsername());
+        message.defer();
     }
 
-    public void sendStockNotification(Long userId, Long bookId, String bookTitle) {
-        logger.info("Preparing stock notification for user ID: {} about book: {}", userId, bookTitle);
-
-        UserInfo user = userInfoService.getUserById(userId);
-        if (user == null) {
-            logger.warn("Cannot send stock notification - user not found for user ID: {}", userId);
-            return;
-        }
-
-        // In a real application, you would send an actual email
-        logger.info("Sending stock notification email to: {}", user.getUsername());
-        logger.debug("Stock notification details - Book: {} (ID: {})", bookTitle, bookId);
-
-        // Simulated email sending
-        System.out.println("Sending stock notification email to: " + user.getUsername());
-        System.out.println("Book: " + bookTitle + " (ID: " + bookId + ") is now in stock!");
-
-        logger.info("Stock notification sent successfully to: {}", user.getUsername());
+    private Notification orderConfirmation(Long orderId, Long userId, String username, Object totalPrice) {
+        logger.info("Queueing order confirmation notification for order ID: {}", orderId);
+        return new Notification(Notification.Type.ORDER_CONFIRMATION, userId, username,
+                "Your order #" + orderId + " is confirmed",
+                "Order ID: " + orderId + "\nTotal: $" + totalPrice);
     }
 
-    public void sendWelcomeEmail(Long userId) {
-        logger.info("Preparing welcome email for new user ID: {}", userId);
-
-        UserInfo user = userInfoService.getUserById(userId);
-        if (user == null) {
-            logger.warn("Cannot send welcome email - user not found for user ID: {}", userId);
-            return;
-        }
-
-        // In a real application, you would send an actual email
-        logger.info("Sending welcome email to: {}", user.getUsername());
-        logger.debug("Welcome email details - User: {}, Full Name: {}",
-                user.getUsername(), user.getFullName());
+    private Notification orderStatusUpdate(Long orderId, Long userId, String username, Object status) {
+        logger.info("Queueing order status update notification for order ID: {}", orderId);
+        return new Notification(Notification.Type.ORDER_STATUS, userId, username,
+                "Your order #" + orderId + " is now " + status,
+                "Order ID: " + orderId + "\nStatus: " + status);
+    }
 
-        // Simulated email sending
-        System.out.println("Sending welcome email to: " + user.getUsername());
-        System.out.println("Welcome to our Book Recommendation System, " + user.getFullName() + "!");
+    // For fan-outs that already know the recipient; waits up to timeoutMs for queue space
+    public boolean sendStockNotification(Long userId, String username, Long bookId, String bookTitle,
+            long timeoutMs) {
+        return dispatcher.submit(new Notification(Notification.Type.BACK_IN_STOCK, userId, username,
+                bookTitle + " is back in stock",
+                "Book: " + bookTitle + " (ID: " + bookId + ") is now in stock!"), timeoutMs);
+    }
 
-        logger.info("Welcome email sent successfully to: {}", user.getUsername());
+    private static Long asLong(Object value) {
+        return value == null ? null : ((Number) value).longValue();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,537 @@
+package com.BRS.BookRecomendation.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.BRS.BookRecomendation.DTO.AnalyticsDimension;
+import com.BRS.BookRecomendation.DTO.AnalyticsGroup;
+import com.BRS.BookRecomendation.DTO.Status;
+import com.BRS.BookRecomendation.Entities.Order;
+import com.BRS.BookRecomendation.Entities.OrderItem;
+import com.BRS.BookRecomendation.events.OrderPlacedEvent;
+import com.BRS.BookRecomendation.repository.OrderItemRepository;
+import com.BRS.BookRecomendation.util.LongIntHashMap;
+import com.BRS.BookRecomendation.util.StringDictionary;
+import com.BRS.BookRecomendation.util.TopK;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Ad-hoc group-by over every order item ever placed. Facts live in memory as one primitive array per column
+// with titles, usernames and genres dictionary-encoded, so a query is a tight scan that fork-join splits
+// across cores; each slice aggregates into dense arrays indexed by group code and the slices are summed.
+@Service
+public class OrderAnalyticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderAnalyticsService.class);
+
+    private static final Status[] STATUSES = Status.values();
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // 0 uses one thread per core
+    @Value("${analytics.parallelism:0}")
+    private int parallelism;
+
+    @Value("${analytics.leaf-rows:65536}")
+    private int leafRows;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private FactTable facts = new FactTable(1024);
+
+    // Changes committed while a reload is scanning the tables, replayed onto the new facts
+    private boolean loading;
+    private final List<Consumer<FactTable>> changesDuringLoad = new ArrayList<>();
+
+    private final AtomicBoolean loadRunning = new AtomicBoolean();
+    private final ExecutorService loadExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "order-analytics-load");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private ForkJoinPool queryPool;
+
+    @PostConstruct
+    public void start() {
+        queryPool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        requestReload();
+    }
+
+    public boolean requestReload() {
+        if (!loadRunning.compareAndSet(false, true)) {
+            logger.info("Order analytics reload already in progress");
+            return false;
+        }
+        loadExecutor.submit(this::reload);
+        return true;
+    }
+
+    private void reload() {
+        long start = System.nanoTime();
+        try {
+            lock.writeLock().lock();
+            try {
+                loading = true;
+                changesDuringLoad.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            FactTable fresh = new FactTable(1 << 16);
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.setReadOnly(true);
+            transaction.executeWithoutResult(status -> {
+                try (Stream<Object[]> rows = orderItemRepository.streamOrderFacts()) {
+                    rows.forEach(row -> fresh.append((Long) row[0], (LocalDateTime) row[1], (Status) row[2],
+                            (Long) row[3], (String) row[4], (Long) row[5], (String) row[6], (String) row[7],
+                            (Integer) row[8], (Double) row[9]));
+                }
+            });
+
+            lock.writeLock().lock();
+            try {
+                changesDuringLoad.forEach(change -> change.accept(fresh));
+                facts = fresh;
+            } finally {
+                loading = false;
+                changesDuringLoad.clear();
+                lock.writeLock().unlock();
+            }
+            logger.info("Order analytics loaded {} order items in {} ms", fresh.size,
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            logger.error("Order analytics reload failed: {}", e.getMessage());
+            lock.writeLock().lock();
+            try {
+                loading = false;
+                changesDuringLoad.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            loadRunning.set(false);
+        }
+    }
+
+    @TransactionalEventListener
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        Order order = event.getOrder();
+        List<OrderItem> items = order.getOrderItems();
+        apply(table -> {
+            if (table.containsOrder(order.getId())) {
+                return;
+            }
+            for (OrderItem item : items) {
+                table.append(order.getId(), order.getCreatedAt(), order.getStatus(), order.getUser().getId(),
+                        order.getUsername(), item.getBook().getId(), item.getBookTitle(),
+                        item.getBook().getGenreTag(), item.getQuantity(), item.getPrice());
+            }
+        });
+    }
+
+    // Call inside the transaction that changes the orders; the facts follow once it commits
+    public void recordStatusChange(Collection<Long> orderIds, Status status) {
+        List<Long> ids = List.copyOf(orderIds);
+        Runnable change = () -> apply(table -> ids.forEach(orderId -> table.setStatus(orderId, status)));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+
+    // from and to are inclusive and optional; an empty status list means every status
+    public List<AnalyticsGroup> query(AnalyticsDimension groupBy, LocalDate from, LocalDate to,
+            Collection<Status> statuses, int limit) {
+        long start = System.nanoTime();
+        boolean[] statusMask = new boolean[STATUSES.length];
+        for (Status status : STATUSES) {
+            statusMask[status.ordinal()] = statuses == null || statuses.isEmpty() || statuses.contains(status);
+        }
+
+        lock.readLock().lock();
+        try {
+            FactTable table = facts;
+            int fromDay = Math.max(table.minDay, from == null ? Integer.MIN_VALUE : (int) from.toEpochDay());
+            int toDay = Math.min(table.maxDay, to == null ? Integer.MAX_VALUE : (int) to.toEpochDay());
+            if (table.size == 0 || fromDay > toDay) {
+                return List.of();
+            }
+            Query query = new Query(table, groupBy, fromDay, toDay, statusMask);
+            Totals totals = queryPool.invoke(
+                    new Aggregate(query, 0, table.size, Math.max(leafRows, query.cardinality)));
+            List<AnalyticsGroup> groups = toGroups(query, totals, limit);
+            logger.debug("Order analytics grouped {} rows by {} into {} groups in {} ms", table.size, groupBy,
+                    groups.size(), (System.nanoTime() - start) / 1_000_000);
+            return groups;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getRowCount() {
+        lock.readLock().lock();
+        try {
+            return facts.size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        loadExecutor.shutdownNow();
+        if (queryPool != null) {
+            queryPool.shutdownNow();
+        }
+    }
+
+    private void apply(Consumer<FactTable> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(facts);
+            if (loading) {
+                changesDuringLoad.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Weeks newest first, everything else by revenue
+    private static List<AnalyticsGroup> toGroups(Query query, Totals totals, int limit) {
+        List<AnalyticsGroup> groups = new ArrayList<>();
+        if (query.groupBy == AnalyticsDimension.WEEK) {
+            for (int group = query.cardinality - 1; group >= 0 && groups.size() < limit; group--) {
+                if (totals.orders[group] > 0) {
+                    groups.add(toGroup(query, totals, group));
+                }
+            }
+            return groups;
+        }
+        TopK top = new TopK(limit);
+        for (int group = 0; group < query.cardinality; group++) {
+            if (totals.orders[group] > 0) {
+                top.offer(group, totals.revenue[group]);
+            }
+        }
+        for (int group : top.drainDescending()) {
+            groups.add(toGroup(query, totals, group));
+        }
+        return groups;
+    }
+
+    private static AnalyticsGroup toGroup(Query query, Totals totals, int group) {
+        FactTable table = query.table;
+        String key;
+        String label;
+        switch (query.groupBy) {
+            case BOOK:
+                key = String.valueOf(table.bookIds[group]);
+                label = table.titles.decode(table.bookTitles[group]);
+                break;
+            case USER:
+                key = String.valueOf(table.userIds[group]);
+                label = table.usernames.decode(table.userNames[group]);
+                break;
+            case GENRE:
+                key = table.genres.decode(group);
+                label = key;
+                break;
+            case WEEK:
+                key = LocalDate.ofEpochDay((query.firstWeek + group) * 7L - 3).toString();
+                label = key;
+                break;
+            default:
+                key = STATUSES[group].name();
+                label = key;
+        }
+        return new AnalyticsGroup(key, label, totals.revenue[group], totals.units[group], totals.orders[group]);
+    }
+
+    // Monday-based week number; 1970-01-01 was a Thursday
+    private static int week(int epochDay) {
+        return Math.floorDiv(epochDay + 3, 7);
+    }
+
+    private static final class Query {
+        private final FactTable table;
+        private final AnalyticsDimension groupBy;
+        private final int fromDay;
+        private final int toDay;
+        private final boolean[] statusMask;
+        private final int firstWeek;
+        private final int cardinality;
+
+        private Query(FactTable table, AnalyticsDimension groupBy, int fromDay, int toDay, boolean[] statusMask) {
+            this.table = table;
+            this.groupBy = groupBy;
+            this.fromDay = fromDay;
+            this.toDay = toDay;
+            this.statusMask = statusMask;
+            this.firstWeek = week(fromDay);
+            switch (groupBy) {
+                case BOOK:
+                    cardinality = table.bookCount;
+                    break;
+                case USER:
+                    cardinality = table.userCount;
+                    break;
+                case GENRE:
+                    cardinality = table.genres.size();
+                    break;
+                case WEEK:
+                    cardinality = week(toDay) - firstWeek + 1;
+                    break;
+                default:
+                    cardinality = STATUSES.length;
+            }
+        }
+
+        private int group(int row) {
+            switch (groupBy) {
+                case BOOK:
+                    return table.books[row];
+                case USER:
+                    return table.users[row];
+                case GENRE:
+                    return table.genreCodes[row];
+                case WEEK:
+                    return week(table.days[row]) - firstWeek;
+                default:
+                    return table.statuses[row];
+            }
+        }
+    }
+
+    private static final class Totals {
+        private final double[] revenue;
+        private final long[] units;
+        private final long[] orders;
+
+        private Totals(int groups) {
+            revenue = new double[groups];
+            units = new long[groups];
+            orders = new long[groups];
+        }
+
+        private Totals add(Totals other) {
+            for (int i = 0; i < revenue.length; i++) {
+                revenue[i] += other.revenue[i];
+                units[i] += other.units[i];
+                orders[i] += other.orders[i];
+            }
+            return this;
+        }
+    }
+
+    // Leaves are at least as many rows as there are groups, so the partial arrays never outweigh the scan
+    private static final class Aggregate extends RecursiveTask<Totals> {
+        private final Query query;
+        private final int from;
+        private final int to;
+        private final int leafRows;
+
+        private Aggregate(Query query, int from, int to, int leafRows) {
+            this.query = query;
+            this.from = from;
+            this.to = to;
+            this.leafRows = leafRows;
+        }
+
+        @Override
+        protected Totals compute() {
+            if (to - from > leafRows) {
+                int middle = (from + to) >>> 1;
+                Aggregate right = new Aggregate(query, middle, to, leafRows);
+                right.fork();
+                Totals left = new Aggregate(query, from, middle, leafRows).compute();
+                return left.add(right.join());
+            }
+            FactTable table = query.table;
+            Totals totals = new Totals(query.cardinality);
+            for (int row = from; row < to; row++) {
+                int day = table.days[row];
+                if (day < query.fromDay || day > query.toDay || !query.statusMask[table.statuses[row]]) {
+                    continue;
+                }
+                int group = query.group(row);
+                totals.revenue[group] += table.prices[row] * table.quantities[row];
+                totals.units[group] += table.quantities[row];
+                // An order's rows are adjacent; it counts once per group, on its first row in that group
+                boolean seen = false;
+                for (int previous = row - 1; previous >= 0 && table.orderIds[previous] == table.orderIds[row];
+                        previous--) {
+                    if (query.group(previous) == group) {
+                        seen = true;
+                        break;
+                    }
+                }
+                if (!seen) {
+                    totals.orders[group]++;
+                }
+            }
+            return totals;
+        }
+    }
+
+    // Append-only columns, one row per order item; rows of one order are always adjacent
+    private static final class FactTable {
+        private long[] orderIds;
+        private int[] days;
+        private byte[] statuses;
+        private int[] users;
+        private int[] books;
+        private int[] genreCodes;
+        private int[] quantities;
+        private double[] prices;
+        private int size;
+        private int minDay = Integer.MAX_VALUE;
+        private int maxDay = Integer.MIN_VALUE;
+
+        private final LongIntHashMap orderRows = new LongIntHashMap(1024, -1);
+
+        // Dense user and book codes, with the latest username and title seen for each
+        private final LongIntHashMap userCodes = new LongIntHashMap(1024, -1);
+        private long[] userIds = new long[1024];
+        private int[] userNames = new int[1024];
+        private int userCount;
+        private final LongIntHashMap bookCodes = new LongIntHashMap(1024, -1);
+        private long[] bookIds = new long[1024];
+        private int[] bookTitles = new int[1024];
+        private int bookCount;
+
+        private final StringDictionary usernames = new StringDictionary();
+        private final StringDictionary titles = new StringDictionary();
+        private final StringDictionary genres = new StringDictionary();
+
+        private FactTable(int capacity) {
+            orderIds = new long[capacity];
+            days = new int[capacity];
+            statuses = new byte[capacity];
+            users = new int[capacity];
+            books = new int[capacity];
+            genreCodes = new int[capacity];
+            quantities = new int[capacity];
+            prices = new double[capacity];
+        }
+
+        private boolean containsOrder(long orderId) {
+            return orderRows.containsKey(orderId);
+        }
+
+        private void append(long orderId, LocalDateTime createdAt, Status status, long userId, String username,
+                long bookId, String title, String genre, Integer quantity, Double price) {
+            if (size == orderIds.length) {
+                grow();
+            }
+            if (size == 0 || orderIds[size - 1] != orderId) {
+                orderRows.put(orderId, size);
+            }
+            int day = (int) createdAt.toLocalDate().toEpochDay();
+            orderIds[size] = orderId;
+            days[size] = day;
+            statuses[size] = (byte) (status == null ? Status.PENDING : status).ordinal();
+            users[size] = userCode(userId, username);
+            books[size] = bookCode(bookId, title);
+            genreCodes[size] = genres.encode(genre);
+            quantities[size] = quantity == null ? 0 : quantity;
+            prices[size] = price == null ? 0 : price;
+            minDay = Math.min(minDay, day);
+            maxDay = Math.max(maxDay, day);
+            size++;
+        }
+
+        private void setStatus(long orderId, Status status) {
+            int first = orderRows.get(orderId);
+            if (first < 0) {
+                return;
+            }
+            for (int row = first; row < size && orderIds[row] == orderId; row++) {
+                statuses[row] = (byte) status.ordinal();
+            }
+        }
+
+        private int userCode(long userId, String username) {
+            int code = userCodes.get(userId);
+            if (code < 0) {
+                code = userCount++;
+                userCodes.put(userId, code);
+                if (code == userIds.length) {
+                    userIds = Arrays.copyOf(userIds, code * 2);
+                    userNames = Arrays.copyOf(userNames, code * 2);
+                }
+                userIds[code] = userId;
+            }
+            userNames[code] = usernames.encode(username);
+            return code;
+        }
+
+        private int bookCode(long bookId, String title) {
+            int code = bookCodes.get(bookId);
+            if (code < 0) {
+                code = bookCount++;
+                bookCodes.put(bookId, code);
+                if (code == bookIds.length) {
+                    bookIds = Arrays.copyOf(bookIds, code * 2);
+                    bookTitles = Arrays.copyOf(bookTitles, code * 2);
+                }
+                bookIds[code] = bookId;
+            }
+            bookTitles[code] = titles.encode(title);
+            return code;
+        }
+
+        private void grow() {
+            int capacity = orderIds.length * 2;
+            orderIds = Arrays.copyOf(orderIds, capacity);
+            days = Arrays.copyOf(days, capacity);
+            statuses = Arrays.copyOf(statuses, capacity);
+            users = Arrays.copyOf(users, capacity);
+            books = Arrays.copyOf(books, capacity);
+            genreCodes = Arrays.copyOf(genreCodes, capacity);
+            quantities = Arrays.copyOf(quantities, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.BRS.BookRecomendation.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+// Encodes order history positions as opaque, URL-safe cursors of the form "createdAt|id"
+final class OrderCursors {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private OrderCursors() {
+    }
+
+    static String encode(LocalDateTime createdAt, Long orderId) {
+        String raw = createdAt + "|" + orderId;
+        return ENCODER.encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Returns { createdAt, orderId }
+    static Object[] decode(String cursor) {
+        try {
+            String[] parts = new String(DECODER.decode(cursor), StandardCharsets.UTF_8).split("\\|", 2);
+            return new Object[] { LocalDateTime.parse(parts[0]), Long.valueOf(parts[1]) };
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+}
@@ -2,13 +2,26 @@ package com.BRS.BookRecomendation.service;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.BRS.BookRecomendation.Entities.Book;
 import com.BRS.BookRecomendation.Entities.Cart;
@@ -16,24 +29,60 @@ import com.BRS.BookRecomendation.Entities.Order;
 import com.BRS.BookRecomendation.Entities.OrderItem;
 import com.BRS.BookRecomendation.Entities.UserInfo;
 import com.BRS.BookRecomendation.repository.BookRepository;
+import com.BRS.BookRecomendation.repository.BookStockRepository;
 import com.BRS.BookRecomendation.repository.CartRepository;
 import com.BRS.BookRecomendation.repository.OrderItemRepository;
 import com.BRS.BookRecomendation.repository.OrderRepository;
+import com.BRS.BookRecomendation.DTO.OrderDTO;
+import com.BRS.BookRecomendation.DTO.OrderHistoryPage;
+import com.BRS.BookRecomendation.DTO.OrderItemDTO;
 import com.BRS.BookRecomendation.DTO.Status;
+import com.BRS.BookRecomendation.events.BookChangedEvent;
+import com.BRS.BookRecomendation.events.OrderPlacedEvent;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
 @Service
 public class OrderService {
 
     private static final Logger logger = LoggerFactory.getLogger(OrderService.class);
+
+    public static final int MAX_HISTORY_PAGE_SIZE = 100;
     @Autowired
     private OrderRepository orderRepository;
 
     @Autowired
     private CartRepository cartRepository;
 
+    @Autowired
+    private CartHoldService cartHoldService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private BulkCancellationService bulkCancellationService;
+
+    // Circular with FlashSaleService, whose writer places orders through placeDirectOrder
+    @Autowired
+    private FlashSaleService flashSaleService;
+
+    @Autowired
+    private SalesStatsService salesStatsService;
+
+    @Autowired
+    private OrderAnalyticsService orderAnalyticsService;
+
+    @Autowired
+    private AlsoBoughtService alsoBoughtService;
+
     @Autowired
     private BookRepository bookRepository;
 
@@ -46,8 +95,75 @@ public class OrderService {
     @Autowired
     private OrderItemRepository orderItemRepository;
 
-    @Transactional
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private BookStockRepository bookStockRepository;
+
+    @Autowired
+    private InventoryLedger inventoryLedger;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${order.stock.max-attempts:3}")
+    private int stockMaxAttempts;
+
+    @Value("${order.stock.retry-backoff-ms:50}")
+    private long stockRetryBackoffMs;
+
     public Order placeOrder(Long userId) {
+        return withStockRetry(userId, () -> placeOrderOnce(userId));
+    }
+
+    // Retries with the same key return the first order instead of placing another
+    public Order placeOrder(Long userId, String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return placeOrder(userId);
+        }
+        return idempotencyService.execute(userId, idempotencyKey, () -> withStockRetry(userId, () -> {
+            Order order = placeOrderOnce(userId);
+            idempotencyService.record(userId, idempotencyKey, order.getId());
+            return order;
+        }));
+    }
+
+    // Single-book checkout that skips the cart, used by flash sales
+    public Order placeDirectOrder(Long userId, Long bookId, int quantity) {
+        return withStockRetry(userId, () -> placeDirectOrderOnce(userId, bookId, quantity));
+    }
+
+    // Lock timeouts and deadlocks roll the whole checkout back, so it is retried from the start
+    private Order withStockRetry(Long userId, Supplier<Order> checkout) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        for (int attempt = 1;; attempt++) {
+            try {
+                return transaction.execute(status -> checkout.get());
+            } catch (PessimisticLockingFailureException e) {
+                if (attempt >= stockMaxAttempts) {
+                    logger.error("Giving up placing order for user: {} after {} attempts: {}", userId, attempt,
+                            e.getMessage());
+                    throw e;
+                }
+                long backoff = stockRetryBackoffMs * attempt
+                        + ThreadLocalRandom.current().nextLong(stockRetryBackoffMs + 1);
+                logger.warn("Lock contention placing order for user: {} (attempt {}/{}), retrying in {} ms",
+                        userId, attempt, stockMaxAttempts, backoff);
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private Order placeOrderOnce(Long userId) {
         logger.info("Placing order for user: {}", userId);
 
         // Fetch User
@@ -66,18 +182,22 @@ public class OrderService {
         }
         logger.debug("Found {} items in cart for user: {}", cartItems.size(), userId);
 
-        // Check stock availability for all items BEFORE modifying anything
+        // Reserve stock with conditional decrements; a book that is short fails the whole order
+        SortedMap<Long, Integer> quantities = new TreeMap<>();
+        Map<Long, Book> books = new HashMap<>();
         for (Cart item : cartItems) {
-            Book book = item.getBook();
-            if (book.getStockQuantity() < item.getQuantity()) {
-                logger.error("Insufficient stock for book: {} (stock: {}, requested: {})",
-                        book.getTitle(), book.getStockQuantity(), item.getQuantity());
-                throw new RuntimeException("Insufficient stock for book: " + book.getTitle());
+            quantities.merge(item.getBook().getId(), item.getQuantity(), Integer::sum);
+            books.put(item.getBook().getId(), item.getBook());
+        }
+        // Books on flash sale are sold only through the sale's admission queue, never around it
+        for (Long bookId : quantities.keySet()) {
+            if (flashSaleService.isActive(bookId)) {
+                logger.warn("Cart checkout for user: {} rejected, book ID: {} is on flash sale", userId, bookId);
+                throw new RuntimeException("Book is on flash sale and can only be ordered through the flash sale "
+                        + "checkout: " + books.get(bookId).getTitle());
             }
-            logger.trace("Stock check passed for book: {} (available: {}, requested: {})",
-                    book.getTitle(), book.getStockQuantity(), item.getQuantity());
         }
-        logger.debug("Stock availability check passed for all items");
+        reserveStock(quantities, books);
 
         // Create Order
         Order order = new Order();
@@ -123,28 +243,88 @@ public class OrderService {
         order.setTotalPrice(totalPrice);
         logger.debug("Order total price: ${}", totalPrice);
 
-        // Update stock quantities **before saving order**
-        for (Cart item : cartItems) {
-            Book book = item.getBook();
-            int newStock = book.getStockQuantity() - item.getQuantity();
-            book.setStockQuantity(newStock);
-            bookRepository.save(book);
-            logger.debug("Updated stock for book: {} (new stock: {})", book.getTitle(), newStock);
-        }
-        logger.debug("Stock quantities updated for all books");
-
         // Save the Order (including its items)
         Order savedOrder = orderRepository.save(order);
         logger.info("Order created successfully with ID: {}", savedOrder.getId());
+        recordPlaced(savedOrder);
 
         // Clear the Cart
         cartRepository.deleteAll(cartItems);
+        cartHoldService.release(cartItems.stream().map(Cart::getId).toList());
         logger.debug("Cart cleared for user: {}", userId);
 
         logger.info("Order placement completed successfully for user: {}", userId);
         return savedOrder;
     }
 
+    private Order placeDirectOrderOnce(Long userId, Long bookId, int quantity) {
+        logger.info("Placing direct order for user: {} (book ID: {}, quantity: {})", userId, bookId, quantity);
+
+        UserInfo user = userInfoService.getUserById(userId);
+        if (user == null) {
+            logger.error("User not found for user ID: {}", userId);
+            throw new RuntimeException("User not found.");
+        }
+        Book book = bookRepository.findById(bookId)
+                .orElseThrow(() -> {
+                    logger.error("Book not found with ID: {}", bookId);
+                    return new RuntimeException("Book not found: " + bookId);
+                });
+
+        SortedMap<Long, Integer> quantities = new TreeMap<>();
+        quantities.put(bookId, quantity);
+        reserveStock(quantities, Map.of(bookId, book));
+
+        Order order = new Order();
+        order.setUser(user);
+        order.setStatus(Status.CONFIRMED);
+        order.setCreatedAt(LocalDateTime.now());
+        order.setUsername(user.getUsername());
+
+        OrderItem item = new OrderItem();
+        item.setBook(book);
+        item.setQuantity(quantity);
+        item.setPrice(book.getPrice());
+        item.setImageUrl(book.getImageUrl());
+        item.setBookTitle(book.getTitle());
+        item.setOrder(order);
+        order.setOrderItems(new ArrayList<>(List.of(item)));
+        order.setTotalPrice(book.getPrice() * quantity);
+
+        Order savedOrder = orderRepository.save(order);
+        logger.info("Direct order created successfully with ID: {}", savedOrder.getId());
+        recordPlaced(savedOrder);
+        return savedOrder;
+    }
+
+    // Throws when any book is short; the caller's transaction then rolls back every decrement
+    private void reserveStock(SortedMap<Long, Integer> quantities, Map<Long, Book> books) {
+        List<Long> insufficient;
+        if (inventoryLedger.isEnabled()) {
+            Long shortBook = inventoryLedger.reserve(quantities);
+            insufficient = shortBook == null ? List.of() : List.of(shortBook);
+        } else {
+            insufficient = bookStockRepository.decrementStock(quantities);
+        }
+        if (!insufficient.isEmpty()) {
+            Book book = books.get(insufficient.get(0));
+            logger.error("Insufficient stock for book: {} (requested: {})", book.getTitle(),
+                    quantities.get(book.getId()));
+            throw new RuntimeException("Insufficient stock for book: " + book.getTitle());
+        }
+        logger.debug("Stock reserved for {} books", quantities.size());
+
+        // Pick up the decremented stock so listeners see the new values; the ledger publishes on flush
+        if (!inventoryLedger.isEnabled()) {
+            for (Book book : books.values()) {
+                entityManager.refresh(book);
+                eventPublisher.publishEvent(new BookChangedEvent(BookChangedEvent.Type.STOCK, book.getId(), book));
+                logger.debug("Updated stock for book: {} (new stock: {})", book.getTitle(),
+                        book.getStockQuantity());
+            }
+        }
+    }
+
     public List<Order> getOrdersByUserId(Long userId) {
         logger.info("Retrieving orders for user: {}", userId);
         List<Order> orders = orderRepository.findByUserId(userId);
@@ -152,6 +332,64 @@ public class OrderService {
         return orders;
     }
 
+    // Two queries per page whatever its size: order headers by keyset, then all of their items
+    public OrderHistoryPage getOrderHistory(Long userId, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_HISTORY_PAGE_SIZE));
+        logger.info("Retrieving order history page for user: {} (size: {})", userId, pageSize);
+
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        List<OrderDTO> orders;
+        if (cursor == null || cursor.isBlank()) {
+            orders = orderRepository.findHistoryFirstPage(userId, limit);
+        } else {
+            Object[] position = OrderCursors.decode(cursor);
+            orders = orderRepository.findHistoryPageAfter(userId, (LocalDateTime) position[0], (Long) position[1],
+                    limit);
+        }
+
+        String nextCursor = null;
+        if (orders.size() > pageSize) {
+            orders = new ArrayList<>(orders.subList(0, pageSize));
+            OrderDTO last = orders.get(pageSize - 1);
+            nextCursor = OrderCursors.encode(last.getCreatedAt(), last.getId());
+        }
+        attachItems(orders);
+        logger.debug("Returning {} orders for user: {}, has next page: {}", orders.size(), userId,
+                nextCursor != null);
+        return new OrderHistoryPage(orders, nextCursor);
+    }
+
+    public Optional<OrderDTO> getOrderView(Long userId, Long orderId) {
+        logger.info("Retrieving order ID: {} for user: {}", orderId, userId);
+        Optional<OrderDTO> order = orderRepository.findView(userId, orderId);
+        order.ifPresent(view -> attachItems(List.of(view)));
+        return order;
+    }
+
+    // Headers and items for the given orders, in id order; two queries however many there are
+    public List<OrderDTO> getOrderViews(Collection<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return List.of();
+        }
+        List<OrderDTO> orders = orderRepository.findViews(orderIds);
+        attachItems(orders);
+        return orders;
+    }
+
+    private void attachItems(List<OrderDTO> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        Map<Long, List<OrderItemDTO>> itemsByOrder = new HashMap<>();
+        for (OrderDTO order : orders) {
+            order.setOrderItems(new ArrayList<>());
+            itemsByOrder.put(order.getId(), order.getOrderItems());
+        }
+        for (OrderItemDTO item : orderItemRepository.findItemViewsByOrderIds(itemsByOrder.keySet())) {
+            itemsByOrder.get(item.getOrderId()).add(item);
+        }
+    }
+
     public List<Order> getAllOrders() {
         logger.info("Retrieving all orders");
         List<Order> orders = orderRepository.findAll();
@@ -163,7 +401,8 @@ public class OrderService {
     public Order cancelOrder(Long orderId) {
         logger.info("Cancelling order with ID: {}", orderId);
 
-        Order order = orderRepository.findById(orderId)
+        // Locked, so a concurrent cancel or bulk cancellation sees CANCELLED and cannot restock a second time
+        Order order = orderRepository.lockById(orderId)
                 .orElseThrow(() -> {
                     logger.error("Order not found with ID: {}", orderId);
                     return new RuntimeException("Order not found");
@@ -171,7 +410,7 @@ public class OrderService {
         logger.debug("Found order with ID: {} in status: {}", orderId, order.getStatus());
 
         // Only allow cancellation if order is in "Confirmed" status
-        if (!"Confirmed".equals(order.getStatus())) {
+        if (order.getStatus() != Status.CONFIRMED) {
             logger.error("Cannot cancel order in status: {}", order.getStatus());
             throw new RuntimeException("Cannot cancel order in status: " + order.getStatus());
         }
@@ -181,21 +420,11 @@ public class OrderService {
         logger.debug("Updated order status to Cancelled");
 
         // Restore stock quantities
-        for (OrderItem item : order.getOrderItems()) {
-            Book book = bookRepository.findById(item.getBook().getId())
-                    .orElseThrow(() -> {
-                        logger.error("Book not found with ID: {}", item.getBook().getId());
-                        return new RuntimeException("Book not found: " + item.getBook().getId());
-                    });
-
-            int newStock = book.getStockQuantity() + item.getQuantity();
-            book.setStockQuantity(newStock);
-            bookRepository.save(book);
-            logger.debug("Restored stock for book: {} (new stock: {})", book.getTitle(), newStock);
-        }
-        logger.debug("Stock quantities restored for all books in the order");
+        restoreStock(order);
 
         Order savedOrder = orderRepository.save(order);
+        salesStatsService.recordCancelled(savedOrder);
+        recordStatusChange(savedOrder, Status.CONFIRMED);
         logger.info("Order with ID: {} successfully cancelled", orderId);
         return savedOrder;
     }
@@ -204,55 +433,88 @@ public class OrderService {
     public Order updateOrderStatus(Long orderId, String status) {
         logger.info("Updating order status for order ID: {} to: {}", orderId, status);
 
-        Order order = orderRepository.findById(orderId)
+        Status target = Status.parse(status);
+        if (target == null) {
+            logger.error("Invalid order status: {}", status);
+            throw new RuntimeException("Invalid order status: " + status);
+        }
+
+        // Locked as in BulkStatusService: concurrent and bulk changes wait, then validate against our result,
+        // and fulfilment claims skip the row until we commit
+        Order order = orderRepository.lockById(orderId)
                 .orElseThrow(() -> {
                     logger.error("Order not found with ID: {}", orderId);
                     return new RuntimeException("Order not found");
                 });
         logger.debug("Found order with ID: {} in current status: {}", orderId, order.getStatus());
 
-        // Validate status
-        if (!isValidStatus(status)) {
-            logger.error("Invalid order status: {}", status);
-            throw new RuntimeException("Invalid order status: " + status);
+        if (!order.getStatus().canTransitionTo(target)) {
+            logger.error("Order ID: {} cannot move from {} to {}", orderId, order.getStatus(), target);
+            throw new RuntimeException("Cannot change order status from " + order.getStatus() + " to " + target);
         }
 
-        // If cancelling an order that was previously confirmed, restore stock
-        if ("Cancelled".equals(status) && "Confirmed".equals(order.getStatus())) {
-            logger.debug("Cancelling a confirmed order - restoring stock");
-            for (OrderItem item : order.getOrderItems()) {
-                Book book = bookRepository.findById(item.getBook().getId())
-                        .orElseThrow(() -> {
-                            logger.error("Book not found with ID: {}", item.getBook().getId());
-                            return new RuntimeException("Book not found: " + item.getBook().getId());
-                        });
-
-                int newStock = book.getStockQuantity() + item.getQuantity();
-                book.setStockQuantity(newStock);
-                bookRepository.save(book);
-                logger.debug("Restored stock for book: {} (new stock: {})", book.getTitle(), newStock);
-            }
-            logger.debug("Stock quantities restored for all books in the order");
+        // Orders can only be cancelled before shipping, so their stock is still reserved
+        if (target == Status.CANCELLED) {
+            logger.debug("Cancelling order ID: {} in status {} - restoring stock", orderId, order.getStatus());
+            restoreStock(order);
         }
 
-        order.setStatus(Status.valueOf(status));
+        // A manual change takes the order away from any fulfilment worker holding it
+        Status previous = order.getStatus();
+        order.setStatus(target);
+        order.setClaimedBy(null);
+        order.setLeaseExpiresAt(null);
         Order savedOrder = orderRepository.save(order);
+        if (target == Status.CANCELLED) {
+            salesStatsService.recordCancelled(savedOrder);
+        }
+        recordStatusChange(savedOrder, previous);
         logger.info("Order status successfully updated to: {} for order ID: {}", status, orderId);
         return savedOrder;
     }
 
-    private boolean isValidStatus(String status) {
-        boolean isValid = List.of("Confirmed", "Processing", "Shipped", "Delivered", "Cancelled").contains(status);
-        if (!isValid) {
-            logger.warn("Attempted to set invalid order status: {}", status);
-        }
-        return isValid;
+    // The outbox row commits with the order; in-process listeners still get the event after commit
+    private void recordPlaced(Order order) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("orderId", order.getId());
+        payload.put("userId", order.getUser().getId());
+        payload.put("username", order.getUser().getUsername());
+        payload.put("totalPrice", order.getTotalPrice());
+        outboxService.append(OutboxService.ORDER_PLACED, order.getId(), payload);
+        salesStatsService.recordPlaced(order);
+        eventPublisher.publishEvent(new OrderPlacedEvent(order));
     }
 
-    public void cancelAllOrders(Long userId) {
-        List<Order> orders = orderRepository.findByUserId(userId);
-        for (Order order : orders) {
-            cancelOrder(order.getId());
+    private void recordStatusChange(Order order, Status previous) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("orderId", order.getId());
+        payload.put("userId", order.getUser().getId());
+        payload.put("username", order.getUser().getUsername());
+        payload.put("status", order.getStatus().name());
+        outboxService.append(OutboxService.ORDER_STATUS_CHANGED, order.getId(), payload);
+        orderAnalyticsService.recordStatusChange(List.of(order.getId()), order.getStatus());
+        alsoBoughtService.recordStatusChange(Map.of(order.getId(), previous), order.getStatus());
+    }
+
+    private void restoreStock(Order order) {
+        SortedMap<Long, Integer> quantities = new TreeMap<>();
+        for (OrderItem item : order.getOrderItems()) {
+            quantities.merge(item.getBook().getId(), item.getQuantity(), Integer::sum);
+        }
+        if (quantities.isEmpty()) {
+            return;
         }
+        // Adds to stock_quantity in SQL under row locks, so a concurrent checkout's decrement is never overwritten
+        bulkCancellationService.restock(quantities);
+        if (!inventoryLedger.isEnabled()) {
+            // The order's books were loaded before the update, and listeners read them after commit
+            order.getOrderItems().forEach(item -> entityManager.refresh(item.getBook()));
+        }
+        logger.debug("Stock quantities restored for {} books in the order", quantities.size());
+    }
+
+    // Set-based; see BulkCancellationService for the background variant used on large accounts
+    public long cancelAllOrders(Long userId) {
+        return bulkCancellationService.cancelAll(userId);
     }
 }
@@ -0,0 +1,277 @@
+package com.BRS.BookRecomendation.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.BRS.BookRecomendation.Entities.OutboxEntry;
+import com.BRS.BookRecomendation.events.OutboxMessage;
+import com.BRS.BookRecomendation.exception.OutboxBackpressureException;
+import com.BRS.BookRecomendation.repository.OutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+
+// Transactional outbox: events are stored with the change that caused them and published by a poller
+// after commit, so a crash between saving and sending delays an event instead of losing it. Nodes drain
+// in parallel by claiming disjoint batches; delivery is at least once and only ordered within a batch.
+// Failed rows back off exponentially and are parked after max-attempts; a consumer at capacity only
+// postpones them.
+@Service
+public class OutboxService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxService.class);
+
+    public static final String ORDER_PLACED = "ORDER_PLACED";
+    public static final String ORDER_STATUS_CHANGED = "ORDER_STATUS_CHANGED";
+    public static final String STOCK_CHANGED = "STOCK_CHANGED";
+
+    private static final TypeReference<Map<String, Object>> PAYLOAD_TYPE = new TypeReference<>() {
+    };
+
+    @Autowired
+    private OutboxRepository outboxRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${outbox.batch-size:200}")
+    private int batchSize;
+
+    @Value("${outbox.max-batches-per-poll:50}")
+    private int maxBatchesPerPoll;
+
+    @Value("${outbox.max-attempts:5}")
+    private int maxAttempts;
+
+    // First retry delay after a failure; doubles with every further attempt up to the cap
+    @Value("${outbox.retry-backoff-ms:1000}")
+    private long retryBackoffMs;
+
+    @Value("${outbox.max-backoff-ms:300000}")
+    private long maxBackoffMs;
+
+    @Value("${outbox.backpressure-delay-ms:1000}")
+    private long backpressureDelayMs;
+
+    // How long a deferred row waits for its listener to settle it before being handed out again
+    @Value("${outbox.ack-timeout-ms:120000}")
+    private long ackTimeoutMs;
+
+    private Timer batchTimer;
+    private Counter published;
+    private Counter failed;
+    private Counter postponedByBackpressure;
+
+    @PostConstruct
+    public void registerMetrics() {
+        batchTimer = Timer.builder("outbox.drain.batch")
+                .description("Time to claim, publish and settle one outbox batch")
+                .register(meterRegistry);
+        published = Counter.builder("outbox.events").tag("result", "published").register(meterRegistry);
+        failed = Counter.builder("outbox.events").tag("result", "failed").register(meterRegistry);
+        postponedByBackpressure = Counter.builder("outbox.events").tag("result", "backpressure")
+                .register(meterRegistry);
+        Gauge.builder("outbox.pending", this, service -> service.outboxRepository.countPending(service.maxAttempts))
+                .description("Outbox rows still to be published")
+                .register(meterRegistry);
+    }
+
+    // Must run inside the transaction that makes the change
+    public void append(String type, Long aggregateId, Map<String, Object> payload) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Outbox events need an active transaction");
+        }
+        try {
+            outboxRepository.append(type, aggregateId, objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not serialize outbox payload for " + type, e);
+        }
+    }
+
+    // Same as append for many aggregates, written with one batched insert
+    public void appendAll(String type, Map<Long, Map<String, Object>> payloads) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Outbox events need an active transaction");
+        }
+        List<Object[]> rows = new ArrayList<>(payloads.size());
+        for (Map.Entry<Long, Map<String, Object>> entry : payloads.entrySet()) {
+            try {
+                rows.add(new Object[] { entry.getKey(), objectMapper.writeValueAsString(entry.getValue()) });
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException("Could not serialize outbox payload for " + type, e);
+            }
+        }
+        outboxRepository.appendAll(type, rows);
+    }
+
+    // Consumers such as back-in-stock alerts look at the move, not just the new level
+    public void appendStockChange(Long bookId, int previousStock, int newStock) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("bookId", bookId);
+        payload.put("previousStock", previousStock);
+        payload.put("newStock", newStock);
+        append(STOCK_CHANGED, bookId, payload);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.poll-interval-ms:200}")
+    public void drain() {
+        long start = System.nanoTime();
+        int total = 0;
+        try {
+            for (int i = 0; i < maxBatchesPerPoll; i++) {
+                int drained = batchTimer.record(this::drainBatch);
+                total += drained;
+                if (drained < batchSize) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Outbox drain stopped after {} events: {}", total, e.getMessage());
+        }
+        if (total > 0) {
+            long elapsedMs = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+            logger.debug("Outbox drained {} events in {} ms ({} events/s)", total, elapsedMs,
+                    total * 1000 / elapsedMs);
+        }
+    }
+
+    // For rows whose listener deferred them: the downstream has taken the messages, so they are done
+    public void acknowledge(Collection<Long> ids) {
+        if (!ids.isEmpty()) {
+            outboxRepository.delete(new ArrayList<>(ids));
+        }
+    }
+
+    // For rows whose listener deferred them: delivery failed, so they count an attempt and back off
+    public void retryLater(Collection<Long> ids, String error) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEntry> entries = outboxRepository.findByIds(ids);
+        for (OutboxEntry entry : entries) {
+            recordFailure(entry, error, now);
+        }
+        outboxRepository.markFailed(entries);
+        failed.increment(entries.size());
+    }
+
+    private int drainBatch() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Integer claimed = transaction.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxEntry> entries = outboxRepository.claim(batchSize, maxAttempts, now);
+            if (entries.isEmpty()) {
+                return 0;
+            }
+            List<Long> done = new ArrayList<>(entries.size());
+            List<OutboxEntry> postponed = new ArrayList<>();
+            List<OutboxEntry> failures = new ArrayList<>();
+            int backpressured = 0;
+            // Event types whose consumer pushed back; the rest of the batch for them is postponed unseen
+            Map<String, String> saturated = new HashMap<>();
+            for (OutboxEntry entry : entries) {
+                String pushback = saturated.get(entry.getEventType());
+                if (pushback != null) {
+                    entry.setLastError(pushback);
+                    entry.setNextAttemptAt(now.plus(Duration.ofMillis(backpressureDelayMs)));
+                    postponed.add(entry);
+                    backpressured++;
+                    continue;
+                }
+                try {
+                    Map<String, Object> payload = objectMapper.readValue(entry.getPayload(), PAYLOAD_TYPE);
+                    OutboxMessage message = new OutboxMessage(entry.getId(), entry.getEventType(),
+                            entry.getAggregateId(), payload);
+                    eventPublisher.publishEvent(message);
+                    if (message.isDeferred()) {
+                        // Kept until the listener settles it, and handed out again if it never does
+                        entry.setNextAttemptAt(now.plus(Duration.ofMillis(ackTimeoutMs)));
+                        postponed.add(entry);
+                    } else {
+                        done.add(entry.getId());
+                    }
+                } catch (OutboxBackpressureException e) {
+                    // The event is fine, the consumer is busy: try again shortly without using up an attempt
+                    entry.setLastError(truncate(e.getMessage()));
+                    entry.setNextAttemptAt(now.plus(Duration.ofMillis(backpressureDelayMs)));
+                    postponed.add(entry);
+                    backpressured++;
+                    saturated.put(entry.getEventType(), entry.getLastError());
+                } catch (Exception e) {
+                    recordFailure(entry, e.getMessage(), now);
+                    failures.add(entry);
+                }
+            }
+            if (!done.isEmpty()) {
+                outboxRepository.delete(done);
+            }
+            if (!postponed.isEmpty()) {
+                outboxRepository.postpone(postponed);
+            }
+            if (!failures.isEmpty()) {
+                outboxRepository.markFailed(failures);
+            }
+            if (backpressured > 0) {
+                logger.debug("Outbox postponed {} events for {} ms, a consumer is at capacity", backpressured,
+                        backpressureDelayMs);
+            }
+            published.increment(entries.size() - backpressured - failures.size());
+            postponedByBackpressure.increment(backpressured);
+            failed.increment(failures.size());
+            return entries.size();
+        });
+        return claimed == null ? 0 : claimed;
+    }
+
+    // Sets the error and the next attempt, doubling the delay each time up to the cap
+    private void recordFailure(OutboxEntry entry, String error, LocalDateTime now) {
+        int attempts = entry.getAttempts() + 1;
+        entry.setLastError(truncate(error));
+        long delayMs = Math.min(maxBackoffMs, retryBackoffMs << Math.min(attempts - 1, 20));
+        entry.setNextAttemptAt(now.plus(Duration.ofMillis(delayMs)));
+        if (attempts >= maxAttempts) {
+            logger.error("Outbox event {} ({}) failed {} times and is parked: {}", entry.getId(),
+                    entry.getEventType(), maxAttempts, error);
+        } else {
+            logger.warn("Outbox event {} ({}) failed, will retry in {} ms: {}", entry.getId(),
+                    entry.getEventType(), delayMs, error);
+        }
+    }
+
+    private static String truncate(String error) {
+        String value = String.valueOf(error);
+        return value.length() > 512 ? value.substring(0, 512) : value;
+    }
+}
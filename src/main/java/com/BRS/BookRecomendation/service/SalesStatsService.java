@@ -0,0 +1,266 @@
+package com.BRS.BookRecomendation.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.BRS.BookRecomendation.DTO.SalesFigures;
+import com.BRS.BookRecomendation.Entities.Order;
+import com.BRS.BookRecomendation.Entities.OrderItem;
+import com.BRS.BookRecomendation.Entities.SalesAggregate;
+import com.BRS.BookRecomendation.repository.SalesAggregateRepository;
+
+// Daily sales per shop, genre and book. Placing or cancelling an order adds or subtracts its items in the
+// same transaction as the order, so sales_daily never drifts from the orders; the recent window is also
+// kept in memory and read from there, so dashboard queries cost the number of days and books involved,
+// not the number of orders.
+@Service
+public class SalesStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SalesStatsService.class);
+
+    @Autowired
+    private SalesAggregateRepository salesAggregateRepository;
+
+    @Value("${sales.stats.memory-days:90}")
+    private int memoryDays;
+
+    // "dimension|key" to day to figures
+    private final ConcurrentHashMap<String, ConcurrentHashMap<LocalDate, Figures>> figures =
+            new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.nanoTime();
+        figures.clear();
+        List<SalesAggregate> rows = salesAggregateRepository.findSince(windowStart());
+        for (SalesAggregate row : rows) {
+            apply(row);
+        }
+        logger.info("Loaded {} daily sales rows from the last {} days in {} ms", rows.size(), memoryDays,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Must run inside the transaction that saves the order
+    public void recordPlaced(Order order) {
+        record(rollUp(order), 1);
+    }
+
+    public void recordCancelled(Order order) {
+        record(rollUp(order), -1);
+    }
+
+    // Bulk cancellations roll the orders up in the database instead of loading their items
+    public void recordCancelled(Collection<Long> orderIds) {
+        if (!orderIds.isEmpty()) {
+            record(salesAggregateRepository.rollUp(orderIds), -1);
+        }
+    }
+
+    @Transactional
+    public int rebuild() {
+        long start = System.nanoTime();
+        int rows = salesAggregateRepository.rebuild();
+        afterCommit(this::load);
+        logger.info("Rebuilt {} daily sales rows from orders in {} ms", rows,
+                (System.nanoTime() - start) / 1_000_000);
+        return rows;
+    }
+
+    // Newest day first
+    public List<SalesFigures> getDaily(int days) {
+        Map<LocalDate, Figures> byDay = figures.get(key(SalesAggregateRepository.TOTAL, ""));
+        if (byDay == null) {
+            byDay = Map.of();
+        }
+        List<SalesFigures> result = new ArrayList<>();
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < clampDays(days); i++) {
+            LocalDate day = today.minusDays(i);
+            Figures dayFigures = byDay.get(day);
+            result.add(dayFigures == null ? new SalesFigures(day.toString(), 0, 0, 0)
+                    : dayFigures.view(day.toString()));
+        }
+        return result;
+    }
+
+    // Highest revenue first
+    public List<SalesFigures> getByGenre(int days) {
+        List<SalesFigures> result = new ArrayList<>(totals(SalesAggregateRepository.GENRE, days).values());
+        result.sort(Comparator.comparingDouble(SalesFigures::getRevenue).reversed());
+        return result;
+    }
+
+    // Highest revenue first, ties to the lower book id; a heap of the best limit books so far, worst on top
+    public List<SalesFigures> getTopBooks(int days, int limit) {
+        Comparator<SalesFigures> byRevenue = Comparator.comparingDouble(SalesFigures::getRevenue).reversed()
+                .thenComparing(book -> Long.valueOf(book.getKey()));
+        PriorityQueue<SalesFigures> top = new PriorityQueue<>(byRevenue.reversed());
+        for (SalesFigures book : totals(SalesAggregateRepository.BOOK, days).values()) {
+            top.offer(book);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<SalesFigures> result = new ArrayList<>(top);
+        result.sort(byRevenue);
+        return result;
+    }
+
+    public SalesFigures getBook(Long bookId, int days) {
+        String bookKey = String.valueOf(bookId);
+        return sum(bookKey, figures.get(key(SalesAggregateRepository.BOOK, bookKey)), clampDays(days));
+    }
+
+    // Days that fell out of the window are only kept in sales_daily
+    @Scheduled(cron = "${sales.stats.prune-cron:0 5 * * * *}")
+    public void prune() {
+        LocalDate start = windowStart();
+        figures.values().forEach(byDay -> byDay.keySet().removeIf(day -> day.isBefore(start)));
+        figures.values().removeIf(Map::isEmpty);
+    }
+
+    private List<SalesAggregate> rollUp(Order order) {
+        LocalDate day = order.getCreatedAt().toLocalDate();
+        Map<String, SalesAggregate> deltas = new LinkedHashMap<>();
+        for (OrderItem item : order.getOrderItems()) {
+            String genre = item.getBook().getGenreTag() == null ? "" : item.getBook().getGenreTag();
+            add(deltas, SalesAggregateRepository.TOTAL, "", day, item);
+            add(deltas, SalesAggregateRepository.GENRE, genre, day, item);
+            add(deltas, SalesAggregateRepository.BOOK, String.valueOf(item.getBook().getId()), day, item);
+        }
+        return new ArrayList<>(deltas.values());
+    }
+
+    // An order counts once per dimension key however many of its items fall under it
+    private static void add(Map<String, SalesAggregate> deltas, String dimension, String dimensionKey,
+            LocalDate day, OrderItem item) {
+        SalesAggregate delta = deltas.computeIfAbsent(key(dimension, dimensionKey),
+                k -> SalesAggregate.builder().dimension(dimension).dimensionKey(dimensionKey).salesDate(day)
+                        .orderCount(1).build());
+        delta.setRevenue(delta.getRevenue() + item.getPrice() * item.getQuantity());
+        delta.setUnits(delta.getUnits() + item.getQuantity());
+    }
+
+    private void record(List<SalesAggregate> deltas, int sign) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<SalesAggregate> signed = new ArrayList<>(deltas.size());
+        for (SalesAggregate delta : deltas) {
+            signed.add(SalesAggregate.builder()
+                    .dimension(delta.getDimension())
+                    .dimensionKey(delta.getDimensionKey())
+                    .salesDate(delta.getSalesDate())
+                    .revenue(sign * delta.getRevenue())
+                    .units(sign * delta.getUnits())
+                    .orderCount(sign * delta.getOrderCount())
+                    .build());
+        }
+        salesAggregateRepository.upsert(signed);
+        // Counters only move once the rows have committed
+        afterCommit(() -> signed.forEach(delta -> apply(delta)));
+        logger.debug("Recorded {} sales deltas (sign {})", signed.size(), sign);
+    }
+
+    private void apply(SalesAggregate row) {
+        if (row.getSalesDate().isBefore(windowStart())) {
+            return;
+        }
+        Figures dayFigures = figures
+                .computeIfAbsent(key(row.getDimension(), row.getDimensionKey()), k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(row.getSalesDate(), d -> new Figures());
+        dayFigures.revenue.add(row.getRevenue());
+        dayFigures.units.add(row.getUnits());
+        dayFigures.orders.add(row.getOrderCount());
+    }
+
+    private Map<String, SalesFigures> totals(String dimension, int days) {
+        String prefix = dimension + "|";
+        int window = clampDays(days);
+        Map<String, SalesFigures> result = new HashMap<>();
+        figures.forEach((key, byDay) -> {
+            if (key.startsWith(prefix)) {
+                SalesFigures total = sum(key.substring(prefix.length()), byDay, window);
+                if (total.getOrders() != 0) {
+                    result.put(total.getKey(), total);
+                }
+            }
+        });
+        return result;
+    }
+
+    private static SalesFigures sum(String key, Map<LocalDate, Figures> byDay, int days) {
+        double revenue = 0;
+        long units = 0;
+        long orders = 0;
+        if (byDay != null) {
+            LocalDate today = LocalDate.now();
+            for (int i = 0; i < days; i++) {
+                Figures dayFigures = byDay.get(today.minusDays(i));
+                if (dayFigures != null) {
+                    revenue += dayFigures.revenue.sum();
+                    units += dayFigures.units.sum();
+                    orders += dayFigures.orders.sum();
+                }
+            }
+        }
+        return new SalesFigures(key, revenue, units, orders);
+    }
+
+    private int clampDays(int days) {
+        return Math.max(1, Math.min(days, memoryDays));
+    }
+
+    private LocalDate windowStart() {
+        return LocalDate.now().minusDays(memoryDays - 1L);
+    }
+
+    private static String key(String dimension, String dimensionKey) {
+        return dimension + "|" + dimensionKey;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static final class Figures {
+        private final DoubleAdder revenue = new DoubleAdder();
+        private final LongAdder units = new LongAdder();
+        private final LongAdder orders = new LongAdder();
+
+        private SalesFigures view(String key) {
+            return new SalesFigures(key, revenue.sum(), units.sum(), orders.sum());
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.BRS.BookRecomendation.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.BRS.BookRecomendation.Entities.Book;
+import com.BRS.BookRecomendation.events.BookChangedEvent;
+import com.BRS.BookRecomendation.repository.BookRepository;
+
+@Service
+public class SimilarBooksService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SimilarBooksService.class);
+
+    public static final int MAX_SIMILAR = 50;
+
+    private static final Set<String> STOP_WORDS = Set.of("a", "an", "and", "are", "as", "at", "be", "by", "for",
+            "from", "has", "he", "her", "his", "in", "is", "it", "its", "of", "on", "or", "she", "that", "the",
+            "their", "they", "this", "to", "was", "were", "who", "will", "with");
+
+    // Author and genre are single features but strong signals, so they outweigh any one description word
+    private static final float AUTHOR_WEIGHT = 3.0f;
+    private static final float GENRE_WEIGHT = 2.0f;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Value("${book.similar.dimensions:256}")
+    private int dimensions;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object rebuildMonitor = new Object();
+    private final AtomicBoolean changedSinceBuild = new AtomicBoolean();
+
+    private BookVectorStore store;
+
+    // IDF is fixed at build time; books changed in between are vectorised against it until the next rebuild
+    private Map<String, Float> idf = Map.of();
+    private float unseenIdf = 1.0f;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            logger.error("Failed to build similar-books vectors: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${book.similar.rebuild-interval-ms:600000}",
+            initialDelayString = "${book.similar.rebuild-interval-ms:600000}")
+    public void rebuildIfChanged() {
+        if (changedSinceBuild.get()) {
+            logger.debug("Books changed since the last similar-books build, rebuilding");
+            rebuild();
+        }
+    }
+
+    public void rebuild() {
+        synchronized (rebuildMonitor) {
+            changedSinceBuild.set(false);
+            long start = System.nanoTime();
+            List<Book> books = bookRepository.findAll();
+
+            List<List<String>> features = new ArrayList<>(books.size());
+            Map<String, Integer> documentFrequency = new HashMap<>();
+            for (Book book : books) {
+                List<String> bookFeatures = features(book);
+                features.add(bookFeatures);
+                bookFeatures.stream().distinct().forEach(f -> documentFrequency.merge(f, 1, Integer::sum));
+            }
+            Map<String, Float> freshIdf = new HashMap<>(documentFrequency.size() * 2);
+            for (Map.Entry<String, Integer> entry : documentFrequency.entrySet()) {
+                freshIdf.put(entry.getKey(), idf(books.size(), entry.getValue()));
+            }
+            float freshUnseenIdf = idf(books.size(), 1);
+
+            BookVectorStore fresh = new BookVectorStore(dimensions, books.size());
+            for (int i = 0; i < books.size(); i++) {
+                fresh.put(books.get(i).getId(), vectorize(features.get(i), freshIdf, freshUnseenIdf));
+            }
+
+            lock.writeLock().lock();
+            try {
+                store = fresh;
+                idf = freshIdf;
+                unseenIdf = freshUnseenIdf;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.info("Similar-books vectors built for {} books ({} features, {} dimensions) in {} ms",
+                    books.size(), freshIdf.size(), dimensions, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.getType() == BookChangedEvent.Type.STOCK) {
+            return;
+        }
+        synchronized (rebuildMonitor) {
+            lock.writeLock().lock();
+            try {
+                if (store == null) {
+                    return;
+                }
+                if (event.getType() == BookChangedEvent.Type.SAVED && event.getBook() != null) {
+                    store.put(event.getBookId(), vectorize(features(event.getBook()), idf, unseenIdf));
+                } else {
+                    store.remove(event.getBookId());
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            changedSinceBuild.set(true);
+        }
+        logger.debug("Similar-books vector updated for book ID: {} ({})", event.getBookId(), event.getType());
+    }
+
+    // Returns the ids of the most similar books, best match first
+    public List<Long> getSimilar(Long bookId, int limit) {
+        lock.readLock().lock();
+        try {
+            if (store == null) {
+                return List.of();
+            }
+            long[] similar = store.mostSimilar(bookId, limit);
+            List<Long> result = new ArrayList<>(similar.length);
+            for (long id : similar) {
+                result.add(id);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static List<String> features(Book book) {
+        List<String> features = new ArrayList<>();
+        for (String token : BookSearchIndex.tokenize(book.getDescription())) {
+            if (token.length() > 1 && !STOP_WORDS.contains(token)) {
+                features.add(token);
+            }
+        }
+        String author = BookSuggestionService.normalize(book.getAuthor());
+        if (!author.isEmpty()) {
+            features.add("author:" + author);
+        }
+        String genre = BookSuggestionService.normalize(book.getGenreTag());
+        if (!genre.isEmpty()) {
+            features.add("genre:" + genre);
+        }
+        return features;
+    }
+
+    // Hashed TF-IDF: each feature lands in one bucket with a hash-derived sign so collisions tend to cancel
+    private float[] vectorize(List<String> features, Map<String, Float> idf, float unseenIdf) {
+        Map<String, Integer> termFrequency = new HashMap<>();
+        for (String feature : features) {
+            termFrequency.merge(feature, 1, Integer::sum);
+        }
+        float[] vector = new float[dimensions];
+        for (Map.Entry<String, Integer> entry : termFrequency.entrySet()) {
+            String feature = entry.getKey();
+            float weight = (float) (1 + Math.log(entry.getValue())) * idf.getOrDefault(feature, unseenIdf);
+            if (feature.startsWith("author:")) {
+                weight *= AUTHOR_WEIGHT;
+            } else if (feature.startsWith("genre:")) {
+                weight *= GENRE_WEIGHT;
+            }
+            int hash = mix(feature.hashCode());
+            int bucket = Math.floorMod(hash, dimensions);
+            vector[bucket] += hash < 0 ? -weight : weight;
+        }
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        if (norm > 0) {
+            float scale = (float) (1 / Math.sqrt(norm));
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] *= scale;
+            }
+        }
+        return vector;
+    }
+
+    private static float idf(int documents, int frequency) {
+        return (float) Math.log((1.0 + documents) / (1.0 + frequency)) + 1;
+    }
+
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        return h;
+    }
+}
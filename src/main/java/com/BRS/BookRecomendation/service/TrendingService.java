@@ -0,0 +1,167 @@
+package com.BRS.BookRecomendation.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.BRS.BookRecomendation.Entities.OrderItem;
+import com.BRS.BookRecomendation.events.OrderPlacedEvent;
+import com.BRS.BookRecomendation.util.LongIntHashMap;
+import com.BRS.BookRecomendation.util.TopK;
+
+import jakarta.annotation.PostConstruct;
+
+@Service
+public class TrendingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrendingService.class);
+
+    public static final int MAX_TRENDING = 50;
+
+    private static final int WISHLIST_WEIGHT = 1;
+    private static final int CART_WEIGHT = 2;
+    private static final int PURCHASE_WEIGHT = 3;
+
+    // Scores that decay below this are dropped on the next compaction
+    private static final double MIN_SCORE = 0.01;
+
+    @Value("${trending.bucket-interval-ms:5000}")
+    private long bucketIntervalMs;
+
+    @Value("${trending.half-life-minutes:60}")
+    private long halfLifeMinutes;
+
+    private double decayPerBucket;
+
+    // Writers only touch the open bucket; LongAdder spreads contended increments over cells
+    private final AtomicReference<ConcurrentHashMap<Long, LongAdder>> openBucket =
+            new AtomicReference<>(new ConcurrentHashMap<>());
+
+    // Retired one tick before it is folded in, so writers that raced the swap have finished
+    private ConcurrentHashMap<Long, LongAdder> retiredBucket = new ConcurrentHashMap<>();
+
+    // Decayed scores, only touched by the scheduler thread
+    private LongIntHashMap indexes = new LongIntHashMap(1024, -1);
+    private long[] bookIds = new long[1024];
+    private double[] scores = new double[1024];
+    private int size;
+
+    private volatile List<Long> trending = List.of();
+
+    @PostConstruct
+    public void init() {
+        decayPerBucket = Math.pow(0.5, (double) bucketIntervalMs / (halfLifeMinutes * 60_000.0));
+        logger.info("Trending counters use {} ms buckets with a {} minute half-life", bucketIntervalMs,
+                halfLifeMinutes);
+    }
+
+    public void recordWishlistAdd(Long bookId) {
+        record(bookId, WISHLIST_WEIGHT);
+    }
+
+    public void recordCartAdd(Long bookId) {
+        record(bookId, CART_WEIGHT);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        for (OrderItem item : event.getOrder().getOrderItems()) {
+            record(item.getBook().getId(), PURCHASE_WEIGHT);
+        }
+    }
+
+    private void record(Long bookId, int weight) {
+        ConcurrentHashMap<Long, LongAdder> bucket = openBucket.get();
+        LongAdder counter = bucket.get(bookId);
+        if (counter == null) {
+            counter = bucket.computeIfAbsent(bookId, id -> new LongAdder());
+        }
+        counter.add(weight);
+    }
+
+    public List<Long> getTrending(int limit) {
+        List<Long> current = trending;
+        return current.size() <= limit ? current : current.subList(0, limit);
+    }
+
+    @Scheduled(fixedRateString = "${trending.bucket-interval-ms:5000}")
+    public void rotate() {
+        ConcurrentHashMap<Long, LongAdder> closing = openBucket.getAndSet(new ConcurrentHashMap<>());
+        ConcurrentHashMap<Long, LongAdder> folding = retiredBucket;
+        retiredBucket = closing;
+
+        int live = 0;
+        for (int i = 0; i < size; i++) {
+            scores[i] *= decayPerBucket;
+            if (scores[i] >= MIN_SCORE) {
+                live++;
+            }
+        }
+        if (live < size / 2) {
+            compact();
+        }
+        for (Map.Entry<Long, LongAdder> entry : folding.entrySet()) {
+            scores[indexOf(entry.getKey())] += entry.getValue().sum();
+        }
+
+        TopK top = new TopK(MAX_TRENDING);
+        for (int i = 0; i < size; i++) {
+            if (scores[i] >= MIN_SCORE) {
+                top.offer(i, scores[i]);
+            }
+        }
+        int[] best = top.drainDescending();
+        List<Long> fresh = new ArrayList<>(best.length);
+        for (int index : best) {
+            fresh.add(bookIds[index]);
+        }
+        trending = List.copyOf(fresh);
+        if (!folding.isEmpty()) {
+            logger.debug("Trending refreshed from {} active books, tracking {}", folding.size(), size);
+        }
+    }
+
+    private int indexOf(long bookId) {
+        int index = indexes.get(bookId);
+        if (index >= 0) {
+            return index;
+        }
+        if (size == bookIds.length) {
+            bookIds = Arrays.copyOf(bookIds, size * 2);
+            scores = Arrays.copyOf(scores, size * 2);
+        }
+        index = size++;
+        indexes.put(bookId, index);
+        bookIds[index] = bookId;
+        scores[index] = 0;
+        return index;
+    }
+
+    // Drops books whose score has decayed away; the primitive map has no removal, so it is rebuilt
+    private void compact() {
+        LongIntHashMap freshIndexes = new LongIntHashMap(Math.max(1024, size), -1);
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (scores[i] >= MIN_SCORE) {
+                bookIds[kept] = bookIds[i];
+                scores[kept] = scores[i];
+                freshIndexes.put(bookIds[kept], kept);
+                kept++;
+            }
+        }
+        logger.debug("Trending counters compacted from {} to {} books", size, kept);
+        indexes = freshIndexes;
+        size = kept;
+    }
+}
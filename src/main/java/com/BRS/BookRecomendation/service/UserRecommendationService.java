@@ -0,0 +1,147 @@
+package com.BRS.BookRecomendation.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.BRS.BookRecomendation.DTO.Status;
+import com.BRS.BookRecomendation.repository.CartRepository;
+import com.BRS.BookRecomendation.repository.OrderItemRepository;
+import com.BRS.BookRecomendation.repository.WishlistRepository;
+
+import jakarta.annotation.PreDestroy;
+
+@Service
+public class UserRecommendationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserRecommendationService.class);
+
+    private static final List<Status> EXCLUDED_STATUSES = List.of(Status.CANCELLED, Status.FAILED);
+
+    public static final int MAX_RECOMMENDATIONS = 50;
+
+    // Implicit feedback strength per signal; a purchase says more than a wishlist entry
+    private static final float WISHLIST_WEIGHT = 1.0f;
+    private static final float CART_WEIGHT = 2.0f;
+    private static final float PURCHASE_WEIGHT = 3.0f;
+    private static final float MAX_WEIGHT = 6.0f;
+
+    @Autowired
+    private WishlistRepository wishlistRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${recommendations.user.neighbours:50}")
+    private int neighbours;
+
+    @Value("${recommendations.user.top-n:50}")
+    private int topN;
+
+    @Value("${recommendations.user.training-threads:0}")
+    private int trainingThreads;
+
+    private final AtomicReference<ItemKnnTrainer.Model> model = new AtomicReference<>(ItemKnnTrainer.Model.empty());
+
+    private final AtomicBoolean trainingRunning = new AtomicBoolean();
+    private final ExecutorService trainingExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "user-recommendations-training");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void trainOnStartup() {
+        requestTraining();
+    }
+
+    @Scheduled(initialDelayString = "${recommendations.user.retrain-interval-ms:3600000}",
+            fixedDelayString = "${recommendations.user.retrain-interval-ms:3600000}")
+    public void scheduledTraining() {
+        requestTraining();
+    }
+
+    public boolean requestTraining() {
+        if (!trainingRunning.compareAndSet(false, true)) {
+            logger.info("User recommendation training already in progress");
+            return false;
+        }
+        trainingExecutor.submit(this::train);
+        return true;
+    }
+
+    private void train() {
+        long start = System.nanoTime();
+        int parallelism = trainingThreads > 0 ? trainingThreads : Runtime.getRuntime().availableProcessors();
+        // A dedicated pool keeps training off the common pool used by request threads
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            ItemKnnTrainer trainer = new ItemKnnTrainer();
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.setReadOnly(true);
+            transaction.executeWithoutResult(status -> {
+                try (Stream<Object[]> rows = wishlistRepository.streamUserBookPairs()) {
+                    rows.forEach(row -> trainer.add((Long) row[0], (Long) row[1], WISHLIST_WEIGHT));
+                }
+                try (Stream<Object[]> rows = cartRepository.streamUserBookPairs()) {
+                    rows.forEach(row -> trainer.add((Long) row[0], (Long) row[1], CART_WEIGHT));
+                }
+                try (Stream<Object[]> rows = orderItemRepository.streamUserBookPairs(EXCLUDED_STATUSES)) {
+                    rows.forEach(row -> trainer.add((Long) row[0], (Long) row[1], PURCHASE_WEIGHT));
+                }
+            });
+            long loaded = System.nanoTime();
+
+            ItemKnnTrainer.Model trained = trainer.train(pool, neighbours, topN, MAX_WEIGHT);
+            model.set(trained);
+            logger.info("User recommendations trained for {} users from {} interactions (load {} ms, train {} ms, {} threads)",
+                    trained.userCount(), trainer.interactionCount(), (loaded - start) / 1_000_000,
+                    (System.nanoTime() - loaded) / 1_000_000, parallelism);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("User recommendation training interrupted");
+        } catch (Exception e) {
+            logger.error("User recommendation training failed, keeping previous model: {}", e.getMessage());
+        } finally {
+            pool.shutdownNow();
+            trainingRunning.set(false);
+        }
+    }
+
+    public List<Long> getRecommendations(Long userId, int limit) {
+        long[] bookIds = model.get().recommendationsFor(userId);
+        int size = Math.max(1, Math.min(limit, MAX_RECOMMENDATIONS));
+        List<Long> result = new ArrayList<>(Math.min(size, bookIds.length));
+        for (int i = 0; i < bookIds.length && i < size; i++) {
+            result.add(bookIds[i]);
+        }
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        trainingExecutor.shutdownNow();
+    }
+}
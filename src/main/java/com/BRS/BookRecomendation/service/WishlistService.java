@@ -30,6 +30,9 @@ public class WishlistService {
     @Autowired
     private BookRepository bookRepository;
 
+    @Autowired
+    private TrendingService trendingService;
+
     // Wishlist operations
     public void addToWishlist(Long userId, Long bookId) {
         logger.info("Attempting to add book ID: {} to wishlist for user: {}", bookId, userId);
@@ -52,6 +55,7 @@ public class WishlistService {
                         .build();
 
                 wishlistRepository.save(wishlist);
+                trendingService.recordWishlistAdd(bookId);
                 logger.info("Successfully added book ID: {} to wishlist for user: {}", bookId, userId);
             } catch (Exception e) {
                 logger.error("Failed to add book to wishlist: {}", e.getMessage());
@@ -0,0 +1,32 @@
+package com.BRS.BookRecomendation.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Dictionary encoding for repeated strings: each distinct value is stored once and rows keep its int code
+public class StringDictionary {
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    public int encode(String value) {
+        String key = value == null ? "" : value;
+        Integer code = codes.get(key);
+        if (code == null) {
+            code = values.size();
+            codes.put(key, code);
+            values.add(key);
+        }
+        return code;
+    }
+
+    public String decode(int code) {
+        return values.get(code);
+    }
+
+    public int size() {
+        return values.size();
+    }
+}
@@ -0,0 +1,77 @@
+package com.BRS.BookRecomendation.DTO;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.NullSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class StatusTests {
+
+	// Every allowed move; any pair not listed here must be rejected
+	private static final Map<Status, Set<Status>> ALLOWED = new EnumMap<>(Status.class);
+
+	static {
+		ALLOWED.put(Status.PENDING, EnumSet.of(Status.CONFIRMED, Status.PROCESSING, Status.CANCELLED, Status.FAILED));
+		ALLOWED.put(Status.CONFIRMED, EnumSet.of(Status.PROCESSING, Status.SHIPPED, Status.CANCELLED, Status.FAILED));
+		// Back to CONFIRMED when a fulfilment worker releases its claim
+		ALLOWED.put(Status.PROCESSING, EnumSet.of(Status.CONFIRMED, Status.SHIPPED, Status.CANCELLED, Status.FAILED));
+		ALLOWED.put(Status.SHIPPED, EnumSet.of(Status.OUT_FOR_DELIVERY, Status.DELIVERED, Status.FAILED));
+		ALLOWED.put(Status.OUT_FOR_DELIVERY, EnumSet.of(Status.DELIVERED, Status.FAILED));
+		ALLOWED.put(Status.DELIVERED, EnumSet.of(Status.RETURN_REQUESTED));
+		ALLOWED.put(Status.RETURN_REQUESTED, EnumSet.of(Status.RETURNED, Status.DELIVERED));
+		ALLOWED.put(Status.RETURNED, EnumSet.of(Status.REFUNDED));
+		ALLOWED.put(Status.FAILED, EnumSet.of(Status.REFUNDED));
+		ALLOWED.put(Status.CANCELLED, EnumSet.of(Status.REFUNDED));
+		ALLOWED.put(Status.REFUNDED, EnumSet.noneOf(Status.class));
+	}
+
+	@Test
+	void canTransitionToMatchesTheTable() {
+		for (Status from : Status.values()) {
+			for (Status to : Status.values()) {
+				assertEquals(ALLOWED.get(from).contains(to), from.canTransitionTo(to), from + " -> " + to);
+			}
+		}
+	}
+
+	@ParameterizedTest
+	@CsvSource({
+			"PROCESSING, CONFIRMED, true",
+			"CONFIRMED, CANCELLED, true",
+			"PROCESSING, CANCELLED, true",
+			"SHIPPED, CANCELLED, false",
+			"DELIVERED, PENDING, false",
+			"REFUNDED, REFUNDED, false"
+	})
+	void pinnedMoves(Status from, Status to, boolean allowed) {
+		assertEquals(allowed, from.canTransitionTo(to));
+	}
+
+	@ParameterizedTest
+	@CsvSource({
+			"shipped, SHIPPED",
+			"Shipped, SHIPPED",
+			"'  out_for_delivery ', OUT_FOR_DELIVERY",
+			"Return_Requested, RETURN_REQUESTED"
+	})
+	void parseIgnoresCaseAndSurroundingSpace(String value, Status expected) {
+		assertEquals(expected, Status.parse(value));
+	}
+
+	@ParameterizedTest
+	@NullSource
+	@ValueSource(strings = { "", "   ", "SHIPPING", "out for delivery" })
+	void parseReturnsNullForUnknownValues(String value) {
+		assertNull(Status.parse(value));
+	}
+
+}
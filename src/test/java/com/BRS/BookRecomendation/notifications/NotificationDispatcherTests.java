@@ -0,0 +1,114 @@
+package com.BRS.BookRecomendation.notifications;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.BRS.BookRecomendation.service.OutboxService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class NotificationDispatcherTests {
+
+	private static final Notification NOTIFICATION = new Notification(Notification.Type.ORDER_CONFIRMATION, 1L,
+			"reader", "Your order #7 is confirmed", "Order ID: 7");
+
+	private NotificationSink sink;
+	private OutboxService outboxService;
+	private SimpleMeterRegistry meterRegistry;
+	private NotificationDispatcher dispatcher;
+
+	@BeforeEach
+	void createDispatcher() {
+		sink = mock(NotificationSink.class);
+		outboxService = mock(OutboxService.class);
+		meterRegistry = new SimpleMeterRegistry();
+		dispatcher = new NotificationDispatcher();
+		ReflectionTestUtils.setField(dispatcher, "sink", sink);
+		ReflectionTestUtils.setField(dispatcher, "meterRegistry", meterRegistry);
+		ReflectionTestUtils.setField(dispatcher, "outboxService", outboxService);
+		ReflectionTestUtils.setField(dispatcher, "queueCapacity", 10);
+		ReflectionTestUtils.setField(dispatcher, "workerCount", 1);
+		ReflectionTestUtils.setField(dispatcher, "batchSize", 5);
+		ReflectionTestUtils.setField(dispatcher, "enqueueTimeoutMs", 1L);
+		ReflectionTestUtils.setField(dispatcher, "maxAttempts", 3);
+		ReflectionTestUtils.setField(dispatcher, "retryBackoffMs", 1L);
+	}
+
+	@AfterEach
+	void stopDispatcher() {
+		dispatcher.shutdown();
+	}
+
+	@Test
+	void aBatchThatFailsOnceIsRetriedAndItsOutboxRowAcknowledged() throws Exception {
+		doThrow(new RuntimeException("sink busy")).doNothing().when(sink).deliver(anyList());
+		dispatcher.start();
+
+		assertTrue(dispatcher.submitFromOutbox(NOTIFICATION, 7L));
+
+		verify(outboxService, timeout(5000)).acknowledge(List.of(7L));
+		verify(sink, times(2)).deliver(List.of(NOTIFICATION));
+		verify(outboxService, never()).retryLater(any(), any());
+		assertEquals(1, meterRegistry.counter("notifications.processed", "result", "delivered").count());
+	}
+
+	@Test
+	void aBatchThatKeepsFailingIsHandedBackToTheOutbox() throws Exception {
+		doThrow(new RuntimeException("sink down")).when(sink).deliver(anyList());
+		dispatcher.start();
+
+		assertTrue(dispatcher.submitFromOutbox(NOTIFICATION, 7L));
+
+		verify(outboxService, timeout(5000)).retryLater(List.of(7L), "sink down");
+		verify(sink, times(3)).deliver(anyList());
+		verify(outboxService, never()).acknowledge(any());
+		assertEquals(1, meterRegistry.counter("notifications.processed", "result", "failed").count());
+	}
+
+	@Test
+	void directSubmissionsHaveNothingToSettle() throws Exception {
+		doNothing().when(sink).deliver(anyList());
+		dispatcher.start();
+
+		assertTrue(dispatcher.submit(NOTIFICATION));
+
+		verify(sink, timeout(5000)).deliver(List.of(NOTIFICATION));
+		dispatcher.shutdown();
+		verifyNoInteractions(outboxService);
+	}
+
+	@Test
+	void aFullQueueRejectsInsteadOfBlocking() {
+		// No workers, so nothing drains the single slot
+		ReflectionTestUtils.setField(dispatcher, "queueCapacity", 1);
+		ReflectionTestUtils.setField(dispatcher, "workerCount", 0);
+		dispatcher.start();
+
+		assertTrue(dispatcher.submit(NOTIFICATION));
+		assertFalse(dispatcher.submit(NOTIFICATION));
+		assertFalse(dispatcher.submitFromOutbox(NOTIFICATION, 7L));
+
+		assertEquals(1, dispatcher.getQueueDepth());
+		assertEquals(2, meterRegistry.counter("notifications.processed", "result", "rejected").count());
+		verifyNoInteractions(sink);
+	}
+
+}
@@ -0,0 +1,108 @@
+package com.BRS.BookRecomendation.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.BRS.BookRecomendation.Entities.Book;
+import com.BRS.BookRecomendation.events.OutboxMessage;
+import com.BRS.BookRecomendation.repository.BookRepository;
+import com.BRS.BookRecomendation.repository.WishlistRepository;
+
+class BackInStockServiceTests {
+
+	private WishlistRepository wishlistRepository;
+	private BookRepository bookRepository;
+	private NotificationService notificationService;
+	private BackInStockService service;
+
+	@BeforeEach
+	void createService() {
+		wishlistRepository = mock(WishlistRepository.class);
+		bookRepository = mock(BookRepository.class);
+		notificationService = mock(NotificationService.class);
+		service = new BackInStockService();
+		ReflectionTestUtils.setField(service, "wishlistRepository", wishlistRepository);
+		ReflectionTestUtils.setField(service, "bookRepository", bookRepository);
+		ReflectionTestUtils.setField(service, "notificationService", notificationService);
+		ReflectionTestUtils.setField(service, "inventoryLedger", mock(InventoryLedger.class));
+		ReflectionTestUtils.setField(service, "pageSize", 2);
+		ReflectionTestUtils.setField(service, "cooldownMinutes", 60L);
+	}
+
+	@AfterEach
+	void stopService() {
+		service.shutdown();
+	}
+
+	@Test
+	void aRestockInsideTheCooldownIsSkipped() {
+		assertTrue(service.requestFanOut(1L));
+		assertFalse(service.requestFanOut(1L));
+		assertTrue(service.requestFanOut(2L));
+	}
+
+	@Test
+	void withoutACooldownEveryRestockFansOut() {
+		ReflectionTestUtils.setField(service, "cooldownMinutes", 0L);
+
+		assertTrue(service.requestFanOut(1L));
+		assertTrue(service.requestFanOut(1L));
+	}
+
+	@Test
+	void onlyAMoveFromSoldOutToInStockFansOut() {
+		service.onOutboxMessage(stockChange(1L, 0, 4));
+		service.onOutboxMessage(stockChange(2L, 3, 5));
+		service.onOutboxMessage(stockChange(3L, 2, 0));
+		service.onOutboxMessage(new OutboxMessage(1L, OutboxService.ORDER_PLACED, 4L, Map.of()));
+
+		// A claimed book is inside its cooldown, an unclaimed one is not
+		assertFalse(service.requestFanOut(1L));
+		assertTrue(service.requestFanOut(2L));
+		assertTrue(service.requestFanOut(3L));
+		assertTrue(service.requestFanOut(4L));
+	}
+
+	@Test
+	void wishlistersAreNotifiedPageByPage() {
+		when(bookRepository.findById(1L))
+				.thenReturn(Optional.of(Book.builder().id(1L).title("Dune").stockQuantity(5).build()));
+		when(wishlistRepository.findWishlisterPage(eq(1L), eq(0L), any(Pageable.class)))
+				.thenReturn(List.of(new Object[] { 10L, "ann" }, new Object[] { 11L, "bob" }));
+		when(wishlistRepository.findWishlisterPage(eq(1L), eq(11L), any(Pageable.class)))
+				.thenReturn(List.<Object[]>of(new Object[] { 12L, "cy" }));
+		when(notificationService.sendStockNotification(anyLong(), anyString(), anyLong(), anyString(), anyLong()))
+				.thenReturn(true);
+
+		assertTrue(service.requestFanOut(1L));
+
+		verify(notificationService, timeout(5000)).sendStockNotification(eq(12L), eq("cy"), eq(1L), eq("Dune"),
+				anyLong());
+		verify(notificationService).sendStockNotification(eq(10L), eq("ann"), eq(1L), eq("Dune"), anyLong());
+		verify(notificationService).sendStockNotification(eq(11L), eq("bob"), eq(1L), eq("Dune"), anyLong());
+	}
+
+	private static OutboxMessage stockChange(Long bookId, int previousStock, int newStock) {
+		return new OutboxMessage(bookId, OutboxService.STOCK_CHANGED, bookId,
+				Map.of("bookId", bookId, "previousStock", previousStock, "newStock", newStock));
+	}
+
+}
@@ -0,0 +1,96 @@
+package com.BRS.BookRecomendation.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+
+import com.BRS.BookRecomendation.DTO.BookSort;
+import com.BRS.BookRecomendation.Entities.Book;
+
+class BookCursorsTests {
+
+	private static final Book LAST = Book.builder()
+			.id(7L)
+			.title("Pipes | and bars")
+			.price(12.5)
+			.rating(4.25)
+			.build();
+
+	@Test
+	void roundTripsEverySortKey() {
+		assertEquals(Map.of("rating", 4.25, "id", 7L), roundTrip(BookSort.RATING));
+		assertEquals(Map.of("price", 12.5, "id", 7L), roundTrip(BookSort.PRICE));
+		assertEquals(Map.of("title", "Pipes | and bars", "id", 7L), roundTrip(BookSort.TITLE));
+		assertEquals(Map.of("id", 7L), roundTrip(BookSort.ID));
+		assertEquals(Map.of("id", 7L), roundTrip(BookSort.RELEVANCE));
+	}
+
+	@Test
+	void positionsAndBooksEncodeAlike() {
+		ScrollPosition position = ScrollPosition.forward(Map.of("rating", 4.25, "id", 7L));
+		assertEquals(BookCursors.encode(BookSort.RATING, LAST), BookCursors.encode(BookSort.RATING, position));
+	}
+
+	@ParameterizedTest
+	@NullSource
+	@ValueSource(strings = { "", "  " })
+	void noCursorStartsAtTheBeginning(String cursor) {
+		assertTrue(BookCursors.decode(cursor, BookSort.RATING).isInitial());
+		assertTrue(BookCursors.decode(cursor, BookSort.RELEVANCE).isInitial());
+	}
+
+	@Test
+	void rejectsCursorsIssuedForAnotherSort() {
+		String cursor = BookCursors.encode(BookSort.PRICE, LAST);
+		assertThrows(IllegalArgumentException.class, () -> BookCursors.decode(cursor, BookSort.RATING));
+	}
+
+	@Test
+	void missingTitlesRoundTripAsNull() {
+		Book untitled = Book.builder().id(9L).build();
+		Map<String, Object> keys = BookCursors.decode(BookCursors.encode(BookSort.TITLE, untitled), BookSort.TITLE)
+				.getKeys();
+		assertTrue(keys.containsKey("title"));
+		assertNull(keys.get("title"));
+		assertEquals(9L, keys.get("id"));
+
+		Book titledNull = Book.builder().id(9L).title("null").build();
+		assertEquals("null", BookCursors.decode(BookCursors.encode(BookSort.TITLE, titledNull), BookSort.TITLE)
+				.getKeys().get("title"));
+		Book titledEmpty = Book.builder().id(9L).title("").build();
+		assertEquals("", BookCursors.decode(BookCursors.encode(BookSort.TITLE, titledEmpty), BookSort.TITLE)
+				.getKeys().get("title"));
+	}
+
+	@Test
+	void searchHitsCarryTheirScore() {
+		String cursor = BookCursors.encode(BookSort.RELEVANCE, BookCursors.position(3.75, 7L));
+		assertEquals(Map.of("score", 3.75, "id", 7L), BookCursors.decode(cursor, BookSort.RELEVANCE).getKeys());
+	}
+
+	@Test
+	void rejectsMalformedCursors() {
+		assertThrows(IllegalArgumentException.class, () -> BookCursors.decode("not a cursor!", BookSort.ID));
+		// Ratings are never null, so a rating cursor without one was not issued here
+		String noRating = Base64.getUrlEncoder().encodeToString("RATING|7".getBytes(StandardCharsets.UTF_8));
+		assertThrows(IllegalArgumentException.class, () -> BookCursors.decode(noRating, BookSort.RATING));
+	}
+
+	private static Map<String, Object> roundTrip(BookSort sort) {
+		KeysetScrollPosition position = BookCursors.decode(BookCursors.encode(sort, LAST), sort);
+		return position.getKeys();
+	}
+
+}
@@ -0,0 +1,108 @@
+package com.BRS.BookRecomendation.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.NullSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.BRS.BookRecomendation.DTO.BookSort;
+import com.BRS.BookRecomendation.Entities.Book;
+import com.BRS.BookRecomendation.events.BookChangedEvent;
+import com.BRS.BookRecomendation.repository.BookRepository;
+
+class BookSearchIndexTests {
+
+	@ParameterizedTest
+	@CsvSource({
+			"'Cien Años de Soledad', cien anos de soledad",
+			"'Harry Potter & the Half-Blood Prince', harry potter the half blood prince",
+			"'  Brontë,   Charlotte ', bronte charlotte",
+			"'1984', 1984",
+			"'R2-D2: A Guide', r2 d2 a guide",
+			"'ÉLAN vital', elan vital"
+	})
+	void tokenizeLowercasesAndDropsAccentsAndPunctuation(String text, String expected) {
+		assertEquals(expected, String.join(" ", BookSearchIndex.tokenize(text)));
+	}
+
+	@ParameterizedTest
+	@NullSource
+	@ValueSource(strings = { "", "   ", "--- !!! ---" })
+	void tokenizeFindsNoTermsInBlankText(String text) {
+		assertTrue(BookSearchIndex.tokenize(text).isEmpty());
+	}
+
+	@Test
+	void relevancePagesFollowOnWhenABookIsAddedAhead() {
+		BookSearchIndex index = index(
+				book(1L, "Dragon", null),
+				book(2L, "Dragon Fire", null),
+				book(3L, "Dragon Fire Ice", null),
+				book(4L, "Dragon Fire Ice Wind", null),
+				book(5L, "Dragon Fire Ice Wind Rain", null));
+
+		Window<Long> first = index.search("dragon", 100, BookSort.RELEVANCE, ScrollPosition.keyset(), 2);
+		assertEquals(List.of(1L, 2L), first.getContent());
+		String cursor = BookCursors.encode(BookSort.RELEVANCE, first.positionAt(first.size() - 1));
+
+		// Ranks second, and shifts every score a little
+		index.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.SAVED, 6L, book(6L, "Dragon", null)));
+
+		Window<Long> second = index.search("dragon", 100, BookSort.RELEVANCE,
+				BookCursors.decode(cursor, BookSort.RELEVANCE), 2);
+		assertEquals(List.of(3L, 4L), second.getContent());
+		assertTrue(second.hasNext());
+	}
+
+	@Test
+	void titlePagesContinuePastUntitledBooks() {
+		BookSearchIndex index = index(
+				book(1L, "Beta", "Dragon Author"),
+				book(2L, null, "Dragon Author"),
+				book(3L, "alpha", "Dragon Author"));
+
+		Window<Long> first = index.search("dragon", 100, BookSort.TITLE, ScrollPosition.keyset(), 1);
+		assertEquals(List.of(2L), first.getContent());
+		String cursor = BookCursors.encode(BookSort.TITLE, first.positionAt(0));
+
+		Window<Long> rest = index.search("dragon", 100, BookSort.TITLE, BookCursors.decode(cursor, BookSort.TITLE),
+				10);
+		assertEquals(List.of(3L, 1L), rest.getContent());
+	}
+
+	@Test
+	void relevanceCursorsFromTheDatabaseAreRejected() {
+		BookSearchIndex index = index(book(1L, "Dragon", null));
+		String listing = BookCursors.encode(BookSort.RELEVANCE, book(1L, "Dragon", null));
+
+		assertThrows(IllegalArgumentException.class, () -> index.search("dragon", 100, BookSort.RELEVANCE,
+				BookCursors.decode(listing, BookSort.RELEVANCE), 10));
+	}
+
+	private static BookSearchIndex index(Book... books) {
+		BookRepository repository = mock(BookRepository.class);
+		when(repository.findAll()).thenReturn(List.of(books));
+		BookSearchIndex index = new BookSearchIndex();
+		ReflectionTestUtils.setField(index, "bookRepository", repository);
+		ReflectionTestUtils.setField(index, "enabled", true);
+		index.buildIndex();
+		return index;
+	}
+
+	private static Book book(Long id, String title, String author) {
+		return Book.builder().id(id).title(title).author(author).build();
+	}
+
+}
@@ -0,0 +1,73 @@
+package com.BRS.BookRecomendation.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Per-query cost of the brute-force similar-books scan on synthetic catalogs. Vectors look like what
+// SimilarBooksService builds: a few dozen signed hashed features per book, L2-normalised. Only runs with
+// mvn test -Dtest=BookVectorStoreBenchmarkTests -Dbenchmark=true
+// adding -Djava.util.concurrent.ForkJoinPool.common.parallelism=1 to the surefire argLine pins the
+// parallel scan of large catalogs to one worker.
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class BookVectorStoreBenchmarkTests {
+
+	private static final Logger logger = LoggerFactory.getLogger(BookVectorStoreBenchmarkTests.class);
+
+	private static final int DIMENSIONS = 256;
+	private static final int FEATURES_PER_BOOK = 40;
+	private static final int TOP = 10;
+	private static final int WARMUP_QUERIES = 200;
+	private static final int QUERIES = 500;
+
+	@ParameterizedTest
+	@ValueSource(ints = { 10_000, 100_000, 200_000 })
+	void mostSimilar(int books) {
+		SplittableRandom random = new SplittableRandom(42);
+		BookVectorStore store = new BookVectorStore(DIMENSIONS, books);
+		for (long bookId = 1; bookId <= books; bookId++) {
+			store.put(bookId, vector(random));
+		}
+
+		long checksum = 0;
+		for (int q = 0; q < WARMUP_QUERIES; q++) {
+			checksum += store.mostSimilar(1 + random.nextInt(books), TOP).length;
+		}
+		long started = System.nanoTime();
+		for (int q = 0; q < QUERIES; q++) {
+			checksum += store.mostSimilar(1 + random.nextInt(books), TOP).length;
+		}
+		double millisPerQuery = (System.nanoTime() - started) / 1e6 / QUERIES;
+
+		logger.info("BookVectorStore: {} books, {} dimensions, top-{}: {} ms per query over {} queries", books,
+				DIMENSIONS, TOP, String.format("%.2f", millisPerQuery), QUERIES);
+		assertEquals((long) TOP * (WARMUP_QUERIES + QUERIES), checksum);
+	}
+
+	private static float[] vector(SplittableRandom random) {
+		float[] vector = new float[DIMENSIONS];
+		for (int f = 0; f < FEATURES_PER_BOOK; f++) {
+			vector[random.nextInt(DIMENSIONS)] += random.nextBoolean() ? 1f : -1f;
+		}
+		double norm = 0;
+		for (float value : vector) {
+			norm += value * value;
+		}
+		if (norm == 0) {
+			vector[0] = 1f;
+			return vector;
+		}
+		float scale = (float) (1 / Math.sqrt(norm));
+		for (int d = 0; d < DIMENSIONS; d++) {
+			vector[d] *= scale;
+		}
+		return vector;
+	}
+
+}
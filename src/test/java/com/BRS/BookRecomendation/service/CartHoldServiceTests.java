@@ -0,0 +1,128 @@
+package com.BRS.BookRecomendation.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.BRS.BookRecomendation.Entities.Book;
+import com.BRS.BookRecomendation.Entities.Cart;
+import com.BRS.BookRecomendation.repository.BookStockRepository;
+import com.BRS.BookRecomendation.repository.CartRepository;
+
+// Outside a transaction holds are tracked and released straight away, which is what these tests rely on
+class CartHoldServiceTests {
+
+	private static final Long BOOK_ID = 10L;
+
+	private CartRepository cartRepository;
+	private BookStockRepository bookStockRepository;
+	private CartHoldService service;
+
+	@BeforeEach
+	void createService() {
+		cartRepository = mock(CartRepository.class);
+		bookStockRepository = mock(BookStockRepository.class);
+		service = new CartHoldService();
+		ReflectionTestUtils.setField(service, "cartRepository", cartRepository);
+		ReflectionTestUtils.setField(service, "bookStockRepository", bookStockRepository);
+		ReflectionTestUtils.setField(service, "inventoryLedger", mock(InventoryLedger.class));
+		ReflectionTestUtils.setField(service, "enabled", true);
+		ReflectionTestUtils.setField(service, "ttlMinutes", 15L);
+	}
+
+	@Test
+	void replacingAHoldCountsOnlyTheNewQuantity() {
+		when(bookStockRepository.findStock(BOOK_ID)).thenReturn(8);
+
+		service.track(service.withHold(cart(1L, 3)));
+		service.track(service.withHold(cart(1L, 5)));
+
+		assertEquals(5, service.getHeld(BOOK_ID));
+		assertEquals(3, service.availableToPromise(BOOK_ID));
+	}
+
+	@Test
+	void releaseGivesTheQuantityBackOnce() {
+		service.track(service.withHold(cart(1L, 2)));
+		service.track(service.withHold(cart(2L, 3)));
+
+		service.release(List.of(1L));
+		assertEquals(3, service.getHeld(BOOK_ID));
+		service.release(List.of(1L));
+		assertEquals(3, service.getHeld(BOOK_ID));
+		service.release(List.of(2L));
+		assertEquals(0, service.getHeld(BOOK_ID));
+	}
+
+	@Test
+	void expiredHoldsAreReleasedAndCleared() {
+		service.track(expired(cart(1L, 4)));
+		service.track(service.withHold(cart(2L, 1)));
+
+		service.sweep();
+
+		assertEquals(1, service.getHeld(BOOK_ID));
+		verify(cartRepository).clearExpiredHolds(eq(List.of(1L)), any(LocalDateTime.class));
+	}
+
+	@Test
+	void aReplacedHoldDoesNotExpireItsSuccessor() {
+		service.track(expired(cart(1L, 4)));
+		service.track(service.withHold(cart(1L, 2)));
+
+		service.sweep();
+
+		assertEquals(2, service.getHeld(BOOK_ID));
+		verify(cartRepository, never()).clearExpiredHolds(anyCollection(), any(LocalDateTime.class));
+	}
+
+	@Test
+	void aRowsOwnHoldCountsTowardsItsOwnRequest() {
+		when(bookStockRepository.findStock(BOOK_ID)).thenReturn(5);
+		Cart own = service.withHold(cart(1L, 3));
+		service.track(own);
+		service.track(service.withHold(cart(2L, 2)));
+
+		assertTrue(service.isAvailable(BOOK_ID, 3, own));
+		assertFalse(service.isAvailable(BOOK_ID, 4, own));
+		assertFalse(service.isAvailable(BOOK_ID, 1, null));
+		assertEquals(0, service.availableToPromise(BOOK_ID));
+	}
+
+	@Test
+	void unknownBooksHaveNothingToPromise() {
+		when(bookStockRepository.findStock(99L)).thenReturn(null);
+
+		assertEquals(-1, service.availableToPromise(99L));
+		assertFalse(service.isAvailable(99L, 1, null));
+	}
+
+	private static Cart cart(Long id, int quantity) {
+		return Cart.builder()
+				.id(id)
+				.book(Book.builder().id(BOOK_ID).build())
+				.quantity(quantity)
+				.build();
+	}
+
+	private static Cart expired(Cart cart) {
+		cart.setHeldQuantity(cart.getQuantity());
+		cart.setHoldExpiresAt(LocalDateTime.now().minusMinutes(1));
+		return cart;
+	}
+
+}
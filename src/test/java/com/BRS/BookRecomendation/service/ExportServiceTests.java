@@ -0,0 +1,138 @@
+package com.BRS.BookRecomendation.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.BRS.BookRecomendation.DTO.ExportFormat;
+import com.BRS.BookRecomendation.DTO.Status;
+import com.BRS.BookRecomendation.Entities.Genre;
+import com.BRS.BookRecomendation.Entities.Order;
+import com.BRS.BookRecomendation.Entities.UserInfo;
+import com.BRS.BookRecomendation.repository.GenreRepository;
+import com.BRS.BookRecomendation.repository.OrderRepository;
+import com.BRS.BookRecomendation.repository.UserInfoRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+
+class ExportServiceTests {
+
+	private GenreRepository genreRepository;
+	private OrderRepository orderRepository;
+	private UserInfoRepository userInfoRepository;
+	private EntityManager entityManager;
+	private ExportService service;
+
+	@BeforeEach
+	void createService() {
+		genreRepository = mock(GenreRepository.class);
+		orderRepository = mock(OrderRepository.class);
+		userInfoRepository = mock(UserInfoRepository.class);
+		entityManager = mock(EntityManager.class);
+		service = new ExportService();
+		ReflectionTestUtils.setField(service, "genreRepository", genreRepository);
+		ReflectionTestUtils.setField(service, "orderRepository", orderRepository);
+		ReflectionTestUtils.setField(service, "userInfoRepository", userInfoRepository);
+		ReflectionTestUtils.setField(service, "transactionManager", mock(PlatformTransactionManager.class));
+		ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+		ReflectionTestUtils.setField(service, "entityManager", entityManager);
+		ReflectionTestUtils.setField(service, "flushRows", 2);
+	}
+
+	@Test
+	void csvQuotesOnlyTheFieldsThatNeedIt() {
+		when(genreRepository.streamAllForExport()).thenReturn(Stream.of(
+				genre(1L, "plain"),
+				genre(2L, "sci-fi, space"),
+				genre(3L, "the \"classics\""),
+				genre(4L, "two\nlines"),
+				genre(5L, "carriage\rreturn"),
+				genre(6L, null)));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		assertEquals(6, service.exportGenres(out, ExportFormat.CSV));
+
+		assertEquals("genreId,genreTag\r\n"
+				+ "1,plain\r\n"
+				+ "2,\"sci-fi, space\"\r\n"
+				+ "3,\"the \"\"classics\"\"\"\r\n"
+				+ "4,\"two\nlines\"\r\n"
+				+ "5,\"carriage\rreturn\"\r\n"
+				+ "6,\r\n", out.toString(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void csvIsUtf8() {
+		when(genreRepository.streamAllForExport()).thenReturn(Stream.of(genre(1L, "Ciencia ficción")));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		service.exportGenres(out, ExportFormat.CSV);
+
+		assertEquals("genreId,genreTag\r\n1,Ciencia ficción\r\n", out.toString(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void ndjsonWritesOneObjectPerLineWithDatesAndStatusesAsText() {
+		UserInfo user = UserInfo.builder().id(7L).username("reader").build();
+		when(orderRepository.streamAllForExport()).thenReturn(Stream.of(Order.builder()
+				.id(3L)
+				.user(user)
+				.username("reader")
+				.status(Status.SHIPPED)
+				.totalPrice(19.5)
+				.createdAt(LocalDateTime.of(2024, 6, 12, 9, 30))
+				.build()));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		service.exportOrders(out, ExportFormat.NDJSON);
+
+		assertEquals("{\"id\":3,\"userId\":7,\"username\":\"reader\",\"status\":\"SHIPPED\",\"totalPrice\":19.5,"
+				+ "\"createdAt\":\"2024-06-12T09:30\"}\n", out.toString(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void passwordsNeverLeave() {
+		for (ExportFormat format : ExportFormat.values()) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			when(userInfoRepository.streamAllForExport()).thenReturn(Stream.of(UserInfo.builder()
+					.id(1L)
+					.username("reader")
+					.password("s3cret-hash")
+					.roles("ROLE_USER")
+					.build()));
+			service.exportUsers(out, format);
+			assertFalse(out.toString(StandardCharsets.UTF_8).contains("s3cret-hash"));
+		}
+	}
+
+	@Test
+	void rowsAreDetachedAndTheContextClearedEveryFlush() {
+		when(genreRepository.streamAllForExport()).thenReturn(Stream.of(genre(1L, "a"), genre(2L, "b"),
+				genre(3L, "c"), genre(4L, "d"), genre(5L, "e")));
+
+		assertEquals(5, service.exportGenres(new ByteArrayOutputStream(), ExportFormat.CSV));
+
+		verify(entityManager, times(5)).detach(any());
+		verify(entityManager, times(2)).clear();
+	}
+
+	private static Genre genre(Long id, String tag) {
+		return Genre.builder().genreId(id).genreTag(tag).build();
+	}
+
+}
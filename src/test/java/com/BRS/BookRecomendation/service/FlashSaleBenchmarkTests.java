@@ -0,0 +1,190 @@
+package com.BRS.BookRecomendation.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.BRS.BookRecomendation.DTO.FlashSaleTicket;
+import com.BRS.BookRecomendation.Entities.Book;
+import com.BRS.BookRecomendation.Entities.UserInfo;
+import com.BRS.BookRecomendation.repository.BookRepository;
+import com.BRS.BookRecomendation.repository.BookStockRepository;
+import com.BRS.BookRecomendation.repository.OrderRepository;
+import com.BRS.BookRecomendation.repository.UserInfoRepository;
+
+// Hot-book checkout with the flash sale off (every shopper races placeDirectOrder on the stock row) and on
+// (admission in memory, one writer). Needs the database, so it only runs with
+// mvn test -Dtest=FlashSaleBenchmarkTests -Dbenchmark=true [-Dbenchmark.shoppers=N -Dbenchmark.stock=N]
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@SpringBootTest(properties = "inventory.ledger.enabled=false")
+class FlashSaleBenchmarkTests {
+
+	private static final Logger logger = LoggerFactory.getLogger(FlashSaleBenchmarkTests.class);
+
+	private static final int SHOPPERS = Integer.getInteger("benchmark.shoppers", 1000);
+	private static final int STOCK = Integer.getInteger("benchmark.stock", 100);
+	private static final int THREADS = Integer.getInteger("benchmark.threads", 64);
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private FlashSaleService flashSaleService;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private BookStockRepository bookStockRepository;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private UserInfoRepository userInfoRepository;
+
+	private Long bookId;
+	private final List<Long> userIds = new ArrayList<>();
+
+	@BeforeEach
+	void createShoppers() {
+		bookId = bookRepository.save(Book.builder()
+				.title("Flash sale benchmark")
+				.author("Test")
+				.price(10)
+				.stockQuantity(STOCK)
+				.build()).getId();
+		String run = "flash-bench-" + System.nanoTime() + "-";
+		for (int s = 0; s < SHOPPERS; s++) {
+			userIds.add(userInfoRepository.save(UserInfo.builder()
+					.username(run + s)
+					.fullName("Flash Benchmark")
+					.password("unused")
+					.roles("ROLE_USER")
+					.build()).getId());
+		}
+	}
+
+	@AfterEach
+	void deleteShoppers() {
+		flashSaleService.disable(bookId);
+		for (Long userId : userIds) {
+			orderRepository.deleteAll(orderRepository.findByUserId(userId));
+		}
+		userInfoRepository.deleteAllById(userIds);
+		bookRepository.deleteById(bookId);
+	}
+
+	@Test
+	void flashSaleOff() throws Exception {
+		AtomicInteger sold = new AtomicInteger();
+		long started = System.nanoTime();
+		long[] latencies = rush(userId -> {
+			try {
+				orderService.placeDirectOrder(userId, bookId, 1);
+				sold.incrementAndGet();
+			} catch (RuntimeException e) {
+				// Sold out or gave up on the lock; either way the shopper leaves without an order
+			}
+		});
+		report("off", started, System.nanoTime(), latencies);
+
+		assertEquals(STOCK, sold.get());
+		assertEquals(0, bookStockRepository.findStock(bookId));
+	}
+
+	@Test
+	void flashSaleOn() throws Exception {
+		flashSaleService.enable(bookId, SHOPPERS);
+		List<Long> admitted = new ArrayList<>();
+		long started = System.nanoTime();
+		long[] latencies = rush(userId -> {
+			FlashSaleTicket ticket = flashSaleService.checkout(userId, bookId, 1);
+			if (ticket.getState() == FlashSaleTicket.State.QUEUED) {
+				synchronized (admitted) {
+					admitted.add(ticket.getTicketId());
+				}
+			}
+		});
+		// Shoppers get their answer at admission; the sale is only over once the writer has placed every order
+		int sold = 0;
+		for (Long ticketId : admitted) {
+			FlashSaleTicket ticket = flashSaleService.getTicket(ticketId);
+			while (ticket.getState() == FlashSaleTicket.State.QUEUED) {
+				Thread.sleep(5);
+				ticket = flashSaleService.getTicket(ticketId);
+			}
+			if (ticket.getState() == FlashSaleTicket.State.CONFIRMED) {
+				sold++;
+			}
+		}
+		report("on", started, System.nanoTime(), latencies);
+
+		assertEquals(STOCK, admitted.size());
+		assertEquals(STOCK, sold);
+		assertEquals(0, bookStockRepository.findStock(bookId));
+	}
+
+	// Every shopper tries once, all released together; returns each attempt's latency in nanoseconds
+	private long[] rush(Shopper shopper) throws Exception {
+		long[] latencies = new long[userIds.size()];
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<?>> attempts = new ArrayList<>();
+			for (int s = 0; s < userIds.size(); s++) {
+				int index = s;
+				attempts.add(executor.submit(() -> {
+					start.await();
+					long begin = System.nanoTime();
+					shopper.checkout(userIds.get(index));
+					latencies[index] = System.nanoTime() - begin;
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> attempt : attempts) {
+				attempt.get(5, TimeUnit.MINUTES);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		return latencies;
+	}
+
+	private static void report(String mode, long started, long finished, long[] latencies) {
+		Arrays.sort(latencies);
+		double seconds = (finished - started) / 1e9;
+		logger.info("Flash sale {}: {} shoppers, {} units, {} threads in {} ms ({} attempts/s); "
+				+ "latency p50 {} ms, p99 {} ms, max {} ms",
+				mode, SHOPPERS, STOCK, THREADS, Math.round(seconds * 1000), Math.round(latencies.length / seconds),
+				millis(latencies, 0.50), millis(latencies, 0.99), millis(latencies, 1.0));
+	}
+
+	private static double millis(long[] sorted, double quantile) {
+		int index = Math.min(sorted.length - 1, (int) Math.ceil(quantile * sorted.length) - 1);
+		return Math.round(sorted[Math.max(0, index)] / 1e4) / 100.0;
+	}
+
+	private interface Shopper {
+		void checkout(Long userId);
+	}
+
+}
@@ -0,0 +1,92 @@
+package com.BRS.BookRecomendation.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.BRS.BookRecomendation.DTO.FlashSaleTicket;
+import com.BRS.BookRecomendation.Entities.Book;
+import com.BRS.BookRecomendation.Entities.Order;
+import com.BRS.BookRecomendation.repository.BookRepository;
+import com.BRS.BookRecomendation.repository.BookStockRepository;
+
+class FlashSaleServiceTests {
+
+	private static final Long BOOK_ID = 1L;
+
+	private OrderService orderService;
+	private BookStockRepository bookStockRepository;
+	private FlashSaleService service;
+
+	@BeforeEach
+	void startSale() {
+		orderService = mock(OrderService.class);
+		bookStockRepository = mock(BookStockRepository.class);
+		BookRepository bookRepository = mock(BookRepository.class);
+		when(bookRepository.findById(BOOK_ID))
+				.thenReturn(Optional.of(Book.builder().id(BOOK_ID).title("Hot").stockQuantity(5).build()));
+
+		service = new FlashSaleService();
+		ReflectionTestUtils.setField(service, "orderService", orderService);
+		ReflectionTestUtils.setField(service, "bookRepository", bookRepository);
+		ReflectionTestUtils.setField(service, "bookStockRepository", bookStockRepository);
+		ReflectionTestUtils.setField(service, "inventoryLedger", mock(InventoryLedger.class));
+		ReflectionTestUtils.setField(service, "defaultQueueCapacity", 10);
+		service.enable(BOOK_ID, null);
+	}
+
+	@AfterEach
+	void stopSale() {
+		service.shutdown();
+	}
+
+	@Test
+	void stockSoldElsewhereResyncsToWhatIsLeft() throws Exception {
+		// Two of the five units went elsewhere; the first ticket finds stock short
+		when(orderService.placeDirectOrder(anyLong(), anyLong(), anyInt()))
+				.thenThrow(new RuntimeException("Insufficient stock for book: Hot"))
+				.thenReturn(Order.builder().id(99L).build());
+		when(bookStockRepository.findStock(BOOK_ID)).thenReturn(3);
+
+		assertEquals(FlashSaleTicket.State.FAILED, awaitFinished(service.checkout(10L, BOOK_ID, 1)));
+
+		for (long user = 11; user <= 13; user++) {
+			assertEquals(FlashSaleTicket.State.QUEUED, service.checkout(user, BOOK_ID, 1).getState());
+		}
+		FlashSaleTicket soldOut = service.checkout(14L, BOOK_ID, 1);
+		assertEquals(FlashSaleTicket.State.REJECTED, soldOut.getState());
+		assertEquals("Sold out", soldOut.getMessage());
+	}
+
+	@Test
+	void otherFailuresHandTheUnitsBack() throws Exception {
+		when(orderService.placeDirectOrder(anyLong(), anyLong(), anyInt()))
+				.thenThrow(new RuntimeException("User not found."))
+				.thenReturn(Order.builder().id(99L).build());
+
+		assertEquals(FlashSaleTicket.State.FAILED, awaitFinished(service.checkout(10L, BOOK_ID, 5)));
+
+		assertEquals(FlashSaleTicket.State.QUEUED, service.checkout(11L, BOOK_ID, 5).getState());
+		assertEquals(FlashSaleTicket.State.REJECTED, service.checkout(12L, BOOK_ID, 1).getState());
+	}
+
+	private FlashSaleTicket.State awaitFinished(FlashSaleTicket ticket) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 10_000;
+		FlashSaleTicket current = ticket;
+		while (current.getState() == FlashSaleTicket.State.QUEUED && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+			current = service.getTicket(ticket.getTicketId());
+		}
+		return current.getState();
+	}
+
+}
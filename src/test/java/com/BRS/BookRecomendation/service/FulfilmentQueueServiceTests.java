@@ -0,0 +1,151 @@
+package com.BRS.BookRecomendation.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.BRS.BookRecomendation.DTO.FulfilmentLease;
+import com.BRS.BookRecomendation.DTO.Status;
+import com.BRS.BookRecomendation.repository.OrderBulkRepository;
+import com.BRS.BookRecomendation.repository.OrderRepository;
+
+// The locking queries decide who holds what; these tests pin down what the service does with their answers
+class FulfilmentQueueServiceTests {
+
+	private static final String WORKER = "packer-1";
+
+	private OrderRepository orderRepository;
+	private OrderBulkRepository orderBulkRepository;
+	private OutboxService outboxService;
+	private OrderAnalyticsService orderAnalyticsService;
+	private FulfilmentQueueService service;
+
+	@BeforeEach
+	void createService() {
+		orderRepository = mock(OrderRepository.class);
+		orderBulkRepository = mock(OrderBulkRepository.class);
+		outboxService = mock(OutboxService.class);
+		orderAnalyticsService = mock(OrderAnalyticsService.class);
+		service = new FulfilmentQueueService();
+		ReflectionTestUtils.setField(service, "orderRepository", orderRepository);
+		ReflectionTestUtils.setField(service, "orderBulkRepository", orderBulkRepository);
+		ReflectionTestUtils.setField(service, "orderService", mock(OrderService.class));
+		ReflectionTestUtils.setField(service, "outboxService", outboxService);
+		ReflectionTestUtils.setField(service, "orderAnalyticsService", orderAnalyticsService);
+		ReflectionTestUtils.setField(service, "leaseSeconds", 300L);
+		ReflectionTestUtils.setField(service, "maxClaim", 100);
+	}
+
+	@Test
+	void claimsTakeExpiredLeasesFirstAndAnnounceOnlyFreshOrders() {
+		when(orderRepository.lockExpiredLeases(any(LocalDateTime.class), eq(3))).thenReturn(List.of(5L));
+		when(orderRepository.lockClaimable(2)).thenReturn(List.of(8L, 9L));
+		when(orderBulkRepository.lockOrders(List.of(8L, 9L))).thenReturn(List.of(
+				new Object[] { 8L, Status.CONFIRMED, 1L, "ann" },
+				new Object[] { 9L, Status.CONFIRMED, 2L, "bob" }));
+
+		service.claim(WORKER, 3);
+
+		verify(orderRepository).updateClaim(eq(List.of(5L, 8L, 9L)), eq(Status.PROCESSING), eq(WORKER),
+				any(LocalDateTime.class));
+		ArgumentCaptor<Map<Long, Map<String, Object>>> payloads = ArgumentCaptor.captor();
+		verify(outboxService).appendAll(eq(OutboxService.ORDER_STATUS_CHANGED), payloads.capture());
+		assertEquals(List.of(8L, 9L), List.copyOf(payloads.getValue().keySet()));
+		assertEquals("PROCESSING", payloads.getValue().get(9L).get("status"));
+		assertEquals("bob", payloads.getValue().get(9L).get("username"));
+		verify(orderAnalyticsService).recordStatusChange(List.of(8L, 9L), Status.PROCESSING);
+	}
+
+	@Test
+	void aFullBatchOfExpiredLeasesClaimsNothingFresh() {
+		when(orderRepository.lockExpiredLeases(any(LocalDateTime.class), eq(2))).thenReturn(List.of(5L, 6L));
+
+		service.claim(WORKER, 2);
+
+		verify(orderRepository, never()).lockClaimable(anyInt());
+		verifyNoInteractions(outboxService, orderAnalyticsService);
+	}
+
+	@Test
+	void claimSizesAreClamped() {
+		service.claim(WORKER, 1000);
+		verify(orderRepository).lockExpiredLeases(any(LocalDateTime.class), eq(100));
+
+		service.claim(WORKER, 0);
+		verify(orderRepository).lockExpiredLeases(any(LocalDateTime.class), eq(1));
+	}
+
+	@Test
+	void heartbeatsExtendOnlyOrdersTheWorkerStillHolds() {
+		when(orderRepository.lockHeldBy(List.of(1L, 2L, 3L), WORKER)).thenReturn(List.of(1L, 3L));
+
+		FulfilmentLease lease = service.heartbeat(WORKER, List.of(1L, 2L, 2L, 3L));
+
+		assertEquals(List.of(1L, 3L), lease.getOrderIds());
+		assertEquals(List.of(2L), lease.getLostOrderIds());
+		verify(orderRepository).updateClaim(eq(List.of(1L, 3L)), eq(Status.PROCESSING), eq(WORKER),
+				eq(lease.getLeaseExpiresAt()));
+	}
+
+	@Test
+	void aWorkerThatLostEverythingExtendsNothing() {
+		when(orderRepository.lockHeldBy(List.of(1L, 2L), WORKER)).thenReturn(List.of());
+
+		FulfilmentLease lease = service.heartbeat(WORKER, List.of(1L, 2L));
+
+		assertEquals(List.of(1L, 2L), lease.getLostOrderIds());
+		verify(orderRepository, never()).updateClaim(anyList(), any(), any(), any());
+	}
+
+	@Test
+	void releasesHandHeldOrdersBackQuietly() {
+		when(orderRepository.lockHeldBy(List.of(1L, 2L), WORKER)).thenReturn(List.of(2L));
+
+		FulfilmentLease lease = service.release(WORKER, List.of(1L, 2L));
+
+		assertEquals(List.of(2L), lease.getOrderIds());
+		assertEquals(List.of(1L), lease.getLostOrderIds());
+		assertNull(lease.getLeaseExpiresAt());
+		verify(orderRepository).updateClaim(List.of(2L), Status.CONFIRMED, null, null);
+		verify(orderAnalyticsService).recordStatusChange(List.of(2L), Status.CONFIRMED);
+		verifyNoInteractions(outboxService);
+	}
+
+	@ParameterizedTest
+	@NullSource
+	@ValueSource(strings = { "", "   " })
+	void everyCallNeedsAWorkerId(String workerId) {
+		assertThrows(RuntimeException.class, () -> service.claim(workerId, 10));
+		assertThrows(RuntimeException.class, () -> service.heartbeat(workerId, List.of(1L)));
+		assertThrows(RuntimeException.class, () -> service.release(workerId, List.of(1L)));
+		verifyNoInteractions(orderRepository);
+	}
+
+	@Test
+	void workerIdsAreAtMost64Characters() {
+		assertThrows(RuntimeException.class, () -> service.claim("w".repeat(65), 10));
+		service.claim("w".repeat(64), 10);
+	}
+
+}
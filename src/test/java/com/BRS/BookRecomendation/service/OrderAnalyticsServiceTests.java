@@ -0,0 +1,144 @@
+package com.BRS.BookRecomendation.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.BRS.BookRecomendation.DTO.AnalyticsDimension;
+import com.BRS.BookRecomendation.DTO.AnalyticsGroup;
+import com.BRS.BookRecomendation.DTO.Status;
+import com.BRS.BookRecomendation.Entities.Book;
+import com.BRS.BookRecomendation.Entities.Order;
+import com.BRS.BookRecomendation.Entities.OrderItem;
+import com.BRS.BookRecomendation.Entities.UserInfo;
+import com.BRS.BookRecomendation.events.OrderPlacedEvent;
+
+// Leaves of one row make every order straddle fork-join slices, which is where double counting would show
+class OrderAnalyticsServiceTests {
+
+	private static final Book DUNE = Book.builder().id(1L).title("Dune").genreTag("scifi").build();
+	private static final Book HOBBIT = Book.builder().id(2L).title("The Hobbit").genreTag("fantasy").build();
+	private static final Book EARTHSEA = Book.builder().id(3L).title("Earthsea").genreTag("fantasy").build();
+
+	private OrderAnalyticsService service;
+
+	@BeforeEach
+	void createService() {
+		service = new OrderAnalyticsService();
+		ReflectionTestUtils.setField(service, "parallelism", 2);
+		ReflectionTestUtils.setField(service, "leafRows", 1);
+		service.start();
+	}
+
+	@AfterEach
+	void stopService() {
+		service.shutdown();
+	}
+
+	@Test
+	void anOrderCountsOncePerGroup() {
+		LocalDate day = LocalDate.of(2024, 6, 12);
+		place(1L, day, HOBBIT, EARTHSEA, DUNE);
+		place(2L, day, HOBBIT, HOBBIT);
+		place(3L, day, DUNE);
+
+		Map<String, AnalyticsGroup> genres = byKey(AnalyticsDimension.GENRE);
+		assertEquals(2, genres.get("fantasy").getOrders());
+		assertEquals(4, genres.get("fantasy").getUnits());
+		assertEquals(2, genres.get("scifi").getOrders());
+
+		Map<String, AnalyticsGroup> books = byKey(AnalyticsDimension.BOOK);
+		assertEquals(2, books.get("2").getOrders());
+		assertEquals(3, books.get("2").getUnits());
+		assertEquals("The Hobbit", books.get("2").getLabel());
+		assertEquals(1, books.get("3").getOrders());
+
+		assertEquals(3, byKey(AnalyticsDimension.STATUS).get("CONFIRMED").getOrders());
+	}
+
+	@Test
+	void weeksStartOnMondayNewestFirstAndSkipEmptyWeeks() {
+		place(1L, LocalDate.of(2024, 6, 9), DUNE);
+		place(2L, LocalDate.of(2024, 6, 10), DUNE);
+		place(3L, LocalDate.of(2024, 6, 16), DUNE, HOBBIT);
+		place(4L, LocalDate.of(2024, 6, 20), DUNE);
+		place(5L, LocalDate.of(2024, 7, 1), DUNE);
+
+		List<AnalyticsGroup> weeks = service.query(AnalyticsDimension.WEEK, null, null, List.of(), 10);
+
+		assertEquals(List.of("2024-07-01", "2024-06-17", "2024-06-10", "2024-06-03"),
+				weeks.stream().map(AnalyticsGroup::getKey).collect(Collectors.toList()));
+		assertEquals(2, weeks.get(2).getOrders());
+		assertEquals(3, weeks.get(2).getUnits());
+	}
+
+	@Test
+	void dateBoundsAreInclusive() {
+		place(1L, LocalDate.of(2024, 6, 9), DUNE);
+		place(2L, LocalDate.of(2024, 6, 10), DUNE);
+		place(3L, LocalDate.of(2024, 6, 11), DUNE);
+
+		List<AnalyticsGroup> books = service.query(AnalyticsDimension.BOOK, LocalDate.of(2024, 6, 10),
+				LocalDate.of(2024, 6, 11), null, 10);
+
+		assertEquals(2, books.get(0).getOrders());
+	}
+
+	@Test
+	void replayedOrdersAreIgnoredAndStatusChangesFollow() {
+		LocalDate day = LocalDate.of(2024, 6, 12);
+		place(1L, day, DUNE, HOBBIT);
+		place(1L, day, DUNE, HOBBIT);
+		place(2L, day, DUNE);
+
+		service.recordStatusChange(List.of(1L), Status.CANCELLED);
+
+		assertEquals(3, service.getRowCount());
+		Map<String, AnalyticsGroup> statuses = byKey(AnalyticsDimension.STATUS);
+		assertEquals(1, statuses.get("CANCELLED").getOrders());
+		assertEquals(2, statuses.get("CANCELLED").getUnits());
+		assertEquals(1, statuses.get("CONFIRMED").getOrders());
+		List<AnalyticsGroup> confirmed = service.query(AnalyticsDimension.BOOK, null, null,
+				List.of(Status.CONFIRMED), 10);
+		assertEquals(List.of("1"), confirmed.stream().map(AnalyticsGroup::getKey).collect(Collectors.toList()));
+	}
+
+	private Map<String, AnalyticsGroup> byKey(AnalyticsDimension dimension) {
+		return service.query(dimension, null, null, null, 100).stream()
+				.collect(Collectors.toMap(AnalyticsGroup::getKey, Function.identity()));
+	}
+
+	private void place(Long orderId, LocalDate day, Book... books) {
+		UserInfo user = UserInfo.builder().id(7L).username("reader").build();
+		Order order = Order.builder()
+				.id(orderId)
+				.user(user)
+				.username(user.getUsername())
+				.status(Status.CONFIRMED)
+				.createdAt(day.atTime(12, 0))
+				.build();
+		List<OrderItem> items = new ArrayList<>();
+		for (Book book : books) {
+			items.add(OrderItem.builder()
+					.order(order)
+					.book(book)
+					.bookTitle(book.getTitle())
+					.quantity(1)
+					.price(10.0)
+					.build());
+		}
+		order.setOrderItems(items);
+		service.onOrderPlaced(new OrderPlacedEvent(order));
+	}
+
+}
@@ -0,0 +1,42 @@
+package com.BRS.BookRecomendation.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class OrderCursorsTests {
+
+	@Test
+	void roundTripsThePosition() {
+		LocalDateTime createdAt = LocalDateTime.of(2024, 2, 29, 23, 59, 58, 123_456_789);
+		String cursor = OrderCursors.encode(createdAt, 42L);
+		assertArrayEquals(new Object[] { createdAt, 42L }, OrderCursors.decode(cursor));
+	}
+
+	@Test
+	void roundTripsWholeMinutes() {
+		// LocalDateTime prints these without seconds
+		LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 0, 0);
+		assertArrayEquals(new Object[] { createdAt, 1L }, OrderCursors.decode(OrderCursors.encode(createdAt, 1L)));
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "", "2024-01-01T00:00", "2024-01-01T00:00|", "2024-01-01T00:00|x", "yesterday|1" })
+	void rejectsMalformedPositions(String raw) {
+		String cursor = Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+		assertThrows(IllegalArgumentException.class, () -> OrderCursors.decode(cursor));
+	}
+
+	@Test
+	void rejectsCursorsThatAreNotBase64() {
+		assertThrows(IllegalArgumentException.class, () -> OrderCursors.decode("not a cursor!"));
+	}
+
+}
@@ -0,0 +1,137 @@
+package com.BRS.BookRecomendation.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.BRS.BookRecomendation.DTO.OrderDTO;
+import com.BRS.BookRecomendation.DTO.OrderHistoryPage;
+import com.BRS.BookRecomendation.DTO.Status;
+import com.BRS.BookRecomendation.Entities.Book;
+import com.BRS.BookRecomendation.Entities.Order;
+import com.BRS.BookRecomendation.Entities.OrderItem;
+import com.BRS.BookRecomendation.Entities.UserInfo;
+import com.BRS.BookRecomendation.repository.BookRepository;
+import com.BRS.BookRecomendation.repository.OrderRepository;
+import com.BRS.BookRecomendation.repository.UserInfoRepository;
+
+// Order history must cost two queries per page, headers then items, however many orders and items it holds
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+		+ "com.BRS.BookRecomendation.service.QueryCounter")
+class OrderHistoryQueryCountTests {
+
+	private static final int ORDERS = 5;
+	private static final int ITEMS_PER_ORDER = 2;
+	private static final int PAGE_SIZE = 3;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private UserInfoRepository userInfoRepository;
+
+	private Long userId;
+	private final List<Long> bookIds = new ArrayList<>();
+	private final List<Long> orderIds = new ArrayList<>();
+
+	@BeforeEach
+	void createOrders() {
+		UserInfo user = userInfoRepository.save(UserInfo.builder()
+				.username("history-test-" + System.nanoTime())
+				.fullName("History Test")
+				.password("unused")
+				.roles("ROLE_USER")
+				.build());
+		userId = user.getId();
+		List<Book> books = new ArrayList<>();
+		for (int b = 0; b < ITEMS_PER_ORDER; b++) {
+			Book book = bookRepository.save(Book.builder()
+					.title("History test " + b)
+					.author("Test")
+					.price(10)
+					.build());
+			books.add(book);
+			bookIds.add(book.getId());
+		}
+
+		LocalDateTime now = LocalDateTime.now();
+		for (int o = 0; o < ORDERS; o++) {
+			Order order = Order.builder()
+					.user(user)
+					.username(user.getUsername())
+					.status(Status.CONFIRMED)
+					.totalPrice(10.0 * ITEMS_PER_ORDER)
+					.createdAt(now.minusMinutes(o))
+					.build();
+			List<OrderItem> items = new ArrayList<>();
+			for (Book book : books) {
+				items.add(OrderItem.builder()
+						.order(order)
+						.book(book)
+						.bookTitle(book.getTitle())
+						.quantity(1)
+						.price(book.getPrice())
+						.build());
+			}
+			order.setOrderItems(items);
+			orderIds.add(orderRepository.save(order).getId());
+		}
+	}
+
+	@AfterEach
+	void deleteOrders() {
+		orderRepository.deleteAllById(orderIds);
+		bookRepository.deleteAllById(bookIds);
+		userInfoRepository.deleteById(userId);
+	}
+
+	@Test
+	void everyHistoryPageTakesTwoQueries() {
+		QueryCounter.reset();
+		OrderHistoryPage first = orderService.getOrderHistory(userId, null, PAGE_SIZE);
+		assertEquals(2, QueryCounter.count());
+		assertEquals(PAGE_SIZE, first.getOrders().size());
+		for (OrderDTO order : first.getOrders()) {
+			assertEquals(ITEMS_PER_ORDER, order.getOrderItems().size());
+		}
+
+		QueryCounter.reset();
+		OrderHistoryPage second = orderService.getOrderHistory(userId, first.getNextCursor(), PAGE_SIZE);
+		assertEquals(2, QueryCounter.count());
+		assertEquals(ORDERS - PAGE_SIZE, second.getOrders().size());
+		assertNull(second.getNextCursor());
+		for (OrderDTO order : second.getOrders()) {
+			assertEquals(ITEMS_PER_ORDER, order.getOrderItems().size());
+		}
+	}
+
+	@Test
+	void singleOrderViewTakesTwoQueries() {
+		QueryCounter.reset();
+		OrderDTO order = orderService.getOrderView(userId, orderIds.get(0)).orElse(null);
+		assertEquals(2, QueryCounter.count());
+		assertEquals(orderIds.get(0), order.getId());
+		assertEquals(ITEMS_PER_ORDER, order.getOrderItems().size());
+
+		QueryCounter.reset();
+		assertTrue(orderService.getOrderView(userId + 1, orderIds.get(0)).isEmpty());
+		assertEquals(1, QueryCounter.count());
+	}
+
+}
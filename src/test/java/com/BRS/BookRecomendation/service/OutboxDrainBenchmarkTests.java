@@ -0,0 +1,146 @@
+package com.BRS.BookRecomendation.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.BRS.BookRecomendation.events.OutboxMessage;
+
+// Drain throughput with one and with several concurrent drainers over the same seeded backlog. The scheduled
+// poller is pushed out of the way so only the drainers started here touch the rows. Needs the database, so it
+// only runs with mvn test -Dtest=OutboxDrainBenchmarkTests -Dbenchmark=true [-Dbenchmark.events=N]
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@SpringBootTest(properties = "outbox.poll-interval-ms=3600000")
+@Import(OutboxDrainBenchmarkTests.Deliveries.class)
+class OutboxDrainBenchmarkTests {
+
+	private static final Logger logger = LoggerFactory.getLogger(OutboxDrainBenchmarkTests.class);
+
+	// No listener in the application handles this type, so each row is published once and deleted
+	private static final String EVENT_TYPE = "DRAIN_BENCHMARK";
+	private static final int EVENTS = Integer.getInteger("benchmark.events", 20_000);
+	private static final int SEED_CHUNK = 1_000;
+
+	@Autowired
+	private OutboxService outboxService;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private Deliveries deliveries;
+
+	@AfterEach
+	void deleteLeftovers() {
+		jdbcTemplate.update("DELETE FROM outbox WHERE event_type = ?", EVENT_TYPE);
+		deliveries.clear();
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 1, 2, 4, 8 })
+	void drain(int drainers) throws Exception {
+		seed();
+
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(drainers);
+		long started;
+		try {
+			List<Future<?>> running = new ArrayList<>();
+			for (int d = 0; d < drainers; d++) {
+				running.add(executor.submit(() -> {
+					start.await();
+					while (remaining() > 0) {
+						outboxService.drain();
+					}
+					return null;
+				}));
+			}
+			started = System.nanoTime();
+			start.countDown();
+			for (Future<?> drainer : running) {
+				drainer.get(10, TimeUnit.MINUTES);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		long elapsedMs = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+
+		logger.info("Outbox drain: {} events with {} drainers in {} ms ({} events/s)", EVENTS, drainers, elapsedMs,
+				EVENTS * 1000L / elapsedMs);
+		assertEquals(0, remaining());
+		assertEquals(EVENTS, deliveries.distinct());
+		assertEquals(0, deliveries.duplicates());
+	}
+
+	private void seed() {
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+		for (int from = 0; from < EVENTS; from += SEED_CHUNK) {
+			Map<Long, Map<String, Object>> payloads = new LinkedHashMap<>();
+			for (long aggregate = from; aggregate < Math.min(EVENTS, from + SEED_CHUNK); aggregate++) {
+				payloads.put(aggregate, Map.of("sequence", aggregate));
+			}
+			transaction.executeWithoutResult(status -> outboxService.appendAll(EVENT_TYPE, payloads));
+		}
+	}
+
+	private long remaining() {
+		Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox WHERE event_type = ?", Long.class,
+				EVENT_TYPE);
+		return count == null ? 0 : count;
+	}
+
+	// Records every delivery of a benchmark row so double publishing shows up
+	static class Deliveries {
+
+		private final Map<Long, Boolean> seen = new ConcurrentHashMap<>();
+		private final AtomicInteger duplicates = new AtomicInteger();
+
+		@EventListener
+		public void onOutboxMessage(OutboxMessage message) {
+			if (EVENT_TYPE.equals(message.getType()) && seen.putIfAbsent(message.getId(), Boolean.TRUE) != null) {
+				duplicates.incrementAndGet();
+			}
+		}
+
+		int distinct() {
+			return seen.size();
+		}
+
+		int duplicates() {
+			return duplicates.get();
+		}
+
+		void clear() {
+			seen.clear();
+			duplicates.set(0);
+		}
+	}
+
+}
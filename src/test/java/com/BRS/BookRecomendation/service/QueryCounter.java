@@ -0,0 +1,24 @@
+package com.BRS.BookRecomendation.service;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Counts the SQL statements Hibernate prepares on the calling thread, so background jobs do not skew the count
+public class QueryCounter implements StatementInspector {
+
+	private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+	@Override
+	public String inspect(String sql) {
+		COUNT.get()[0]++;
+		return sql;
+	}
+
+	static void reset() {
+		COUNT.get()[0] = 0;
+	}
+
+	static int count() {
+		return COUNT.get()[0];
+	}
+
+}
@@ -0,0 +1,91 @@
+package com.BRS.BookRecomendation.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.BRS.BookRecomendation.DTO.SalesFigures;
+import com.BRS.BookRecomendation.Entities.SalesAggregate;
+import com.BRS.BookRecomendation.repository.SalesAggregateRepository;
+
+class SalesStatsServiceTests {
+
+	private static final LocalDate TODAY = LocalDate.now();
+
+	private SalesAggregateRepository repository;
+	private SalesStatsService service;
+
+	@BeforeEach
+	void createService() {
+		repository = mock(SalesAggregateRepository.class);
+		service = new SalesStatsService();
+		ReflectionTestUtils.setField(service, "salesAggregateRepository", repository);
+		ReflectionTestUtils.setField(service, "memoryDays", 90);
+	}
+
+	@Test
+	void topBooksKeepIdsBeyondTheIntRange() {
+		load(book(3_000_000_000L, 50, TODAY),
+				book(5L, 80, TODAY),
+				book(4_000_000_000L, 50, TODAY),
+				book(7L, 10, TODAY));
+
+		List<SalesFigures> top = service.getTopBooks(30, 3);
+
+		assertEquals(List.of("5", "3000000000", "4000000000"), top.stream().map(SalesFigures::getKey).toList());
+	}
+
+	@Test
+	void topBooksAddUpTheDaysInTheWindow() {
+		load(book(1L, 30, TODAY),
+				book(1L, 30, TODAY.minusDays(1)),
+				book(2L, 50, TODAY),
+				book(2L, 500, TODAY.minusDays(10)));
+
+		List<SalesFigures> top = service.getTopBooks(2, 10);
+
+		assertEquals(List.of("1", "2"), top.stream().map(SalesFigures::getKey).toList());
+		assertEquals(60, top.get(0).getRevenue());
+		assertEquals(2, top.get(0).getOrders());
+	}
+
+	@Test
+	void dailyFiguresAreZeroBeforeAnySales() {
+		load();
+
+		List<SalesFigures> daily = service.getDaily(3);
+
+		assertEquals(3, daily.size());
+		assertEquals(TODAY.toString(), daily.get(0).getKey());
+		assertEquals(TODAY.minusDays(2).toString(), daily.get(2).getKey());
+		for (SalesFigures day : daily) {
+			assertEquals(0, day.getRevenue());
+			assertEquals(0, day.getOrders());
+		}
+	}
+
+	private void load(SalesAggregate... rows) {
+		when(repository.findSince(any())).thenReturn(List.of(rows));
+		service.load();
+	}
+
+	private static SalesAggregate book(long bookId, double revenue, LocalDate day) {
+		return SalesAggregate.builder()
+				.dimension(SalesAggregateRepository.BOOK)
+				.dimensionKey(String.valueOf(bookId))
+				.salesDate(day)
+				.revenue(revenue)
+				.units(1)
+				.orderCount(1)
+				.build();
+	}
+
+}
@@ -0,0 +1,129 @@
+package com.BRS.BookRecomendation.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.BRS.BookRecomendation.Entities.Book;
+import com.BRS.BookRecomendation.Entities.Cart;
+import com.BRS.BookRecomendation.Entities.UserInfo;
+import com.BRS.BookRecomendation.repository.BookRepository;
+import com.BRS.BookRecomendation.repository.BookStockRepository;
+import com.BRS.BookRecomendation.repository.CartRepository;
+import com.BRS.BookRecomendation.repository.OrderRepository;
+import com.BRS.BookRecomendation.repository.UserInfoRepository;
+
+// Hundreds of shoppers check out the same book at once through placeOrder; exactly the stock may be sold
+@SpringBootTest(properties = "inventory.ledger.enabled=false")
+class StockConcurrencyTests {
+
+	private static final int INITIAL_STOCK = 10;
+	private static final int SHOPPERS = 300;
+	private static final int THREADS = 32;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private BookStockRepository bookStockRepository;
+
+	@Autowired
+	private CartRepository cartRepository;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private UserInfoRepository userInfoRepository;
+
+	private Long bookId;
+	private final List<Long> userIds = new ArrayList<>();
+
+	@BeforeEach
+	void fillCarts() {
+		Book book = bookRepository.save(Book.builder()
+				.title("Stock stress test")
+				.author("Test")
+				.price(10)
+				.stockQuantity(INITIAL_STOCK)
+				.build());
+		bookId = book.getId();
+		String run = "stock-test-" + System.nanoTime() + "-";
+		for (int s = 0; s < SHOPPERS; s++) {
+			UserInfo user = userInfoRepository.save(UserInfo.builder()
+					.username(run + s)
+					.fullName("Stock Test")
+					.password("unused")
+					.roles("ROLE_USER")
+					.build());
+			userIds.add(user.getId());
+			cartRepository.save(Cart.builder()
+					.user(user)
+					.book(book)
+					.quantity(1)
+					.addedDate(LocalDateTime.now())
+					.build());
+		}
+	}
+
+	@AfterEach
+	void deleteShoppers() {
+		for (Long userId : userIds) {
+			orderRepository.deleteAll(orderRepository.findByUserId(userId));
+			cartRepository.deleteAll(cartRepository.findByUserId(userId));
+		}
+		userInfoRepository.deleteAllById(userIds);
+		bookRepository.deleteById(bookId);
+	}
+
+	@Test
+	void concurrentCheckoutsNeverOversell() throws Exception {
+		AtomicInteger placed = new AtomicInteger();
+		AtomicInteger rejected = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<?>> checkouts = new ArrayList<>();
+			for (Long userId : userIds) {
+				checkouts.add(executor.submit(() -> {
+					start.await();
+					try {
+						orderService.placeOrder(userId);
+						placed.incrementAndGet();
+					} catch (RuntimeException e) {
+						rejected.incrementAndGet();
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> checkout : checkouts) {
+				checkout.get(2, TimeUnit.MINUTES);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertEquals(INITIAL_STOCK, placed.get());
+		assertEquals(SHOPPERS - INITIAL_STOCK, rejected.get());
+		assertEquals(0, bookStockRepository.findStock(bookId));
+	}
+
+}
@@ -0,0 +1,61 @@
+package com.BRS.BookRecomendation.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class UserRecommendationServiceTests {
+
+	private UserRecommendationService service;
+
+	@BeforeEach
+	void trainModel() throws Exception {
+		// User 1 has read book 1 only; everyone else pairs book 1 with one of 60 other books
+		ItemKnnTrainer trainer = new ItemKnnTrainer();
+		trainer.add(1L, 1L, 1.0f);
+		for (long user = 2; user <= 61; user++) {
+			trainer.add(user, 1L, 1.0f);
+			trainer.add(user, user, 1.0f);
+		}
+		ForkJoinPool pool = new ForkJoinPool(1);
+		try {
+			service = new UserRecommendationService();
+			getModel().set(trainer.train(pool, 100, 100, 6.0f));
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	@Test
+	void limitIsClampedToTheMaximum() {
+		List<Long> recommendations = service.getRecommendations(1L, 1000);
+		assertEquals(UserRecommendationService.MAX_RECOMMENDATIONS, recommendations.size());
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 0, -1, Integer.MIN_VALUE })
+	void nonPositiveLimitsReturnOneBook(int limit) {
+		assertEquals(1, service.getRecommendations(1L, limit).size());
+	}
+
+	@Test
+	void emptyModelRecommendsNothing() {
+		getModel().set(ItemKnnTrainer.Model.empty());
+		assertTrue(service.getRecommendations(1L, -1).isEmpty());
+	}
+
+	@SuppressWarnings("unchecked")
+	private AtomicReference<ItemKnnTrainer.Model> getModel() {
+		return (AtomicReference<ItemKnnTrainer.Model>) ReflectionTestUtils.getField(service, "model");
+	}
+
+}
@@ -0,0 +1,65 @@
+package com.BRS.BookRecomendation.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+class IntIntHashMapTests {
+
+	@Test
+	void addToAccumulatesAndMissingKeysReadAsZero() {
+		IntIntHashMap map = new IntIntHashMap();
+		map.addTo(7, 2);
+		map.addTo(7, 3);
+		map.addTo(0, -1);
+		assertEquals(5, map.get(7));
+		assertEquals(-1, map.get(0));
+		assertEquals(0, map.get(8));
+		assertEquals(2, map.size());
+	}
+
+	@Test
+	void keepsEveryValueWhileGrowing() {
+		IntIntHashMap map = new IntIntHashMap();
+		for (int key = 0; key < 10_000; key++) {
+			map.addTo(key * 31, key);
+		}
+		assertEquals(10_000, map.size());
+		for (int key = 0; key < 10_000; key++) {
+			assertEquals(key, map.get(key * 31));
+		}
+	}
+
+	@Test
+	void slotIterationVisitsEveryEntryOnce() {
+		IntIntHashMap map = new IntIntHashMap(2);
+		long expectedKeys = 0;
+		long expectedValues = 0;
+		for (int key = 1; key <= 100; key++) {
+			map.addTo(key, key * 2);
+			expectedKeys += key;
+			expectedValues += key * 2;
+		}
+		long keys = 0;
+		long values = 0;
+		int entries = 0;
+		for (int slot = 0; slot < map.capacity(); slot++) {
+			if (map.keyAt(slot) >= 0) {
+				keys += map.keyAt(slot);
+				values += map.valueAt(slot);
+				entries++;
+			}
+		}
+		assertEquals(100, entries);
+		assertEquals(expectedKeys, keys);
+		assertEquals(expectedValues, values);
+	}
+
+	@Test
+	void rejectsNegativeKeys() {
+		IntIntHashMap map = new IntIntHashMap();
+		assertThrows(IllegalArgumentException.class, () -> map.addTo(-1, 1));
+	}
+
+}
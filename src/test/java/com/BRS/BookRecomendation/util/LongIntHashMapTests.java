@@ -0,0 +1,53 @@
+package com.BRS.BookRecomendation.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class LongIntHashMapTests {
+
+	@Test
+	void putOverwritesAndMissingKeysReadAsTheMissingValue() {
+		LongIntHashMap map = new LongIntHashMap(4, -1);
+		map.put(42L, 1);
+		map.put(42L, 2);
+		assertEquals(2, map.get(42L));
+		assertEquals(-1, map.get(43L));
+		assertTrue(map.containsKey(42L));
+		assertFalse(map.containsKey(43L));
+		assertEquals(1, map.size());
+	}
+
+	@Test
+	void holdsLargeAndNegativeKeys() {
+		LongIntHashMap map = new LongIntHashMap(4, -1);
+		map.put(Long.MAX_VALUE, 1);
+		map.put(-5L, 2);
+		map.put(0L, 3);
+		assertEquals(1, map.get(Long.MAX_VALUE));
+		assertEquals(2, map.get(-5L));
+		assertEquals(3, map.get(0L));
+	}
+
+	@Test
+	void keepsEveryValueWhileGrowing() {
+		LongIntHashMap map = new LongIntHashMap(1, -1);
+		for (int i = 0; i < 10_000; i++) {
+			map.put(i * 1_000_003L, i);
+		}
+		assertEquals(10_000, map.size());
+		for (int i = 0; i < 10_000; i++) {
+			assertEquals(i, map.get(i * 1_000_003L));
+		}
+	}
+
+	@Test
+	void rejectsTheReservedKey() {
+		LongIntHashMap map = new LongIntHashMap(4, -1);
+		assertThrows(IllegalArgumentException.class, () -> map.put(Long.MIN_VALUE, 1));
+	}
+
+}
@@ -0,0 +1,37 @@
+package com.BRS.BookRecomendation.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class StringDictionaryTests {
+
+	@Test
+	void codesAreDenseInFirstSeenOrder() {
+		StringDictionary dictionary = new StringDictionary();
+		assertEquals(0, dictionary.encode("fantasy"));
+		assertEquals(1, dictionary.encode("history"));
+		assertEquals(0, dictionary.encode("fantasy"));
+		assertEquals(2, dictionary.encode("Fantasy"));
+		assertEquals(3, dictionary.size());
+	}
+
+	@Test
+	void decodeReturnsTheEncodedValue() {
+		StringDictionary dictionary = new StringDictionary();
+		String[] values = { "alice", "bob", "", "alice", "carol" };
+		for (String value : values) {
+			assertEquals(value, dictionary.decode(dictionary.encode(value)));
+		}
+		assertEquals(4, dictionary.size());
+	}
+
+	@Test
+	void nullSharesTheCodeOfTheEmptyString() {
+		StringDictionary dictionary = new StringDictionary();
+		int code = dictionary.encode(null);
+		assertEquals(code, dictionary.encode(""));
+		assertEquals("", dictionary.decode(code));
+	}
+
+}
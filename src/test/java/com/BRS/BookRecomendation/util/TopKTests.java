@@ -0,0 +1,49 @@
+package com.BRS.BookRecomendation.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class TopKTests {
+
+	@Test
+	void keepsTheHighestScoresBestFirst() {
+		TopK top = new TopK(3);
+		double[] scores = { 5, 1, 9, 3, 7, 2, 8, 4, 6, 0 };
+		for (int id = 0; id < scores.length; id++) {
+			top.offer(id, scores[id]);
+		}
+		assertEquals(3, top.size());
+		assertArrayEquals(new int[] { 2, 6, 4 }, top.drainDescending());
+		assertEquals(0, top.size());
+	}
+
+	@Test
+	void returnsEverythingWhenFewerThanKAreOffered() {
+		TopK top = new TopK(10);
+		top.offer(1, 0.5);
+		top.offer(2, -1.0);
+		top.offer(3, 2.5);
+		assertArrayEquals(new int[] { 3, 1, 2 }, top.drainDescending());
+	}
+
+	@Test
+	void aLowerScoreDoesNotDisplaceAFullHeap() {
+		TopK top = new TopK(2);
+		top.offer(1, 10);
+		top.offer(2, 20);
+		top.offer(3, 5);
+		top.offer(4, 10);
+		assertArrayEquals(new int[] { 2, 1 }, top.drainDescending());
+	}
+
+	@Test
+	void keepsAtLeastOne() {
+		TopK top = new TopK(0);
+		top.offer(1, 1);
+		top.offer(2, 2);
+		assertArrayEquals(new int[] { 2 }, top.drainDescending());
+	}
+
+}